@@ -0,0 +1,73 @@
+package nonogram.bench;
+
+import nonogram.generator.Board;
+import nonogram.generator.Line;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures access to the lines of a board: getting a column, and reading all of its squares.
+ *
+ * @author agueguen-LR
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({"25", "100", "500"})
+    public int size;
+
+    private Board board;
+    private byte[] buffer;
+    private int x;
+
+    @Setup
+    public void setUp() {
+        board = RandomBoards.board(RandomBoards.brightness(size, size, 0.5, new Random(42)));
+        buffer = new byte[size];
+    }
+
+    private int nextColumn() {
+        x = x + 1 == size ? 0 : x + 1;
+        return x;
+    }
+
+    @Benchmark
+    public Line getColumn() {
+        return board.getColumn(nextColumn());
+    }
+
+    @Benchmark
+    public int readColumnSquares() {
+        Line column = board.getColumn(nextColumn());
+        int filled = 0;
+        for (int y = 0; y < column.size(); y++) {
+            if (column.get(y).isFilled()) {
+                filled++;
+            }
+        }
+        return filled;
+    }
+
+    @Benchmark
+    public byte[] copyColumnStates() {
+        board.getColumn(nextColumn()).copyStates(buffer);
+        return buffer;
+    }
+}
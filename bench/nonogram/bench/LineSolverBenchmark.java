@@ -0,0 +1,137 @@
+package nonogram.bench;
+
+import nonogram.generator.Clue;
+import nonogram.generator.Square;
+import nonogram.solver.CompleteLineSolver;
+import nonogram.solver.LineSolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the line solvers and the {@link nonogram.solver.LineSolverUtilities} helpers they are built on,
+ * on random partially solved lines. Each invocation takes the next of a fixed set of lines,
+ * so the branches of the solvers are not trained on a single input.
+ *
+ * @author agueguen-LR
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineSolverBenchmark {
+
+    /**
+     * The number of lines cycled through, a power of two.
+     */
+    private static final int LINES = 64;
+
+    @Param({"25", "100", "500"})
+    public int length;
+
+    private final LineSolver lineSolver = new LineSolver();
+    private final CompleteLineSolver completeLineSolver = new CompleteLineSolver();
+
+    private final byte[][] lines = new byte[LINES][];
+    private final ArrayList<ArrayList<Square>> squareLines = new ArrayList<>();
+    private final ArrayList<ArrayList<Integer>> lineStates = new ArrayList<>();
+    private final Clue[] clues = new Clue[LINES];
+    private byte[] work;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        work = new byte[length];
+        for (int i = 0; i < LINES; i++) {
+            // the heuristics throw on some inconsistent partial lines, only keep the lines they accept
+            while (true) {
+                boolean[] solution = RandomBoards.solution(length, random);
+                byte[] line = RandomBoards.partialLine(solution, 0.3, random);
+                Clue clue = RandomBoards.clue(solution);
+                ArrayList<Square> squares = toSquares(line);
+                try {
+                    lineSolver.getNewSquareStates(squares, clue);
+                } catch (IndexOutOfBoundsException e) {
+                    continue;
+                }
+                lines[i] = line;
+                clues[i] = clue;
+                squareLines.add(squares);
+                lineStates.add(lineSolver.getLineState(squares));
+                break;
+            }
+        }
+    }
+
+    private static ArrayList<Square> toSquares(byte[] line) {
+        ArrayList<Square> squares = new ArrayList<>();
+        for (byte state : line) {
+            Square square = new Square();
+            if (state == Square.FILLED) {
+                square.fill();
+            } else if (state == Square.CROSS) {
+                square.cross();
+            }
+            squares.add(square);
+        }
+        return squares;
+    }
+
+    private int next() {
+        index = (index + 1) & (LINES - 1);
+        return index;
+    }
+
+    @Benchmark
+    public HashMap<Integer, Boolean> getNewSquareStates() {
+        int i = next();
+        return lineSolver.getNewSquareStates(squareLines.get(i), clues[i]);
+    }
+
+    @Benchmark
+    public int lineSolverSolve() {
+        int i = next();
+        System.arraycopy(lines[i], 0, work, 0, length);
+        return lineSolver.solve(work, length, clues[i]);
+    }
+
+    @Benchmark
+    public int completeLineSolverSolve() {
+        int i = next();
+        System.arraycopy(lines[i], 0, work, 0, length);
+        return completeLineSolver.solve(work, length, clues[i]);
+    }
+
+    @Benchmark
+    public ArrayList<Integer> getLineState() {
+        return lineSolver.getLineState(squareLines.get(next()));
+    }
+
+    @Benchmark
+    public int stateIndexToSquareIndex() {
+        ArrayList<Integer> lineState = lineStates.get(next());
+        return lineSolver.stateIndexToSquareIndex(lineState.size() - 1, lineState);
+    }
+
+    @Benchmark
+    public int firstIncompleteClue() {
+        int i = next();
+        return lineSolver.firstIncompleteClue(clues[i], lineStates.get(i));
+    }
+}
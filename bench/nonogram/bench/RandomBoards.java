@@ -0,0 +1,127 @@
+package nonogram.bench;
+
+import nonogram.generator.Board;
+import nonogram.generator.Clue;
+import nonogram.generator.Square;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Builds the synthetic boards and lines used by the benchmarks, always from a fixed seed
+ * so that every run measures the same work.
+ *
+ * @author agueguen-LR
+ */
+final class RandomBoards {
+
+    private RandomBoards() {}
+
+    /**
+     * Creates a random brightness map, where each square has the given chance of being darker than the threshold of clues.
+     *
+     * @param width the number of columns
+     * @param height the number of rows
+     * @param density the chance of a square being filled in the solution
+     * @param random the source of randomness
+     * @return the brightness of each square, by row
+     */
+    static float[][] brightness(int width, int height, double density, Random random) {
+        float[][] brightness = new float[height][width];
+        for (float[] row : brightness) {
+            for (int x = 0; x < width; x++) {
+                row[x] = random.nextDouble() < density ? 0f : 1f;
+            }
+        }
+        return brightness;
+    }
+
+    /**
+     * Creates a board with empty squares whose clues describe the given brightness map.
+     *
+     * @param brightness the brightness of each square, by row
+     * @return the board
+     */
+    static Board board(float[][] brightness) {
+        int height = brightness.length;
+        int width = brightness[0].length;
+        ArrayList<Clue> horizontalClues = new ArrayList<>();
+        for (float[] values : brightness) {
+            ArrayList<Float> row = new ArrayList<>();
+            for (float value : values) {
+                row.add(value);
+            }
+            horizontalClues.add(new Clue(row));
+        }
+        ArrayList<Clue> verticalClues = new ArrayList<>();
+        for (int x = 0; x < width; x++) {
+            ArrayList<Float> column = new ArrayList<>();
+            for (float[] values : brightness) {
+                column.add(values[x]);
+            }
+            verticalClues.add(new Clue(column));
+        }
+        return new Board(width, height, horizontalClues, verticalClues);
+    }
+
+    /**
+     * Creates the clue of a line from its solution.
+     *
+     * @param solution the squares of the line, true if filled
+     * @return the clue
+     */
+    static Clue clue(boolean[] solution) {
+        ArrayList<Float> brightness = new ArrayList<>();
+        for (boolean filled : solution) {
+            brightness.add(filled ? 0f : 1f);
+        }
+        return new Clue(brightness);
+    }
+
+    /**
+     * Creates a random line solution.
+     *
+     * @param length the number of squares
+     * @param random the source of randomness
+     * @return the squares of the line, true if filled
+     */
+    static boolean[] solution(int length, Random random) {
+        boolean[] solution = new boolean[length];
+        for (int i = 0; i < length; i++) {
+            solution[i] = random.nextInt(3) != 0;
+        }
+        return solution;
+    }
+
+    /**
+     * Reveals part of a solution, as a partially solved line would be during solving.
+     *
+     * @param solution the squares of the line, true if filled
+     * @param revealed the chance of each square being revealed
+     * @param random the source of randomness
+     * @return the states of the squares, EMPTY where nothing is revealed
+     */
+    static byte[] partialLine(boolean[] solution, double revealed, Random random) {
+        byte[] line = new byte[solution.length];
+        for (int i = 0; i < line.length; i++) {
+            if (random.nextDouble() < revealed) {
+                line[i] = solution[i] ? Square.FILLED : Square.CROSS;
+            }
+        }
+        return line;
+    }
+
+    /**
+     * Empties every square of a board.
+     *
+     * @param board the board
+     */
+    static void clear(Board board) {
+        int[] dimensions = board.getDimensions();
+        for (int y = 0; y < dimensions[1]; y++) {
+            for (int x = 0; x < dimensions[0]; x++) {
+                board.clearSquare(x, y);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package nonogram.bench;
+
+import nonogram.generator.Board;
+import nonogram.generator.BoardGenerator;
+import nonogram.solver.BoardCompleter;
+import nonogram.solver.CompleteLineSolver;
+import nonogram.solver.LineSolver;
+import nonogram.solver.LineSolverEngine;
+import nonogram.solver.SolveResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures end-to-end headless solving, from an empty board to the fixpoint of line logic,
+ * of the bundled puzzles and of random boards. Random boards are mostly left stuck by line logic,
+ * they measure how fast the fixpoint is reached on large boards.
+ * <p>
+ * A puzzle is given as the image file and its pixel size separated by a colon,
+ * or as random:size for a random board of size x size squares. Puzzles are run with the directory
+ * of the project as working directory, so that the images are found under resources.
+ *
+ * @author agueguen-LR
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolveBenchmark {
+
+    @Param({
+            "resources/Test.bmp:1",
+            "resources/Test2.bmp:1",
+            "resources/Camera.bmp:1",
+            "resources/CatPot_Large.png:12",
+            "random:25",
+            "random:100",
+            "random:250",
+            "random:500"
+    })
+    public String puzzle;
+
+    @Param({"complete", "heuristic"})
+    public String engine;
+
+    private Board board;
+    private BoardCompleter completer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] fields = puzzle.split(":");
+        if (fields[0].equals("random")) {
+            int size = Integer.parseInt(fields[1]);
+            board = RandomBoards.board(RandomBoards.brightness(size, size, 0.6, new Random(42)));
+        } else {
+            board = new BoardGenerator(fields[0], Integer.parseInt(fields[1])).getBoard();
+        }
+        LineSolverEngine lineSolverEngine = engine.equals("complete") ? new CompleteLineSolver() : new LineSolver();
+        completer = new BoardCompleter(board, lineSolverEngine);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearBoard() {
+        // a solve takes milliseconds, far above the cost of the per-invocation setup
+        RandomBoards.clear(board);
+    }
+
+    @Benchmark
+    public SolveResult solve() {
+        return completer.solve();
+    }
+}
@@ -7,6 +7,7 @@ package nonogram;
 import nonogram.generator.BoardGenerator;
 import nonogram.generator.Board;
 import nonogram.solver.BoardCompleter;
+import nonogram.solver.CompleteLineSolver;
 
 /**
  *
@@ -17,14 +18,14 @@ public class Main {
     /**
      * @param args the command line arguments
      */
-    public static void main(String[] args) throws InterruptedException {
+    public static void main(String[] args) {
 
         BoardGenerator Camera = new BoardGenerator("resources/Camera.bmp", 1);
         Board board = Camera.getBoard();
 //        BoardGenerator CatPot_Large = new BoardGenerator("resources/CatPot_Large.png", 36);
 //        Board board = CatPot_Large.getBoard();
 
-        BoardCompleter solver = new BoardCompleter(board);
+        BoardCompleter solver = new BoardCompleter(board, new CompleteLineSolver());
         solver.BeginSolving(10);
 
     }
@@ -0,0 +1,189 @@
+package nonogram.batch;
+
+import nonogram.generator.Board;
+import nonogram.generator.BoardGenerator;
+import nonogram.io.PuzzleFormat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * A puzzle to be solved by the {@link BatchSolver}: an image file and the size of the pixel blocks
+ * it is reduced to when the board is generated, or a puzzle file in one of the {@link PuzzleFormat}s,
+ * which is read as is.
+ * <p>
+ * Puzzles are listed either from a directory, where every image or puzzle file is a puzzle, or from a manifest,
+ * a text file with one puzzle per line: the path of the file, optionally followed by its pixel size.
+ * Blank lines and lines starting with # are ignored, and relative paths are resolved against the directory
+ * of the manifest.
+ *
+ * @author agueguen-LR
+ */
+public class BatchPuzzle {
+
+    /**
+     * The extensions of the image files read from a directory.
+     */
+    private static final List<String> IMAGE_EXTENSIONS = List.of(".bmp", ".png", ".jpg", ".jpeg", ".gif");
+
+    /**
+     * The image or puzzle file of the puzzle.
+     */
+    private final Path path;
+
+    /**
+     * The size of the pixel blocks the image is reduced to.
+     */
+    private final int pixelSize;
+
+    /**
+     * Constructs a new BatchPuzzle.
+     *
+     * @param path the image or puzzle file of the puzzle
+     * @param pixelSize the size of the pixel blocks the image is reduced to
+     */
+    public BatchPuzzle(Path path, int pixelSize) {
+        if (pixelSize < 1) {
+            throw new IllegalArgumentException("Pixel size must be positive: " + pixelSize);
+        }
+        this.path = path;
+        this.pixelSize = pixelSize;
+    }
+
+    /**
+     * Lists the puzzles of a directory or a manifest.
+     *
+     * @param source a directory of image or puzzle files, or a manifest file
+     * @param defaultPixelSize the pixel size of the puzzles that do not specify one
+     * @return the puzzles, in the order of the manifest or sorted by file name
+     * @throws IOException if the source cannot be read
+     */
+    public static List<BatchPuzzle> list(Path source, int defaultPixelSize) throws IOException {
+        return Files.isDirectory(source) ? fromDirectory(source, defaultPixelSize) : fromManifest(source, defaultPixelSize);
+    }
+
+    /**
+     * Lists the image and puzzle files of a directory as puzzles, sorted by file name. Subdirectories are not searched.
+     *
+     * @param directory the directory
+     * @param pixelSize the pixel size of every image
+     * @return the puzzles
+     * @throws IOException if the directory cannot be read
+     */
+    public static List<BatchPuzzle> fromDirectory(Path directory, int pixelSize) throws IOException {
+        ArrayList<BatchPuzzle> puzzles = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(Files::isRegularFile)
+                    .filter(file -> isImage(file) || PuzzleFormat.forFile(file) != null)
+                    .sorted()
+                    .forEach(file -> puzzles.add(new BatchPuzzle(file, pixelSize)));
+        }
+        return puzzles;
+    }
+
+    /**
+     * Reads the puzzles listed in a manifest.
+     *
+     * @param manifest the manifest file
+     * @param defaultPixelSize the pixel size of the puzzles that do not specify one
+     * @return the puzzles, in the order of the manifest
+     * @throws IOException if the manifest cannot be read, or if one of its lines is malformed
+     */
+    public static List<BatchPuzzle> fromManifest(Path manifest, int defaultPixelSize) throws IOException {
+        Path base = manifest.toAbsolutePath().getParent();
+        ArrayList<BatchPuzzle> puzzles = new ArrayList<>();
+        List<String> lines = Files.readAllLines(manifest);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            if (fields.length > 2) {
+                throw new IOException(manifest + ":" + (i + 1) + ": expected a path and an optional pixel size");
+            }
+            int pixelSize = defaultPixelSize;
+            if (fields.length == 2) {
+                try {
+                    pixelSize = Integer.parseInt(fields[1]);
+                } catch (NumberFormatException e) {
+                    throw new IOException(manifest + ":" + (i + 1) + ": invalid pixel size " + fields[1], e);
+                }
+            }
+            puzzles.add(new BatchPuzzle(base.resolve(fields[0]), pixelSize));
+        }
+        return puzzles;
+    }
+
+    /**
+     * Generates the board of the puzzle, or reads it from its puzzle file.
+     *
+     * @return a new board, with every square empty
+     * @throws IOException if the file cannot be read, or if the puzzle file is malformed
+     */
+    public Board load() throws IOException {
+        if (!Files.isReadable(path)) {
+            throw new IOException("Cannot read " + path);
+        }
+        PuzzleFormat format = PuzzleFormat.forFile(path);
+        if (format != null) {
+            Board board = format.read(path);
+            clear(board);
+            return board;
+        }
+        return new BoardGenerator(path.toString(), pixelSize).getBoard();
+    }
+
+    /**
+     * Returns the file of the puzzle.
+     *
+     * @return the path of the image or puzzle file
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the size of the pixel blocks the image is reduced to.
+     *
+     * @return the pixel size
+     */
+    public int getPixelSize() {
+        return pixelSize;
+    }
+
+    /**
+     * Clears the squares of a board read with its solution, so that the solver starts from an empty board.
+     */
+    private static void clear(Board board) {
+        int[] dimensions = board.getDimensions();
+        for (int y = 0; y < dimensions[1]; y++) {
+            for (int x = 0; x < dimensions[0]; x++) {
+                board.clearSquare(x, y);
+            }
+        }
+    }
+
+    /**
+     * Checks if a file has the extension of an image.
+     */
+    private static boolean isImage(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return IMAGE_EXTENSIONS.stream().anyMatch(name::endsWith);
+    }
+
+    /**
+     * Returns a string representation of the puzzle.
+     *
+     * @return the path of the image and its pixel size
+     */
+    @Override
+    public String toString() {
+        return path + " (" + pixelSize + ")";
+    }
+}
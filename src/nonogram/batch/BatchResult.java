@@ -0,0 +1,226 @@
+package nonogram.batch;
+
+import nonogram.solver.SolveResult;
+
+/**
+ * The outcome of one puzzle of a batch, written as a line of CSV or JSON by the {@link BatchResultWriter}.
+ *
+ * @author agueguen-LR
+ */
+public class BatchResult {
+
+    /**
+     * Enum representing the possible outcomes of a puzzle.
+     * SOLVED, STUCK and CONTRADICTION are the statuses of {@link SolveResult},
+     * TIMEOUT means the solve was cancelled after the time limit,
+     * ERROR means the puzzle could not be loaded or solved.
+     */
+    public enum Status {
+        SOLVED, STUCK, CONTRADICTION, TIMEOUT, ERROR
+    }
+
+    /**
+     * The header of the CSV output, matching {@link #toCsv()}.
+     */
+    public static final String CSV_HEADER = "puzzle,pixelSize,width,height,status,passes,millis,message";
+
+    /**
+     * The puzzle.
+     */
+    private final BatchPuzzle puzzle;
+
+    /**
+     * The outcome of the puzzle.
+     */
+    private final Status status;
+
+    /**
+     * The number of columns of the board, 0 if it was never generated.
+     */
+    private final int width;
+
+    /**
+     * The number of rows of the board, 0 if it was never generated.
+     */
+    private final int height;
+
+    /**
+     * The number of passes the solver made over the board.
+     */
+    private final int passes;
+
+    /**
+     * The time taken by the solve, or until the solve was given up, in nanoseconds.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * The reason of an error, empty otherwise.
+     */
+    private final String message;
+
+    private BatchResult(BatchPuzzle puzzle, Status status, int width, int height, int passes, long elapsedNanos, String message) {
+        this.puzzle = puzzle;
+        this.status = status;
+        this.width = width;
+        this.height = height;
+        this.passes = passes;
+        this.elapsedNanos = elapsedNanos;
+        this.message = message;
+    }
+
+    /**
+     * Creates the result of a puzzle the solver went through.
+     *
+     * @param puzzle the puzzle
+     * @param dimensions the dimensions of the board, as returned by {@code Board.getDimensions()}
+     * @param result the result of the solver
+     * @return the result of the puzzle
+     */
+    public static BatchResult solved(BatchPuzzle puzzle, int[] dimensions, SolveResult result) {
+        return new BatchResult(puzzle, Status.valueOf(result.getStatus().name()), dimensions[0], dimensions[1],
+                result.getPasses(), result.getElapsedNanos(), "");
+    }
+
+    /**
+     * Creates the result of a puzzle whose solve exceeded the time limit.
+     *
+     * @param puzzle the puzzle
+     * @param elapsedNanos the time until the solve was cancelled, in nanoseconds
+     * @return the result of the puzzle
+     */
+    public static BatchResult timeout(BatchPuzzle puzzle, long elapsedNanos) {
+        return new BatchResult(puzzle, Status.TIMEOUT, 0, 0, 0, elapsedNanos, "");
+    }
+
+    /**
+     * Creates the result of a puzzle that could not be loaded or solved.
+     *
+     * @param puzzle the puzzle
+     * @param cause the exception thrown
+     * @param elapsedNanos the time until the exception was thrown, in nanoseconds
+     * @return the result of the puzzle
+     */
+    public static BatchResult error(BatchPuzzle puzzle, Throwable cause, long elapsedNanos) {
+        String message = cause.getMessage() == null ? cause.getClass().getName() : cause.getClass().getName() + ": " + cause.getMessage();
+        return new BatchResult(puzzle, Status.ERROR, 0, 0, 0, elapsedNanos, message);
+    }
+
+    /**
+     * Returns the puzzle.
+     *
+     * @return the puzzle
+     */
+    public BatchPuzzle getPuzzle() {
+        return puzzle;
+    }
+
+    /**
+     * Returns the outcome of the puzzle.
+     *
+     * @return the status
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the number of passes the solver made over the board.
+     *
+     * @return the number of passes
+     */
+    public int getPasses() {
+        return passes;
+    }
+
+    /**
+     * Returns the time taken by the solve.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the reason of an error.
+     *
+     * @return the message, empty if the status is not ERROR
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Formats the result as a line of CSV, with the columns of {@link #CSV_HEADER}.
+     *
+     * @return the line, without line separator
+     */
+    public String toCsv() {
+        return csvField(puzzle.getPath().toString()) + ',' + puzzle.getPixelSize() + ',' + width + ',' + height + ','
+                + status + ',' + passes + ',' + millis() + ',' + csvField(message);
+    }
+
+    /**
+     * Formats the result as a JSON object on a single line.
+     *
+     * @return the line, without line separator
+     */
+    public String toJson() {
+        return "{\"puzzle\":" + jsonString(puzzle.getPath().toString()) + ",\"pixelSize\":" + puzzle.getPixelSize()
+                + ",\"width\":" + width + ",\"height\":" + height + ",\"status\":\"" + status + "\",\"passes\":" + passes
+                + ",\"millis\":" + millis() + ",\"message\":" + jsonString(message) + '}';
+    }
+
+    /**
+     * Returns the elapsed time in milliseconds, with microsecond precision.
+     */
+    private String millis() {
+        return String.valueOf(elapsedNanos / 1_000 / 1_000.0);
+    }
+
+    /**
+     * Quotes a CSV field if it contains a separator, a quote or a line break.
+     */
+    private static String csvField(String value) {
+        if (value.indexOf(',') == -1 && value.indexOf('"') == -1 && value.indexOf('\n') == -1 && value.indexOf('\r') == -1) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Quotes and escapes a JSON string.
+     */
+    private static String jsonString(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * Returns a string representation of the BatchResult object.
+     *
+     * @return the string representation of the BatchResult object
+     */
+    @Override
+    public String toString() {
+        return "BatchResult{" + "puzzle=" + puzzle + ", status=" + status + ", passes=" + passes + ", elapsedMillis=" + millis() + '}';
+    }
+}
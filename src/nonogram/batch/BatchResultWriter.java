@@ -0,0 +1,88 @@
+package nonogram.batch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Streams the results of a batch as CSV or JSON lines, one line per puzzle, as soon as each puzzle is done.
+ * Every line is flushed once written, so the output of an interrupted batch holds every puzzle finished so far.
+ * The writer can be shared by the threads of the batch.
+ *
+ * @author agueguen-LR
+ */
+public class BatchResultWriter implements AutoCloseable {
+
+    /**
+     * Enum representing the output formats.
+     * CSV writes a header then one row per puzzle, JSONL one JSON object per line.
+     */
+    public enum Format {
+        CSV, JSONL
+    }
+
+    /**
+     * The output.
+     */
+    private final BufferedWriter out;
+
+    /**
+     * The format of the output.
+     */
+    private final Format format;
+
+    /**
+     * Constructs a writer on the given output, writing the CSV header if needed.
+     *
+     * @param out the output, closed with this writer
+     * @param format the format of the output
+     * @throws IOException if the header cannot be written
+     */
+    public BatchResultWriter(Writer out, Format format) throws IOException {
+        this.out = out instanceof BufferedWriter buffered ? buffered : new BufferedWriter(out);
+        this.format = format;
+        if (format == Format.CSV) {
+            this.out.write(BatchResult.CSV_HEADER);
+            this.out.newLine();
+            this.out.flush();
+        }
+    }
+
+    /**
+     * Opens a writer on a file, in JSON lines if the name of the file ends with .jsonl or .json, in CSV otherwise.
+     *
+     * @param file the output file, replaced if it exists
+     * @return the writer
+     * @throws IOException if the file cannot be created
+     */
+    public static BatchResultWriter open(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        Format format = name.endsWith(".jsonl") || name.endsWith(".json") ? Format.JSONL : Format.CSV;
+        return new BatchResultWriter(Files.newBufferedWriter(file), format);
+    }
+
+    /**
+     * Writes the line of a result and flushes it.
+     *
+     * @param result the result of a puzzle
+     * @throws IOException if the line cannot be written
+     */
+    public synchronized void write(BatchResult result) throws IOException {
+        out.write(format == Format.CSV ? result.toCsv() : result.toJson());
+        out.newLine();
+        out.flush();
+    }
+
+    /**
+     * Closes the output.
+     *
+     * @throws IOException if the output cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
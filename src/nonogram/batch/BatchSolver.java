@@ -0,0 +1,202 @@
+package nonogram.batch;
+
+import nonogram.generator.Board;
+import nonogram.solver.BoardCompleter;
+import nonogram.solver.BoardSearcher;
+import nonogram.solver.CompleteLineSolver;
+import nonogram.solver.LineCache;
+import nonogram.solver.SolveResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * BatchSolver solves many puzzles concurrently, without any Swing dependency.
+ * Each puzzle is generated with {@link nonogram.generator.BoardGenerator} and solved headlessly with
+ * {@link BoardCompleter}, or {@link BoardSearcher} when searching is enabled, on a fixed number of threads.
+ * <p>
+ * A puzzle that exceeds the time limit is cancelled by interrupting its thread, which the solvers check between two
+ * passes, and reported as TIMEOUT. Every puzzle solves its lines through a {@link LineCache} shared by the whole batch,
+ * since puzzles made from similar images repeat many of the same lines. The result of each puzzle is written as soon as
+ * it is done, so results are written in the order puzzles finish, not the order they were listed.
+ * <p>
+ * Usage: {@code BatchSolver <directory|manifest> <output.csv|output.jsonl> [--threads N] [--timeout MILLIS]
+ * [--pixel-size N] [--search]}
+ *
+ * @author agueguen-LR
+ */
+public class BatchSolver {
+
+    /**
+     * The number of puzzles solved at the same time.
+     */
+    private final int threads;
+
+    /**
+     * The time limit of each puzzle in milliseconds, including the generation of its board.
+     */
+    private final long timeoutMillis;
+
+    /**
+     * Whether to search the boards line logic leaves stuck.
+     */
+    private final boolean search;
+
+    /**
+     * The cache of solved lines shared by every puzzle of the batch.
+     */
+    private final LineCache cache = new LineCache(1 << 16);
+
+    /**
+     * Constructs a new BatchSolver.
+     *
+     * @param threads the number of puzzles solved at the same time
+     * @param timeoutMillis the time limit of each puzzle in milliseconds, including the generation of its board
+     * @param search true to complete the boards line logic leaves stuck with {@link BoardSearcher}
+     */
+    public BatchSolver(int threads, long timeoutMillis, boolean search) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        if (timeoutMillis < 1) {
+            throw new IllegalArgumentException("Timeout must be positive: " + timeoutMillis);
+        }
+        this.threads = threads;
+        this.timeoutMillis = timeoutMillis;
+        this.search = search;
+    }
+
+    /**
+     * Returns the cache of solved lines shared by the puzzles, to read its statistics.
+     *
+     * @return the line cache
+     */
+    public LineCache getLineCache() {
+        return cache;
+    }
+
+    /**
+     * Solves every puzzle and writes its result, returning once every puzzle is done.
+     *
+     * @param puzzles the puzzles to solve
+     * @param writer the output of the results
+     * @throws IOException if a result cannot be written, the remaining puzzles are then skipped
+     * @throws InterruptedException if the calling thread is interrupted while waiting, the puzzles being solved are cancelled
+     */
+    public void run(List<BatchPuzzle> puzzles, BatchResultWriter writer) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ScheduledExecutorService alarms = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "batch-timeouts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicReference<IOException> writeError = new AtomicReference<>();
+        try {
+            for (BatchPuzzle puzzle : puzzles) {
+                pool.execute(() -> {
+                    if (writeError.get() != null) {
+                        return;
+                    }
+                    try {
+                        writer.write(solveWithTimeout(puzzle, alarms));
+                    } catch (IOException e) {
+                        writeError.compareAndSet(null, e);
+                    }
+                });
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } finally {
+            pool.shutdownNow();
+            alarms.shutdownNow();
+        }
+        if (writeError.get() != null) {
+            throw writeError.get();
+        }
+    }
+
+    /**
+     * Solves a puzzle on the current thread, cancelling it if it exceeds the time limit.
+     *
+     * @param puzzle the puzzle
+     * @param alarms the scheduler cancelling the puzzle
+     * @return the result of the puzzle
+     */
+    private BatchResult solveWithTimeout(BatchPuzzle puzzle, ScheduledExecutorService alarms) {
+        long start = System.nanoTime();
+        FutureTask<BatchResult> task = new FutureTask<>(() -> solve(puzzle));
+        ScheduledFuture<?> alarm = alarms.schedule(() -> task.cancel(true), timeoutMillis, TimeUnit.MILLISECONDS);
+        task.run();
+        alarm.cancel(false);
+        try {
+            return task.get();
+        } catch (CancellationException e) {
+            // the interrupt of the cancelled task is delivered before run returns, clear it for the writer
+            Thread.interrupted();
+            return BatchResult.timeout(puzzle, System.nanoTime() - start);
+        } catch (ExecutionException e) {
+            return BatchResult.error(puzzle, e.getCause(), System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            // the task is done, get does not wait
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Generates the board of a puzzle and solves it.
+     *
+     * @param puzzle the puzzle
+     * @return the result of the puzzle
+     * @throws IOException if the puzzle cannot be read
+     */
+    private BatchResult solve(BatchPuzzle puzzle) throws IOException {
+        Board board = puzzle.load();
+        SolveResult result = search
+                ? new BoardSearcher(board, cache.engine(new CompleteLineSolver())).solve()
+                : new BoardCompleter(board, cache.engine(new CompleteLineSolver())).solve();
+        return BatchResult.solved(puzzle, board.getDimensions(), result);
+    }
+
+    /**
+     * Solves the puzzles of a directory or manifest and writes their results to a file.
+     *
+     * @param args the source of the puzzles, the output file, then the options
+     * @throws IOException if the puzzles cannot be listed or the results cannot be written
+     * @throws InterruptedException if the batch is interrupted
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: BatchSolver <directory|manifest> <output.csv|output.jsonl>"
+                    + " [--threads N] [--timeout MILLIS] [--pixel-size N] [--search]");
+            System.exit(2);
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        long timeoutMillis = 60_000;
+        int pixelSize = 1;
+        boolean search = false;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--timeout" -> timeoutMillis = Long.parseLong(args[++i]);
+                case "--pixel-size" -> pixelSize = Integer.parseInt(args[++i]);
+                case "--search" -> search = true;
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        List<BatchPuzzle> puzzles = BatchPuzzle.list(Path.of(args[0]), pixelSize);
+        try (BatchResultWriter writer = BatchResultWriter.open(Path.of(args[1]))) {
+            new BatchSolver(threads, timeoutMillis, search).run(puzzles, writer);
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package nonogram.generator;
 
-import java.awt.Color;
-import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serial;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 /*
  * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
@@ -16,11 +18,13 @@ import javax.swing.JPanel;
 /**
  * Represents the nonogram board.
  * The board consists of a grid of squares and clues for each row and column.
+ * The squares are packed one byte per cell in a single row-major array,
+ * rows and columns are exposed as {@link Line} views of that array.
  * The board can be painted on a JPanel.
  * The board can be queried for its dimensions and individual squares.
  * The board can also be updated by filling or crossing squares.
  * The toString method provides a string representation of the board.
- * The paintComponent method draws the board and clues on the JPanel.
+ * The paintComponent method draws the board and clues on the JPanel, only redrawing the squares that changed.
  *
  * @see Square
  * @see Clue
@@ -33,9 +37,29 @@ public class Board extends JPanel {
     private static final long serialVersionUID = 7148504598535036003L;
 
     /**
-     * The grid of squares representing the board.
+     * The state of every square of the board, row after row.
      */
-    private final ArrayList<ArrayList<Square>> board = new ArrayList<>();
+    private final byte[] cells;
+
+    /**
+     * The number of columns in the board.
+     */
+    private final int dimensionX;
+
+    /**
+     * The number of rows in the board.
+     */
+    private final int dimensionY;
+
+    /**
+     * The views of each row of the board, rebuilt from the cells when the board is deserialized.
+     */
+    private transient Line[] rows;
+
+    /**
+     * The views of each column of the board, rebuilt from the cells when the board is deserialized.
+     */
+    private transient Line[] columns;
 
     /**
      * The list of horizontal clues.
@@ -47,6 +71,17 @@ public class Board extends JPanel {
      */
     private final ArrayList<Clue> VerticalClues;
 
+    /**
+     * Paints the board incrementally, created on the first paint so that boards never displayed don't pay for it.
+     * Only used from the event dispatch thread.
+     */
+    private transient BoardRenderer renderer;
+
+    /**
+     * Whether a repaint of the changed squares is scheduled and has not run yet.
+     */
+    private final AtomicBoolean repaintPending = new AtomicBoolean();
+
     /**
      * Constructs a new Board with the specified dimensions and clues.
      *
@@ -56,37 +91,109 @@ public class Board extends JPanel {
      * @param VerticalClues the list of vertical clues
      */
     public Board(int dimensionX, int dimensionY, ArrayList<Clue> HorizontalClues, ArrayList<Clue> VerticalClues) {
-        for (int y = 0; y<dimensionY; y++){
-            ArrayList<Square> row = new ArrayList<>();
-            for (int x = 0; x<dimensionX; x++){
-                row.add(new Square());
-            }
-            board.add(row);
-        }
+        this.dimensionX = dimensionX;
+        this.dimensionY = dimensionY;
+        this.cells = new byte[dimensionX * dimensionY];
+        createLines();
         this.HorizontalClues = HorizontalClues;
         this.VerticalClues = VerticalClues;
     }
 
     /**
-     * Returns the list of squares in the specified row.
+     * Creates the row and column views of the cells.
+     */
+    private void createLines() {
+        this.rows = new Line[dimensionY];
+        for (int y = 0; y<dimensionY; y++){
+            rows[y] = new Line(cells, y * dimensionX, 1, dimensionX);
+        }
+        this.columns = new Line[dimensionX];
+        for (int x = 0; x<dimensionX; x++){
+            columns[x] = new Line(cells, x, dimensionX, dimensionY);
+        }
+    }
+
+    /**
+     * Reads the board, then rebuilds the row and column views over its cells.
+     *
+     * @param in the stream the board is read from
+     * @throws IOException if the stream cannot be read
+     * @throws ClassNotFoundException if the class of a serialized field cannot be found
+     */
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        createLines();
+    }
+
+    /**
+     * Returns the view of the squares in the specified row.
+     * The view is created once with the board, this method doesn't allocate.
      * @param y the row number
-     * @return the list of squares in the specified row
+     * @return the squares in the specified row
+     */
+    public Line getRow(int y){
+        return rows[y];
+    }
+
+    /**
+     * Returns the view of the squares in the specified column.
+     * The view is created once with the board, this method doesn't allocate.
+     * @param x the column number
+     * @return the squares in the specified column
      */
-    public ArrayList<Square> getRow(int y){
-        return board.get(y);
+    public Line getColumn(int x){
+        return columns[x];
     }
 
     /**
-     * Returns the list of squares in the specified column.
+     * Returns a view of the square at the specified position.
      * @param x the column number
-     * @return the list of squares in the specified column
+     * @param y the row number
+     * @return the square at the specified position
      */
-    public ArrayList<Square> getColumn(int x){
-        ArrayList<Square> column = new ArrayList<>();
-        for (ArrayList<Square> row : board){
-            column.add(row.get(x));
+    public Square getSquare(int x, int y){
+        return new Square(cells, cellIndex(x, y));
+    }
+
+    /**
+     * Sets the square at the specified position to FILLED.
+     * @param x the column number
+     * @param y the row number
+     */
+    public void fillSquare(int x, int y){
+        cells[cellIndex(x, y)] = Square.FILLED;
+    }
+
+    /**
+     * Sets the square at the specified position to CROSS.
+     * @param x the column number
+     * @param y the row number
+     */
+    public void crossSquare(int x, int y){
+        cells[cellIndex(x, y)] = Square.CROSS;
+    }
+
+    /**
+     * Sets the square at the specified position back to EMPTY.
+     * @param x the column number
+     * @param y the row number
+     */
+    public void clearSquare(int x, int y){
+        cells[cellIndex(x, y)] = Square.EMPTY;
+    }
+
+    /**
+     * Converts a position on the board into an index in the cells array.
+     * @param x the column number
+     * @param y the row number
+     * @return the index of the square in the cells array
+     */
+    private int cellIndex(int x, int y){
+        if (x < 0 || x >= dimensionX || y < 0 || y >= dimensionY){
+            throw new IndexOutOfBoundsException("Square (" + x + ", " + y + ") out of bounds for board " + dimensionX + "x" + dimensionY);
         }
-        return column;
+        return y * dimensionX + x;
     }
 
     /**
@@ -113,7 +220,7 @@ public class Board extends JPanel {
      * @return an array containing the number of columns and rows in the board
      */
     public int[] getDimensions(){
-        return new int[]{board.getFirst().size(), board.size()};
+        return new int[]{dimensionX, dimensionY};
     }
 
     /**
@@ -125,86 +232,51 @@ public class Board extends JPanel {
     @Override
     public String toString() {
         StringBuilder string = new StringBuilder();
-        for (int i = 0; i<board.size(); i++){
-            string.append(HorizontalClues.get(i)).append(board.get(i).toString()).append('\n');
+        for (int i = 0; i<dimensionY; i++){
+            string.append(HorizontalClues.get(i)).append(rows[i].toString()).append('\n');
         }
         return string.toString();
     }
 
+    /**
+     * Schedules a repaint of the squares changed since the board was last painted. Can be called from any thread,
+     * and as often as squares change: the calls made before the scheduled repaint runs are merged into it,
+     * so the board is repainted at most once per pass of the event dispatch thread.
+     */
+    public void repaintChangedSquares() {
+        if (repaintPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                repaintPending.set(false);
+                Rectangle changed = renderer().changedBounds();
+                if (changed != null) {
+                    repaint(changed);
+                }
+            });
+        }
+    }
+
     /**
      * Paints the board and clues on the JPanel.
+     * The layout, font and clues are computed again only when the size of the panel changes,
+     * otherwise only the squares changed since the last paint are drawn, see {@link BoardRenderer}.
      *
      * @param g the Graphics object used for painting
      */
+    @Override
     public void paintComponent(Graphics g) {
-        super.paintComponent(g);
-
-        var Xcount = board.getFirst().size();
-        var Ycount = board.size();
-
-        // Calculate the font size based on the square length
-        int fontSize = (int) (((double) getHeight() / Ycount) * 0.6);
-        g.setFont(new Font("Courier New", Font.BOLD, fontSize));
-
-        // Get FontMetrics to measure the size of the string
-        FontMetrics metrics = g.getFontMetrics();
-
-        // Find the longest clue horizontally
-        Clue maxHoriz = new Clue();
-        for (Clue c : HorizontalClues){
-            if (c.getClue().size()>maxHoriz.getClue().size()){
-                maxHoriz = c;
-            }
-        }
-        var maxClueWidth = metrics.stringWidth(maxHoriz.getClueString());
-
-        // Find the longest clue vertically
-        Clue maxVert = new Clue();
-        for (Clue c : VerticalClues){
-            if (c.getClue().size()>maxVert.getClue().size()){
-                maxVert = c;
-            }
+        Rectangle outside = renderer().paint(g, getWidth(), getHeight(), getBackground());
+        if (outside != null) {
+            repaint(outside);
         }
-        var maxClueHeight = maxVert.getClue().size()*metrics.getAscent();
-
-        var squareLength = Integer.min((getHeight() - maxClueHeight) / Ycount , (getWidth() - maxClueWidth) / Xcount);
-        var Xoffset = (getWidth() - (Xcount*squareLength+maxClueWidth)) / 2;
-        var Yoffset = (getHeight() - (Ycount*squareLength+maxClueHeight)) / 2;
-
-        // Draw the grid
-        for (int i = 0; i < Ycount; i++) {
-            ArrayList<Square> row = board.get(i);
-            for (int j = 0; j < Xcount; j++) {
-                // Draw the squares
-                g.setColor(Color.BLUE.darker());
-                g.fillRect(maxClueWidth + Xoffset + squareLength * j, maxClueHeight + Yoffset + squareLength * i, squareLength, squareLength);
-                if (row.get(j).isFilled()){
-                    g.setColor(Color.BLACK);
-                } else if (row.get(j).isCrossed()){
-                    g.setColor(Color.GRAY.brighter());
-                } else {
-                    g.setColor(Color.WHITE);
-                }
-                g.fillRect(maxClueWidth + 1 + Xoffset + squareLength * j, maxClueHeight + Yoffset + 1 + squareLength * i, squareLength - 2, squareLength - 2);
-            }
-        }
-
-        g.setColor(Color.WHITE);
+    }
 
-        // Draw the clues
-        // Horizontally
-        for (int j = 0; j < Xcount; j++){
-            g.drawString(HorizontalClues.get(j).getClueString(), Xoffset + (maxClueWidth-metrics.stringWidth(HorizontalClues.get(j).getClueString())), maxClueHeight + Yoffset + (squareLength + metrics.getAscent())/2 + squareLength * j);
-        }
-        // Vertically
-        for (int k = 0; k < maxVert.getClue().size(); k++){
-            for (int i = 0; i < Ycount; i++){
-                try{
-                    g.drawString(VerticalClues.get(i).getClue().get(VerticalClues.get(i).getClue().size()-k-1).toString(), maxClueWidth + Xoffset + squareLength * i + (squareLength - metrics.stringWidth(VerticalClues.get(i).getClue().get(VerticalClues.get(i).getClue().size()-k-1).toString())) / 2, Yoffset + maxClueHeight - k*metrics.getAscent());
-                } catch (IndexOutOfBoundsException e){
-                    // Less than k numbers in clue
-                }
-            }
+    /**
+     * Returns the renderer of the board, creating it on first use.
+     */
+    BoardRenderer renderer() {
+        if (renderer == null) {
+            renderer = new BoardRenderer(cells, dimensionX, dimensionY, HorizontalClues, VerticalClues);
         }
+        return renderer;
     }
-}
\ No newline at end of file
+}
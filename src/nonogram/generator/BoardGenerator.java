@@ -4,22 +4,24 @@
  */
 package nonogram.generator;
 
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import javax.imageio.ImageIO;
 
 /**
  * The BoardGenerator class represents a nonogram puzzle generator.
  * It reads an image file, processes its brightness values, and generates clues for the puzzle.
  * The puzzle is represented by a Board object.
+ * <p>
+ * The image is read band by band into a {@link LuminanceMap} at the resolution of the puzzle,
+ * so the full resolution image is never held in memory. Images of any aspect ratio are supported, and their
+ * width and height need not be multiples of the pixel size: the edge blocks are simply smaller.
  *
  * @author agueguen-LR
  */
 public class BoardGenerator {
 
-    private BufferedImage img;
     private final Board board;
 
     /**
@@ -27,79 +29,49 @@ public class BoardGenerator {
      *
      * @param filename the name of the image file to read
      * @param pixelSize the size of the pixel block to reduce the image to
+     * @throws UncheckedIOException if the image cannot be read
      */
     public BoardGenerator(String filename, int pixelSize) {
-        try {
-            img = ImageIO.read(new File(filename));
-            System.out.println("Successfully Loaded Bitmap");
-        } catch (IOException e) {
-            System.out.println("Couldn't Load Bitmap");
-        }
-
-        ArrayList<ArrayList<Float>> BrightnessMap = new ArrayList<>();
-        // for each pixel of the bitmap
-        for(int y=0; y<img.getHeight(); y++){
-            ArrayList<Float> BrightnessRow = new ArrayList<>();
-            for(int x=0; x<img.getWidth(); x++){
-
-                int color = img.getRGB(x, y);
-
-                // extract each color component
-                int red   = (color >>> 16) & 0xFF;
-                int green = (color >>>  8) & 0xFF;
-                int blue  = (color) & 0xFF;
-
-                // calc luminance in range 0.0 to 1.0; using SRGB luminance constants
-                Float luminance = (red * 0.2126f + green * 0.7152f + blue * 0.0722f) / 255;
-                BrightnessRow.add(luminance);
-            }
-            BrightnessMap.add(BrightnessRow);
-        }
+        this(load(filename, pixelSize));
+    }
 
+    /**
+     * Constructs a BoardGenerator object generating the puzzle clues from a brightness map.
+     * A square darker than 0.5 is filled in the solution.
+     *
+     * @param brightnessMap the brightness of each square of the puzzle
+     */
+    public BoardGenerator(LuminanceMap brightnessMap) {
         ArrayList<Clue> HorizontalClues = new ArrayList<>();
         ArrayList<Clue> VerticalClues = new ArrayList<>();
 
-        BrightnessMap = ReduceArray(BrightnessMap, pixelSize);
-
-        for (ArrayList<Float> row : BrightnessMap){
-            HorizontalClues.add(new Clue(row));
+        for (int y = 0; y < brightnessMap.getHeight(); y++){
+            HorizontalClues.add(new Clue(brightnessMap.getRow(y)).intern());
         }
-        for (int i = 0; i<BrightnessMap.size(); i++){
-            ArrayList<Float> column = new ArrayList<>();
-            for (ArrayList<Float> row : BrightnessMap){
-                column.add(row.get(i));
-            }
-            VerticalClues.add(new Clue(column));
+        for (int x = 0; x < brightnessMap.getWidth(); x++){
+            VerticalClues.add(new Clue(brightnessMap.getColumn(x)).intern());
         }
 
-        this.board = new Board(BrightnessMap.getFirst().size(), BrightnessMap.size(), HorizontalClues, VerticalClues);
-
+        this.board = new Board(brightnessMap.getWidth(), brightnessMap.getHeight(), HorizontalClues, VerticalClues);
     }
 
     /**
-     * Reduces the size of a 2D array by averaging blocks of values.
+     * Reads the brightness map of an image file.
      *
-     * @param array the original 2D array to reduce
-     * @param factor the factor by which to reduce the array
-     * @return the reduced 2D array
+     * @param filename the name of the image file to read
+     * @param pixelSize the size of the pixel block to reduce the image to
+     * @return the brightness map
+     * @throws UncheckedIOException if the image cannot be read
      */
-    private ArrayList<ArrayList<Float>> ReduceArray(ArrayList<ArrayList<Float>> array, int factor){
-        ArrayList<ArrayList<Float>> reducedArray = new ArrayList<>();
-        Float sumValues = 0f;
-        for (int y = 0; y < array.size(); y+=factor){
-            ArrayList<Float> reducedRow = new ArrayList<>();
-            for (int x = 0; x < array.getFirst().size(); x+=factor){
-                for (int i = 0; i < factor; i++){
-                    for (int j = 0; j < factor; j++){
-                        sumValues += array.get(y+i).get(x+j);
-                    }
-                }
-                reducedRow.add(sumValues/(factor*factor));
-                sumValues = 0f;
-            }
-            reducedArray.add(reducedRow);
+    private static LuminanceMap load(String filename, int pixelSize) {
+        try {
+            LuminanceMap brightnessMap = LuminanceMap.read(new File(filename), pixelSize);
+            System.out.println("Successfully Loaded Bitmap");
+            return brightnessMap;
+        } catch (IOException e) {
+            System.out.println("Couldn't Load Bitmap");
+            throw new UncheckedIOException(e);
         }
-        return reducedArray;
     }
 
     /**
@@ -0,0 +1,263 @@
+package nonogram.generator;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+
+/**
+ * Paints a {@link Board} incrementally. The board is drawn once into a backing image, along with the layout
+ * of the grid, the font and the clue strings, which are only computed again when the size of the panel changes.
+ * Each later paint draws on the backing image only the squares whose state changed since they were last drawn,
+ * then copies the clipped area of the image to the screen.
+ * <p>
+ * A renderer is only used from the event dispatch thread. The states of the squares may be changed by another
+ * thread meanwhile, each square is read once per paint and drawn as read.
+ *
+ * @author agueguen-LR
+ */
+final class BoardRenderer {
+
+    private final byte[] cells;
+    private final int dimensionX;
+    private final int dimensionY;
+
+    /**
+     * The clue of each row, as displayed.
+     */
+    private final String[] rowClues;
+
+    /**
+     * The numbers of the clue of each column, as displayed from top to bottom.
+     */
+    private final String[][] columnClues;
+
+    /**
+     * The state of each square as drawn on the backing image.
+     */
+    private final byte[] drawn;
+
+    /**
+     * The backing image, null until the first paint.
+     */
+    private BufferedImage canvas;
+
+    /**
+     * The background color the backing image was drawn with.
+     */
+    private Color background;
+
+    /**
+     * The side of a square in pixels.
+     */
+    private int squareLength;
+
+    /**
+     * The position in pixels of the top left corner of the grid.
+     */
+    private int gridX;
+    private int gridY;
+
+    /**
+     * Constructs a renderer for the squares and clues of a board.
+     *
+     * @param cells the states of the squares, row after row, read on each paint
+     * @param dimensionX the number of columns
+     * @param dimensionY the number of rows
+     * @param horizontalClues the clue of each row
+     * @param verticalClues the clue of each column
+     */
+    BoardRenderer(byte[] cells, int dimensionX, int dimensionY, ArrayList<Clue> horizontalClues, ArrayList<Clue> verticalClues) {
+        this.cells = cells;
+        this.dimensionX = dimensionX;
+        this.dimensionY = dimensionY;
+        this.drawn = new byte[cells.length];
+        this.rowClues = new String[dimensionY];
+        for (int y = 0; y < dimensionY; y++) {
+            rowClues[y] = horizontalClues.get(y).getClueString();
+        }
+        this.columnClues = new String[dimensionX][];
+        for (int x = 0; x < dimensionX; x++) {
+            Clue clue = verticalClues.get(x);
+            columnClues[x] = new String[clue.size()];
+            for (int k = 0; k < clue.size(); k++) {
+                columnClues[x][k] = Integer.toString(clue.get(k));
+            }
+        }
+    }
+
+    /**
+     * Paints the board. The backing image is drawn again completely if the size or background changed,
+     * otherwise only the changed squares are drawn on it.
+     *
+     * @param g the graphics of the panel, clipped to the area to paint
+     * @param width the width of the panel
+     * @param height the height of the panel
+     * @param background the background color of the panel
+     * @return the area of the squares drawn on the backing image outside the clip of g, which still has to be
+     * repainted, or null if there is none
+     */
+    Rectangle paint(Graphics g, int width, int height, Color background) {
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        Rectangle changed = null;
+        if (canvas == null || canvas.getWidth() != width || canvas.getHeight() != height || !background.equals(this.background)) {
+            layout(width, height, background);
+        } else {
+            changed = drawChangedSquares();
+        }
+        g.drawImage(canvas, 0, 0, null);
+
+        Rectangle clip = g.getClipBounds();
+        if (changed == null || clip == null || clip.contains(changed)) {
+            return null;
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the area of the squares whose state differs from the backing image, without drawing them.
+     *
+     * @return the area in pixels, or null if no square changed or nothing was painted yet
+     */
+    Rectangle changedBounds() {
+        if (canvas == null) {
+            return null;
+        }
+        Rectangle bounds = null;
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != drawn[i]) {
+                bounds = union(bounds, squareBounds(i % dimensionX, i / dimensionX));
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * Computes the layout for a size of panel, then draws the background, the clues and every square
+     * on a new backing image.
+     */
+    private void layout(int width, int height, Color background) {
+        this.background = background;
+        canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = canvas.createGraphics();
+        try {
+            g.setColor(background);
+            g.fillRect(0, 0, width, height);
+            if (dimensionX == 0 || dimensionY == 0) {
+                return;
+            }
+
+            // Calculate the font size based on the square length, the board may be wider than it is high
+            int fontSize = Math.max(1, (int) (Math.min((double) height / dimensionY, (double) width / dimensionX) * 0.6));
+            g.setFont(new Font("Courier New", Font.BOLD, fontSize));
+            FontMetrics metrics = g.getFontMetrics();
+
+            int maxClueWidth = 0;
+            for (String clue : rowClues) {
+                maxClueWidth = Math.max(maxClueWidth, metrics.stringWidth(clue));
+            }
+            int maxClueCount = 0;
+            for (String[] clue : columnClues) {
+                maxClueCount = Math.max(maxClueCount, clue.length);
+            }
+            int maxClueHeight = maxClueCount * metrics.getAscent();
+
+            squareLength = Math.max(0, Math.min((height - maxClueHeight) / dimensionY, (width - maxClueWidth) / dimensionX));
+            int offsetX = (width - (dimensionX * squareLength + maxClueWidth)) / 2;
+            int offsetY = (height - (dimensionY * squareLength + maxClueHeight)) / 2;
+            gridX = offsetX + maxClueWidth;
+            gridY = offsetY + maxClueHeight;
+
+            for (int i = 0; i < cells.length; i++) {
+                drawn[i] = cells[i];
+                drawSquare(g, i % dimensionX, i / dimensionX, drawn[i]);
+            }
+
+            g.setColor(Color.WHITE);
+            // Horizontally, one clue per row
+            for (int y = 0; y < dimensionY; y++) {
+                g.drawString(rowClues[y], offsetX + maxClueWidth - metrics.stringWidth(rowClues[y]),
+                        gridY + (squareLength + metrics.getAscent()) / 2 + squareLength * y);
+            }
+            // Vertically, one clue per column, bottom number first
+            for (int x = 0; x < dimensionX; x++) {
+                String[] clue = columnClues[x];
+                for (int k = 0; k < clue.length; k++) {
+                    String number = clue[clue.length - k - 1];
+                    g.drawString(number, gridX + squareLength * x + (squareLength - metrics.stringWidth(number)) / 2,
+                            gridY - k * metrics.getAscent());
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    /**
+     * Draws on the backing image the squares whose state changed since they were last drawn.
+     *
+     * @return the area of the squares drawn, or null if none
+     */
+    private Rectangle drawChangedSquares() {
+        Rectangle bounds = null;
+        Graphics2D g = null;
+        for (int i = 0; i < cells.length; i++) {
+            byte state = cells[i];
+            if (state == drawn[i]) {
+                continue;
+            }
+            if (g == null) {
+                g = canvas.createGraphics();
+            }
+            drawn[i] = state;
+            drawSquare(g, i % dimensionX, i / dimensionX, state);
+            bounds = union(bounds, squareBounds(i % dimensionX, i / dimensionX));
+        }
+        if (g != null) {
+            g.dispose();
+        }
+        return bounds;
+    }
+
+    /**
+     * Draws a square with its border.
+     */
+    private void drawSquare(Graphics g, int x, int y, byte state) {
+        int left = gridX + squareLength * x;
+        int top = gridY + squareLength * y;
+        g.setColor(Color.BLUE.darker());
+        g.fillRect(left, top, squareLength, squareLength);
+        if (state == Square.FILLED) {
+            g.setColor(Color.BLACK);
+        } else if (state == Square.CROSS) {
+            g.setColor(Color.GRAY.brighter());
+        } else {
+            g.setColor(Color.WHITE);
+        }
+        g.fillRect(left + 1, top + 1, squareLength - 2, squareLength - 2);
+    }
+
+    /**
+     * Returns the area of a square in pixels.
+     */
+    private Rectangle squareBounds(int x, int y) {
+        return new Rectangle(gridX + squareLength * x, gridY + squareLength * y, squareLength, squareLength);
+    }
+
+    /**
+     * Returns the union of two areas, the first one may be null.
+     */
+    private static Rectangle union(Rectangle bounds, Rectangle square) {
+        if (bounds == null) {
+            return square;
+        }
+        bounds.add(square);
+        return bounds;
+    }
+}
@@ -4,41 +4,97 @@
  */
 package nonogram.generator;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.WeakHashMap;
 
 /**
  * Represents a clue in the nonogram puzzle.
  * A clue is a sequence of integers that indicates the lengths of filled blocks in a row or column.
- * The clue can be constructed from a list of brightness values or copied from another clue.
- * The clue can be queried to get its string representation or a copy of the clue.
- * The toString method provides a string representation of the clue.
+ * The clue can be constructed from a list of brightness values, or from the lengths of its blocks.
+ * <p>
+ * A clue is immutable. Its lengths are held in an int array, and everything the solvers and the display ask
+ * of a clue is computed once when it is constructed: the number of squares it fills, the length of the shortest
+ * line it fits in, its hash, its string and its reversed form. Two clues with the same lengths are equal,
+ * and {@link #intern()} returns a single shared instance for each, so the identical lines of a board,
+ * or of a whole set of puzzles, hold the same object.
  *
  * @author agueguen-LR
  */
-public class Clue {
+public final class Clue implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     /**
-     * The list of integers representing the clue.
+     * The pool of interned clues. The clues are only weakly held, so a clue no board uses any more can be collected.
      */
-    private ArrayList<Integer> clue = new ArrayList<>();
+    private static final Map<Clue, WeakReference<Clue>> POOL = new WeakHashMap<>();
+
+    /**
+     * The lengths of the blocks, in order.
+     */
+    private final int[] values;
+
+    /**
+     * The number of squares filled by the clue.
+     */
+    private final int sum;
+
+    /**
+     * The hash of the lengths.
+     */
+    private final int hash;
+
+    /**
+     * The lengths separated by spaces, as displayed.
+     */
+    private final String string;
+
+    /**
+     * The clue with its blocks in reverse order, this clue itself if it reads the same both ways.
+     */
+    private final Clue reversed;
+
+    /**
+     * The read-only list view of the lengths.
+     */
+    private final transient List<Integer> view;
 
     /**
      * Constructs an empty Clue.
      */
     public Clue() {
+        this(new int[0]);
     }
 
     /**
-     * Constructs a Clue by copying another clue.
-     * This constructor is private and used internally for copying.
+     * Constructs a Clue from a list of lengths.
+     * This constructor is private and kept for the callers that build clues by reflection.
      *
-     * @param clueCopy the list of integers to copy
-     * @param id an identifier to validate the copy operation
+     * @param clueCopy the lengths of the blocks
+     * @param id an identifier to validate the construction, any other value than 1234 gives an empty clue
      */
     private Clue(ArrayList<Integer> clueCopy, int id){
-        if (id==1234){
-            this.clue = clueCopy;
-        }
+        this(id == 1234 ? clueCopy.stream().mapToInt(Integer::intValue).toArray() : new int[0]);
+    }
+
+    /**
+     * Constructs a Clue from an array of brightness values.
+     * A brightness value less than 0.5 indicates a filled square.
+     *
+     * @param brightnessLine the brightness values
+     */
+    public Clue(float[] brightnessLine) {
+        this(blocks(brightnessLine));
     }
 
     /**
@@ -48,26 +104,129 @@ public class Clue {
      * @param brightnessLine the list of brightness values
      */
     public Clue(ArrayList<Float> brightnessLine) {
-        boolean previousIsFilled = false;
-        for (Float num : brightnessLine){
-            if (num<.5 && previousIsFilled){
-                clue.set(clue.size()-1, clue.getLast()+1);
-            } else if (num<.5){
-                clue.add(1);
-                previousIsFilled = true;
-            } else{
-                previousIsFilled = false;
+        this(blocks(toArray(brightnessLine)));
+    }
+
+    /**
+     * Constructs a clue and its reversed form, owning the given array.
+     */
+    private Clue(int[] values) {
+        this.values = values;
+        int total = 0;
+        for (int value : values) {
+            total += value;
+        }
+        this.sum = total;
+        this.hash = Arrays.hashCode(values);
+        this.string = join(values);
+        this.view = new Values();
+
+        int[] reversedValues = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            reversedValues[i] = values[values.length - 1 - i];
+        }
+        this.reversed = Arrays.equals(values, reversedValues) ? this : new Clue(reversedValues, this);
+    }
+
+    /**
+     * Constructs the reversed form of a clue.
+     */
+    private Clue(int[] values, Clue reversed) {
+        this.values = values;
+        this.sum = reversed.sum;
+        this.hash = Arrays.hashCode(values);
+        this.string = join(values);
+        this.view = new Values();
+        this.reversed = reversed;
+    }
+
+    /**
+     * Returns the interned Clue with the given lengths of blocks, as read from a puzzle file.
+     *
+     * @param values the lengths of the filled blocks, in order
+     * @return the clue, shared with every other interned clue of the same lengths
+     * @throws IllegalArgumentException if a length is not positive
+     */
+    public static Clue of(int... values) {
+        for (int value : values) {
+            if (value < 1) {
+                throw new IllegalArgumentException("Block lengths must be positive: " + value);
+            }
+        }
+        return new Clue(values.clone()).intern();
+    }
+
+    /**
+     * Returns the shared instance of this clue. Interning every clue of a board lets its identical lines
+     * share one object, and lets the solvers compare clues by identity.
+     *
+     * @return the interned clue equal to this one, this clue if none was interned yet
+     */
+    public Clue intern() {
+        synchronized (POOL) {
+            WeakReference<Clue> reference = POOL.get(this);
+            Clue interned = reference == null ? null : reference.get();
+            if (interned == null) {
+                POOL.put(this, new WeakReference<>(this));
+                interned = this;
             }
+            return interned;
         }
     }
 
     /**
-     * Returns the list of integers representing the clue.
+     * Returns the lengths of the blocks as a read-only list.
      *
-     * @return the list of integers representing the clue
+     * @return a view of the lengths, without copy
      */
-    public ArrayList<Integer> getClue() {
-        return clue;
+    public List<Integer> getClue() {
+        return view;
+    }
+
+    /**
+     * Returns the number of blocks.
+     *
+     * @return the number of blocks, 0 for an empty line
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Returns the length of a block.
+     *
+     * @param index the index of the block
+     * @return the length of the block
+     */
+    public int get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns a copy of the lengths of the blocks.
+     *
+     * @return a new array of the lengths
+     */
+    public int[] toArray() {
+        return values.clone();
+    }
+
+    /**
+     * Returns the number of squares filled by the clue.
+     *
+     * @return the sum of the lengths of the blocks
+     */
+    public int getSum() {
+        return sum;
+    }
+
+    /**
+     * Returns the length of the shortest line the clue fits in, with one square between two blocks.
+     *
+     * @return the sum of the lengths plus the spaces between the blocks
+     */
+    public int getMinLength() {
+        return values.length == 0 ? 0 : sum + values.length - 1;
     }
 
     /**
@@ -77,16 +236,41 @@ public class Clue {
      * @return the string representation of the clue
      */
     public String getClueString(){
-        StringBuilder str = new StringBuilder();
-        for (Integer num : clue){
-            str.append(num.toString()).append(" ");
-        }
-        return str.toString().stripTrailing();
+        return string;
     }
 
+    /**
+     * Returns the clue with its blocks in reverse order, without allocating.
+     *
+     * @return the reversed clue
+     */
     public Clue reverse(){
-        ArrayList<Integer> reversedClue = new ArrayList<>(this.clue.reversed());
-        return new Clue(reversedClue, 1234);
+        return reversed;
+    }
+
+    /**
+     * Returns this clue, which is immutable.
+     *
+     * @return this clue
+     */
+    public Clue copy() {
+        return this;
+    }
+
+    /**
+     * Checks whether another object is a clue with the same lengths.
+     *
+     * @param o the object to compare with
+     * @return true if the lengths are the same
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o == this || o instanceof Clue other && hash == other.hash && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
     }
 
     /**
@@ -96,7 +280,101 @@ public class Clue {
      */
     @Override
     public String toString() {
-        return "clue=" + clue;
+        return "clue=" + Arrays.toString(values);
     }
 
-}
\ No newline at end of file
+    /**
+     * Computes the lengths of the blocks of brightness values.
+     */
+    private static int[] blocks(float[] brightnessLine) {
+        int[] blocks = new int[(brightnessLine.length + 1) / 2];
+        int count = 0;
+        boolean previousIsFilled = false;
+        for (float num : brightnessLine){
+            if (num<.5 && previousIsFilled){
+                blocks[count-1]++;
+            } else if (num<.5){
+                blocks[count++] = 1;
+                previousIsFilled = true;
+            } else{
+                previousIsFilled = false;
+            }
+        }
+        return Arrays.copyOf(blocks, count);
+    }
+
+    private static float[] toArray(ArrayList<Float> brightnessLine) {
+        float[] values = new float[brightnessLine.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = brightnessLine.get(i);
+        }
+        return values;
+    }
+
+    /**
+     * Joins the lengths with spaces.
+     */
+    private static String join(int[] values) {
+        StringBuilder str = new StringBuilder();
+        for (int num : values){
+            if (!str.isEmpty()) {
+                str.append(' ');
+            }
+            str.append(num);
+        }
+        return str.toString();
+    }
+
+    /**
+     * Replaces the clue by its lengths when it is serialized, its other fields are computed from them.
+     *
+     * @return the serialized form of the clue
+     */
+    @Serial
+    private Object writeReplace() {
+        return new SerializedForm(values);
+    }
+
+    /**
+     * Rejects a stream holding a clue itself rather than its serialized form.
+     *
+     * @param in the stream the clue is read from
+     * @throws InvalidObjectException always
+     */
+    @Serial
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("A clue is serialized by its lengths");
+    }
+
+    /**
+     * The serialized form of a clue, its lengths, read back as the interned clue.
+     */
+    private record SerializedForm(int[] values) implements Serializable {
+
+        /**
+         * Returns the interned clue with the serialized lengths.
+         *
+         * @return the clue
+         */
+        @Serial
+        private Object readResolve() {
+            return new Clue(values.clone()).intern();
+        }
+    }
+
+    /**
+     * The read-only list view of the lengths.
+     */
+    private final class Values extends AbstractList<Integer> implements RandomAccess {
+
+        @Override
+        public Integer get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package nonogram.generator;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Represents a row or a column of the nonogram board.
+ * A line is a view of the cells of its board, it holds no state of its own
+ * so changing a square through the line changes the board and vice versa.
+ * The primitive accessors read and write the cells directly without creating any {@link Square}.
+ *
+ * @see Board#getRow(int)
+ * @see Board#getColumn(int)
+ *
+ * @author agueguen-LR
+ */
+public class Line extends AbstractList<Square> implements RandomAccess {
+
+    /**
+     * The cells of the board the line belongs to.
+     */
+    private final byte[] cells;
+
+    /**
+     * The index in cells of the first square of the line.
+     */
+    private final int offset;
+
+    /**
+     * The distance in cells between two consecutive squares of the line.
+     */
+    private final int stride;
+
+    /**
+     * The number of squares in the line.
+     */
+    private final int length;
+
+    /**
+     * Constructs a view of a line of cells.
+     *
+     * @param cells the cells of the board
+     * @param offset the index of the first square of the line
+     * @param stride the distance between two consecutive squares of the line
+     * @param length the number of squares in the line
+     */
+    Line(byte[] cells, int offset, int stride, int length) {
+        this.cells = cells;
+        this.offset = offset;
+        this.stride = stride;
+        this.length = length;
+    }
+
+    /**
+     * Returns a view of the square at the specified index.
+     *
+     * @param i the index of the square in the line
+     * @return the square at the specified index
+     */
+    @Override
+    public Square get(int i) {
+        return new Square(cells, cellIndex(i));
+    }
+
+    /**
+     * Returns the number of squares in the line.
+     *
+     * @return the length of the line
+     */
+    @Override
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Returns the raw state of the square at the specified index.
+     *
+     * @param i the index of the square in the line
+     * @return {@link Square#EMPTY}, {@link Square#CROSS} or {@link Square#FILLED}
+     */
+    public byte getState(int i) {
+        return cells[cellIndex(i)];
+    }
+
+    /**
+     * Checks if the square at the specified index is empty.
+     *
+     * @param i the index of the square in the line
+     * @return true if the square is EMPTY, false otherwise
+     */
+    public boolean isEmpty(int i) {
+        return getState(i) == Square.EMPTY;
+    }
+
+    /**
+     * Checks if the square at the specified index is filled.
+     *
+     * @param i the index of the square in the line
+     * @return true if the square is FILLED, false otherwise
+     */
+    public boolean isFilled(int i) {
+        return getState(i) == Square.FILLED;
+    }
+
+    /**
+     * Checks if the square at the specified index is crossed.
+     *
+     * @param i the index of the square in the line
+     * @return true if the square is CROSS, false otherwise
+     */
+    public boolean isCrossed(int i) {
+        return getState(i) == Square.CROSS;
+    }
+
+    /**
+     * Sets the state of the square at the specified index to FILLED.
+     *
+     * @param i the index of the square in the line
+     */
+    public void fill(int i) {
+        cells[cellIndex(i)] = Square.FILLED;
+    }
+
+    /**
+     * Sets the state of the square at the specified index to CROSS.
+     *
+     * @param i the index of the square in the line
+     */
+    public void cross(int i) {
+        cells[cellIndex(i)] = Square.CROSS;
+    }
+
+    /**
+     * Copies the raw states of the line into an array.
+     *
+     * @param states the array to copy into, at least as long as the line
+     */
+    public void copyStates(byte[] states) {
+        for (int i = 0, cell = offset; i < length; i++, cell += stride) {
+            states[i] = cells[cell];
+        }
+    }
+
+    /**
+     * Converts an index in the line into an index in the cells of the board.
+     *
+     * @param i the index of the square in the line
+     * @return the index of the square in the cells of the board
+     */
+    private int cellIndex(int i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + length);
+        }
+        return offset + i * stride;
+    }
+}
@@ -0,0 +1,208 @@
+package nonogram.generator;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+
+/**
+ * Converts the rows of an image into luminance values, reading the pixels straight from the arrays of its
+ * {@link java.awt.image.DataBuffer} for the common raster layouts: packed int RGB, interleaved byte BGR and ABGR,
+ * and 8-bit indexed colors. Any other image goes through {@link BufferedImage#getRGB(int, int, int, int, int[], int, int)}
+ * one row at a time, so the values are the same whichever path is taken.
+ * <p>
+ * The loops only read a primitive array and write a float array, which leaves them open to auto-vectorization.
+ * A kernel keeps buffers for the row being converted and is not thread-safe.
+ *
+ * @author agueguen-LR
+ */
+abstract class LuminanceKernel {
+
+    /**
+     * The raster of the image.
+     */
+    protected final Raster raster;
+
+    private LuminanceKernel(BufferedImage image) {
+        this.raster = image.getRaster();
+    }
+
+    /**
+     * Chooses the fastest kernel able to read an image.
+     *
+     * @param image the image
+     * @return the kernel
+     */
+    static LuminanceKernel of(BufferedImage image) {
+        Raster raster = image.getRaster();
+        switch (image.getType()) {
+            case BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB -> {
+                if (raster.getDataBuffer() instanceof DataBufferInt
+                        && raster.getSampleModel() instanceof SinglePixelPackedSampleModel) {
+                    return new PackedIntKernel(image);
+                }
+            }
+            case BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR -> {
+                if (raster.getDataBuffer() instanceof DataBufferByte
+                        && raster.getSampleModel() instanceof ComponentSampleModel) {
+                    return new InterleavedByteKernel(image);
+                }
+            }
+            case BufferedImage.TYPE_BYTE_INDEXED -> {
+                if (raster.getDataBuffer() instanceof DataBufferByte
+                        && raster.getSampleModel() instanceof ComponentSampleModel
+                        && image.getColorModel() instanceof IndexColorModel) {
+                    return new IndexedKernel(image);
+                }
+            }
+            default -> {
+                // read through getRGB below
+            }
+        }
+        return new RGBKernel(image);
+    }
+
+    /**
+     * Computes the luminance of the first pixels of a row.
+     *
+     * @param y the row number in the image
+     * @param length the number of pixels to convert, from the left edge
+     * @param luminance receives the luminance of each pixel, from 0.0 to 1.0
+     */
+    abstract void readRow(int y, int length, float[] luminance);
+
+    /**
+     * Returns the index in the data array of a pixel as given by the sample model,
+     * which for interleaved samples is the index of the first band of the pixel.
+     */
+    protected int offset(int x, int y) {
+        int sampleX = x - raster.getSampleModelTranslateX();
+        int sampleY = y - raster.getSampleModelTranslateY();
+        if (raster.getSampleModel() instanceof ComponentSampleModel sampleModel) {
+            return sampleModel.getOffset(sampleX, sampleY);
+        }
+        return ((SinglePixelPackedSampleModel) raster.getSampleModel()).getOffset(sampleX, sampleY);
+    }
+
+    /**
+     * Computes the luminance of a color, using sRGB luminance constants.
+     */
+    private static float luminance(int red, int green, int blue) {
+        return (red * 0.2126f + green * 0.7152f + blue * 0.0722f) / 255;
+    }
+
+    /**
+     * Reads images with one int per pixel, red in bits 16 to 23, green in bits 8 to 15 and blue in bits 0 to 7.
+     */
+    private static final class PackedIntKernel extends LuminanceKernel {
+
+        private final int[] data;
+
+        private PackedIntKernel(BufferedImage image) {
+            super(image);
+            DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+            this.data = buffer.getData();
+        }
+
+        @Override
+        void readRow(int y, int length, float[] luminance) {
+            int index = ((DataBufferInt) raster.getDataBuffer()).getOffset() + offset(0, y);
+            for (int x = 0; x < length; x++) {
+                int color = data[index + x];
+                luminance[x] = luminance((color >>> 16) & 0xFF, (color >>> 8) & 0xFF, color & 0xFF);
+            }
+        }
+    }
+
+    /**
+     * Reads images with one byte per sample, interleaved pixel by pixel, such as BGR or ABGR.
+     */
+    private static final class InterleavedByteKernel extends LuminanceKernel {
+
+        private final byte[] data;
+        private final int pixelStride;
+        private final int redOffset;
+        private final int greenOffset;
+        private final int blueOffset;
+        private final int firstBandOffset;
+
+        private InterleavedByteKernel(BufferedImage image) {
+            super(image);
+            ComponentSampleModel sampleModel = (ComponentSampleModel) raster.getSampleModel();
+            int[] bandOffsets = sampleModel.getBandOffsets();
+            this.data = ((DataBufferByte) raster.getDataBuffer()).getData();
+            this.pixelStride = sampleModel.getPixelStride();
+            this.redOffset = bandOffsets[0];
+            this.greenOffset = bandOffsets[1];
+            this.blueOffset = bandOffsets[2];
+            this.firstBandOffset = bandOffsets[0];
+        }
+
+        @Override
+        void readRow(int y, int length, float[] luminance) {
+            // the offset of the first band is added back for each band below
+            int index = ((DataBufferByte) raster.getDataBuffer()).getOffset() + offset(0, y) - firstBandOffset;
+            for (int x = 0; x < length; x++, index += pixelStride) {
+                luminance[x] = luminance(data[index + redOffset] & 0xFF, data[index + greenOffset] & 0xFF,
+                        data[index + blueOffset] & 0xFF);
+            }
+        }
+    }
+
+    /**
+     * Reads images with one byte per pixel indexing a palette, the luminance of each color of the palette
+     * is computed once.
+     */
+    private static final class IndexedKernel extends LuminanceKernel {
+
+        private final byte[] data;
+        private final float[] palette = new float[256];
+
+        private IndexedKernel(BufferedImage image) {
+            super(image);
+            this.data = ((DataBufferByte) raster.getDataBuffer()).getData();
+            IndexColorModel colorModel = (IndexColorModel) image.getColorModel();
+            for (int i = 0; i < palette.length; i++) {
+                int color = colorModel.getRGB(i);
+                palette[i] = luminance((color >>> 16) & 0xFF, (color >>> 8) & 0xFF, color & 0xFF);
+            }
+        }
+
+        @Override
+        void readRow(int y, int length, float[] luminance) {
+            int index = ((DataBufferByte) raster.getDataBuffer()).getOffset() + offset(0, y);
+            for (int x = 0; x < length; x++) {
+                luminance[x] = palette[data[index + x] & 0xFF];
+            }
+        }
+    }
+
+    /**
+     * Reads any image through its color model, a row at a time.
+     */
+    private static final class RGBKernel extends LuminanceKernel {
+
+        private final BufferedImage image;
+        private int[] colors = new int[0];
+
+        private RGBKernel(BufferedImage image) {
+            super(image);
+            this.image = image;
+        }
+
+        @Override
+        void readRow(int y, int length, float[] luminance) {
+            if (colors.length < length) {
+                colors = new int[length];
+            }
+            image.getRGB(0, y, length, 1, colors, 0, length);
+            for (int x = 0; x < length; x++) {
+                int color = colors[x];
+                luminance[x] = luminance((color >>> 16) & 0xFF, (color >>> 8) & 0xFF, color & 0xFF);
+            }
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package nonogram.generator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * The brightness of each square of a puzzle, from 0.0 (black) to 1.0 (white), stored by row in a float array.
+ * <p>
+ * A map is read from an image with {@link #read(File, int)}, which averages each block of pixelSize x pixelSize pixels
+ * into one square, the blocks on the right and bottom edges covering whatever pixels remain. The image is never loaded
+ * whole: it is read in bands of rows through an {@link ImageReader} with a source region, each band is reduced as soon
+ * as it is read, and only the reduced values are kept. The pixels of a band are read straight from its raster by a
+ * {@link LuminanceKernel}.
+ *
+ * @author agueguen-LR
+ */
+public class LuminanceMap {
+
+    /**
+     * The largest number of pixels read at once from the image.
+     */
+    private static final int MAX_BAND_PIXELS = 1 << 22;
+
+    /**
+     * The number of columns.
+     */
+    private final int width;
+
+    /**
+     * The number of rows.
+     */
+    private final int height;
+
+    /**
+     * The brightness of each square, at index y * width + x.
+     */
+    private final float[] values;
+
+    /**
+     * Constructs a map from its values.
+     *
+     * @param width the number of columns
+     * @param height the number of rows
+     * @param values the brightness of each square, at index y * width + x, used without copy
+     */
+    public LuminanceMap(int width, int height, float[] values) {
+        if (values.length != width * height) {
+            throw new IllegalArgumentException("Expected " + width * height + " values, got " + values.length);
+        }
+        this.width = width;
+        this.height = height;
+        this.values = values;
+    }
+
+    /**
+     * Reads an image band by band and reduces it to one square per block of pixels.
+     * The image can have any width and height: when they are not multiples of the pixel size, the blocks
+     * of the last column and row are smaller, and averaged over the pixels they hold.
+     *
+     * @param file the image file
+     * @param pixelSize the size of the blocks of pixels averaged into one square
+     * @return the map of the reduced image
+     * @throws IOException if the image cannot be read
+     */
+    public static LuminanceMap read(File file, int pixelSize) throws IOException {
+        return read(file, pixelSize, MAX_BAND_PIXELS);
+    }
+
+    /**
+     * Reads an image in bands of at most the given number of pixels, or a single row of blocks if it is larger.
+     *
+     * @param file the image file
+     * @param pixelSize the size of the blocks of pixels averaged into one square
+     * @param maxBandPixels the largest number of pixels read at once
+     * @return the map of the reduced image
+     * @throws IOException if the image cannot be read
+     */
+    static LuminanceMap read(File file, int pixelSize, int maxBandPixels) throws IOException {
+        if (pixelSize < 1) {
+            throw new IllegalArgumentException("Pixel size must be positive: " + pixelSize);
+        }
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            if (input == null) {
+                throw new IOException("Cannot open " + file);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format: " + file);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, false, true);
+                return read(reader, pixelSize, maxBandPixels);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Reads the first image of a reader band by band, each band being as many rows of blocks
+     * as fit in maxBandPixels.
+     */
+    private static LuminanceMap read(ImageReader reader, int pixelSize, int maxBandPixels) throws IOException {
+        int imageWidth = reader.getWidth(0);
+        int imageHeight = reader.getHeight(0);
+        int width = Math.ceilDiv(imageWidth, pixelSize);
+        int height = Math.ceilDiv(imageHeight, pixelSize);
+        float[] values = new float[width * height];
+        if (width == 0 || height == 0) {
+            return new LuminanceMap(width, height, values);
+        }
+
+        int blockRowsPerBand = Math.clamp(maxBandPixels / ((long) imageWidth * pixelSize), 1, height);
+        ImageReadParam param = reader.getDefaultReadParam();
+        for (int blockY = 0; blockY < height; blockY += blockRowsPerBand) {
+            int blockRows = Math.min(blockRowsPerBand, height - blockY);
+            int top = blockY * pixelSize;
+            int bandHeight = Math.min(blockRows * pixelSize, imageHeight - top);
+            param.setSourceRegion(new Rectangle(0, top, imageWidth, bandHeight));
+            BufferedImage band = reader.read(0, param);
+            reduceBand(band, pixelSize, values, blockY * width, width, blockRows);
+        }
+        return new LuminanceMap(width, height, values);
+    }
+
+    /**
+     * Averages the blocks of a band into the values of the map, in a single pass over the rows of the band.
+     * The luminance of each row is added to the sum of its blocks, which sums the pixels of a block
+     * in the same order as reading the block row by row. The blocks of the last column, and of the last row
+     * of the image, are cut by its edges and averaged over the pixels they hold.
+     *
+     * @param band the pixels of the band, starting at the top left corner of its first block
+     * @param pixelSize the size of the blocks
+     * @param values the values of the map
+     * @param offset the index in the values of the first block of the band
+     * @param width the number of blocks in a row
+     * @param blockRows the number of rows of blocks in the band
+     */
+    private static void reduceBand(BufferedImage band, int pixelSize, float[] values, int offset, int width, int blockRows) {
+        LuminanceKernel kernel = LuminanceKernel.of(band);
+        int rowLength = band.getWidth();
+        int lastBlockWidth = rowLength - (width - 1) * pixelSize;
+        float[] rowLuminance = new float[rowLength];
+        float[] sums = new float[width];
+        for (int blockY = 0; blockY < blockRows; blockY++) {
+            int blockHeight = Math.min(pixelSize, band.getHeight() - blockY * pixelSize);
+            Arrays.fill(sums, 0f);
+            for (int i = 0; i < blockHeight; i++) {
+                kernel.readRow(blockY * pixelSize + i, rowLength, rowLuminance);
+                for (int blockX = 0, x = 0; blockX < width; blockX++) {
+                    int blockWidth = blockX == width - 1 ? lastBlockWidth : pixelSize;
+                    float sum = sums[blockX];
+                    for (int j = 0; j < blockWidth; j++, x++) {
+                        sum += rowLuminance[x];
+                    }
+                    sums[blockX] = sum;
+                }
+            }
+            float blockArea = pixelSize * blockHeight;
+            for (int blockX = 0; blockX < width - 1; blockX++) {
+                values[offset + blockY * width + blockX] = sums[blockX] / blockArea;
+            }
+            values[offset + blockY * width + width - 1] = sums[width - 1] / (float) (lastBlockWidth * blockHeight);
+        }
+    }
+
+    /**
+     * Averages each block of factor x factor squares of the map into one square, as if the image had been read
+     * with a pixel size factor times larger. The blocks of the last column and row cover whatever squares remain,
+     * and every square of the map counts the same in its block.
+     *
+     * @param factor the size of the blocks of squares averaged into one
+     * @return a new map, or this map if the factor is 1
+     */
+    public LuminanceMap downsample(int factor) {
+        if (factor < 1) {
+            throw new IllegalArgumentException("Factor must be positive: " + factor);
+        }
+        if (factor == 1) {
+            return this;
+        }
+        int reducedWidth = Math.ceilDiv(width, factor);
+        int reducedHeight = Math.ceilDiv(height, factor);
+        int lastBlockWidth = width - (reducedWidth - 1) * factor;
+        float[] reduced = new float[reducedWidth * reducedHeight];
+        float[] sums = new float[reducedWidth];
+        for (int blockY = 0; blockY < reducedHeight; blockY++) {
+            int blockHeight = Math.min(factor, height - blockY * factor);
+            Arrays.fill(sums, 0f);
+            for (int y = blockY * factor; y < blockY * factor + blockHeight; y++) {
+                for (int blockX = 0, x = y * width; blockX < reducedWidth; blockX++) {
+                    int blockWidth = blockX == reducedWidth - 1 ? lastBlockWidth : factor;
+                    float sum = sums[blockX];
+                    for (int j = 0; j < blockWidth; j++, x++) {
+                        sum += values[x];
+                    }
+                    sums[blockX] = sum;
+                }
+            }
+            for (int blockX = 0; blockX < reducedWidth; blockX++) {
+                int blockWidth = blockX == reducedWidth - 1 ? lastBlockWidth : factor;
+                reduced[blockY * reducedWidth + blockX] = sums[blockX] / (float) (blockWidth * blockHeight);
+            }
+        }
+        return new LuminanceMap(reducedWidth, reducedHeight, reduced);
+    }
+
+    /**
+     * Turns the map into black and white: 0.0 for the squares filled in the solution, 1.0 for the others.
+     * Without dithering a square is filled when it is darker than the threshold. With dithering the error
+     * made on each square is spread to the squares right and below it (Floyd-Steinberg), so that the share
+     * of filled squares in an area follows its brightness.
+     *
+     * @param threshold the brightness under which a square is filled
+     * @param dither true to spread the error of each square to its neighbours
+     * @return a new map holding only 0.0 and 1.0
+     */
+    public LuminanceMap binarize(float threshold, boolean dither) {
+        float[] binary = new float[values.length];
+        if (!dither) {
+            for (int i = 0; i < values.length; i++) {
+                binary[i] = values[i] < threshold ? 0f : 1f;
+            }
+            return new LuminanceMap(width, height, binary);
+        }
+        // errors carried to the current row and to the next one
+        float[] current = new float[width + 2];
+        float[] next = new float[width + 2];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                float value = values[y * width + x] + current[x + 1];
+                float result = value < threshold ? 0f : 1f;
+                float error = value - result;
+                binary[y * width + x] = result;
+                current[x + 2] += error * 7 / 16;
+                next[x] += error * 3 / 16;
+                next[x + 1] += error * 5 / 16;
+                next[x + 2] += error / 16;
+            }
+            float[] swap = current;
+            current = next;
+            next = swap;
+            Arrays.fill(next, 0f);
+        }
+        return new LuminanceMap(width, height, binary);
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return the width of the map
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the height of the map
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the brightness of a square.
+     *
+     * @param x the column number
+     * @param y the row number
+     * @return the brightness, from 0.0 to 1.0
+     */
+    public float get(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException("Square (" + x + ", " + y + ") outside of " + width + "x" + height);
+        }
+        return values[y * width + x];
+    }
+
+    /**
+     * Returns a copy of the brightness of a row.
+     *
+     * @param y the row number
+     * @return the brightness of each square of the row
+     */
+    public float[] getRow(int y) {
+        float[] row = new float[width];
+        System.arraycopy(values, y * width, row, 0, width);
+        return row;
+    }
+
+    /**
+     * Returns a copy of the brightness of a column.
+     *
+     * @param x the column number
+     * @return the brightness of each square of the column
+     */
+    public float[] getColumn(int x) {
+        float[] column = new float[height];
+        for (int y = 0; y < height; y++) {
+            column[y] = values[y * width + x];
+        }
+        return column;
+    }
+}
@@ -10,42 +10,78 @@ package nonogram.generator;
  * The state of the square can be changed using the provided methods.
  * The state can also be queried to check if the square is empty, crossed, or filled.
  * The toString method provides a string representation of the square's state.
+ * <p>
+ * The state itself is stored as a byte in an array, which is either owned by the square
+ * or shared with a {@link Board}, in which case the square is a view of one of the board's cells.
  *
  * @author agueguen-LR
  */
 public class Square {
 
     /**
-     * Enum representing the possible states of a square.
+     * State of a square that is neither filled nor crossed.
      */
-    private enum State{
-        EMPTY, CROSS, FILLED
-    }
+    public static final byte EMPTY = 0;
+
+    /**
+     * State of a crossed square.
+     */
+    public static final byte CROSS = 1;
+
+    /**
+     * State of a filled square.
+     */
+    public static final byte FILLED = 2;
+
+    /**
+     * The array holding the state of the square.
+     */
+    private final byte[] cells;
 
     /**
-     * The current state of the square.
+     * The index of the state of the square in the array.
      */
-    private State state;
+    private final int index;
 
     /**
      * Constructs a new Square with an initial state of EMPTY.
      */
     public Square() {
-        state = State.EMPTY;
+        this(new byte[1], 0);
+    }
+
+    /**
+     * Constructs a view of a cell stored in a shared array.
+     *
+     * @param cells the array holding the cells
+     * @param index the index of the cell in the array
+     */
+    Square(byte[] cells, int index) {
+        this.cells = cells;
+        this.index = index;
     }
 
     /**
      * Sets the state of the square to FILLED.
      */
     public void fill(){
-        state = State.FILLED;
+        cells[index] = FILLED;
     }
 
     /**
      * Sets the state of the square to CROSS.
      */
     public void cross(){
-        state = State.CROSS;
+        cells[index] = CROSS;
+    }
+
+    /**
+     * Returns the raw state of the square.
+     *
+     * @return EMPTY, CROSS or FILLED
+     */
+    public byte getState(){
+        return cells[index];
     }
 
     /**
@@ -54,7 +90,7 @@ public class Square {
      * @return true if the square is FILLED, false otherwise
      */
     public boolean isFilled(){
-        return state.equals(State.FILLED);
+        return cells[index] == FILLED;
     }
 
     /**
@@ -63,7 +99,7 @@ public class Square {
      * @return true if the square is CROSS, false otherwise
      */
     public boolean isCrossed(){
-        return state.equals(State.CROSS);
+        return cells[index] == CROSS;
     }
 
     /**
@@ -72,7 +108,7 @@ public class Square {
      * @return true if the square is EMPTY, false otherwise
      */
     public boolean isEmpty(){
-        return state.equals(State.EMPTY);
+        return cells[index] == EMPTY;
     }
 
     /**
@@ -82,12 +118,12 @@ public class Square {
      */
     @Override
     public String toString() {
-        if(state.equals(State.FILLED)){
+        if(isFilled()){
             return "O";
-        } else if (state.equals(State.CROSS)){
+        } else if (isCrossed()){
             return "X";
         }
         return " ";
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+package nonogram.io;
+
+/**
+ * Constants of the binary puzzle format written by {@link BinaryPuzzleWriter} and read by {@link BinaryPuzzleReader}.
+ * <p>
+ * A file starts with the 4 bytes {@code NONO} and a version byte, followed by any number of puzzles. Each puzzle is:
+ * <ul>
+ *     <li>its width then its height, as varints</li>
+ *     <li>a flags byte, {@link #HAS_SQUARES} if the states of the squares follow the clues</li>
+ *     <li>the clue of each row then of each column: the number of blocks, then the length of each block, as varints</li>
+ *     <li>if present, the state of each square by row, 2 bits per square, 4 squares per byte starting with the low bits</li>
+ * </ul>
+ * Varints are unsigned LEB128: 7 bits per byte, low bits first, the high bit set on every byte but the last.
+ * Almost every number of a puzzle fits in a single byte.
+ *
+ * @author agueguen-LR
+ */
+final class BinaryPuzzleFormat {
+
+    /**
+     * The first bytes of every file.
+     */
+    static final byte[] MAGIC = {'N', 'O', 'N', 'O'};
+
+    /**
+     * The version of the format.
+     */
+    static final byte VERSION = 1;
+
+    /**
+     * The size of the header, magic and version.
+     */
+    static final int HEADER_SIZE = MAGIC.length + 1;
+
+    /**
+     * Flag of a puzzle followed by the states of its squares.
+     */
+    static final int HAS_SQUARES = 1;
+
+    /**
+     * The number of squares per byte of the grid.
+     */
+    static final int SQUARES_PER_BYTE = 4;
+
+    /**
+     * The largest number of squares of a puzzle the reader accepts, 8192 x 8192.
+     */
+    static final long MAX_SQUARES = 1L << 26;
+
+    private BinaryPuzzleFormat() {}
+}
@@ -0,0 +1,290 @@
+package nonogram.io;
+
+import nonogram.generator.Board;
+import nonogram.generator.Clue;
+import nonogram.generator.Square;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the puzzles of a file written by {@link BinaryPuzzleWriter}, one after the other.
+ * <p>
+ * The file is memory-mapped with {@link FileChannel#map}, and decoded straight from the mapping without copying
+ * it into the heap. Files larger than a mapping can be are mapped a window at a time, a puzzle that does not fit
+ * in the rest of the current window is read again from a new window starting at the puzzle.
+ *
+ * @author agueguen-LR
+ */
+public class BinaryPuzzleReader implements Iterator<Board>, AutoCloseable {
+
+    /**
+     * The size of the windows mapped by default.
+     */
+    private static final long DEFAULT_WINDOW = 1L << 28;
+
+    /**
+     * The file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The size of the file.
+     */
+    private final long size;
+
+    /**
+     * The size of the windows mapped.
+     */
+    private long window;
+
+    /**
+     * The current window of the file.
+     */
+    private MappedByteBuffer buffer;
+
+    /**
+     * The position in the file of the start of the current window.
+     */
+    private long windowStart;
+
+    /**
+     * Buffer for the values of the clue being read.
+     */
+    private int[] clueValues = new int[16];
+
+    /**
+     * Opens a file and checks its header.
+     *
+     * @param file the file
+     * @throws IOException if the file cannot be read or is not in the binary puzzle format
+     */
+    public BinaryPuzzleReader(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Opens a file mapped in windows of the given size.
+     *
+     * @param file the file
+     * @param window the size of the windows mapped
+     * @throws IOException if the file cannot be read or is not in the binary puzzle format
+     */
+    BinaryPuzzleReader(Path file, long window) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            this.size = channel.size();
+            this.window = Math.min(window, Integer.MAX_VALUE);
+            map(0);
+            byte[] magic = new byte[BinaryPuzzleFormat.MAGIC.length];
+            if (size < BinaryPuzzleFormat.HEADER_SIZE) {
+                throw new IOException(file + " is not a puzzle file");
+            }
+            buffer.get(magic);
+            if (!Arrays.equals(magic, BinaryPuzzleFormat.MAGIC)) {
+                throw new IOException(file + " is not a puzzle file");
+            }
+            byte version = buffer.get();
+            if (version != BinaryPuzzleFormat.VERSION) {
+                throw new IOException(file + " has unsupported version " + version);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks if another puzzle follows.
+     *
+     * @return true if the end of the file is not reached
+     */
+    @Override
+    public boolean hasNext() {
+        return position() < size;
+    }
+
+    /**
+     * Reads the next puzzle.
+     *
+     * @return a new board with the clues of the puzzle, and the states of its squares if they were written
+     * @throws NoSuchElementException if the end of the file is reached
+     * @throws UncheckedIOException if the file cannot be mapped or the puzzle is truncated or malformed
+     */
+    @Override
+    public Board next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        long start = position();
+        while (true) {
+            try {
+                return readBoard();
+            } catch (BufferUnderflowException e) {
+                // the puzzle is cut by the end of the window, or of the file
+                if (windowStart + buffer.limit() >= size && start == windowStart) {
+                    throw new UncheckedIOException(new IOException("Truncated puzzle at byte " + start));
+                }
+                if (start == windowStart) {
+                    window = Math.min(window * 2, Integer.MAX_VALUE);
+                }
+                remap(start);
+            }
+        }
+    }
+
+    /**
+     * Closes the file, the boards already read remain valid.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads a puzzle from the current position of the window.
+     */
+    private Board readBoard() {
+        int width = readVarint();
+        int height = readVarint();
+        int flags = buffer.get();
+        if ((flags & ~BinaryPuzzleFormat.HAS_SQUARES) != 0) {
+            throw new UncheckedIOException(new IOException("Unknown puzzle flags " + flags));
+        }
+        checkSize(width, height, (flags & BinaryPuzzleFormat.HAS_SQUARES) != 0);
+        ArrayList<Clue> horizontalClues = new ArrayList<>(height);
+        for (int y = 0; y < height; y++) {
+            horizontalClues.add(readClue(width));
+        }
+        ArrayList<Clue> verticalClues = new ArrayList<>(width);
+        for (int x = 0; x < width; x++) {
+            verticalClues.add(readClue(height));
+        }
+        Board board = new Board(width, height, horizontalClues, verticalClues);
+        if ((flags & BinaryPuzzleFormat.HAS_SQUARES) != 0) {
+            readSquares(board, width, height);
+        }
+        return board;
+    }
+
+    /**
+     * Checks the size of a puzzle before anything is allocated for it: the board must not exceed
+     * {@link BinaryPuzzleFormat#MAX_SQUARES}, and the rest of the file must be long enough for a byte per clue
+     * and, if present, for the squares.
+     */
+    private void checkSize(int width, int height, boolean hasSquares) {
+        long squares = (long) width * height;
+        if (squares > BinaryPuzzleFormat.MAX_SQUARES) {
+            throw new UncheckedIOException(new IOException("Puzzle of " + width + " x " + height + " is too large"));
+        }
+        long needed = (long) width + height;
+        if (hasSquares) {
+            needed += (squares + BinaryPuzzleFormat.SQUARES_PER_BYTE - 1) / BinaryPuzzleFormat.SQUARES_PER_BYTE;
+        }
+        if (needed > size - position()) {
+            throw new UncheckedIOException(new IOException("Puzzle of " + width + " x " + height
+                    + " at byte " + position() + " is longer than the file"));
+        }
+    }
+
+    /**
+     * Reads a clue of a line.
+     */
+    private Clue readClue(int lineLength) {
+        int blocks = readVarint();
+        if (blocks > (lineLength + 1) / 2) {
+            throw new UncheckedIOException(new IOException(blocks + " blocks in a line of " + lineLength));
+        }
+        if (clueValues.length < blocks) {
+            clueValues = new int[Math.max(blocks, clueValues.length * 2)];
+        }
+        for (int i = 0; i < blocks; i++) {
+            clueValues[i] = readVarint();
+            if (clueValues[i] < 1 || clueValues[i] > lineLength) {
+                throw new UncheckedIOException(new IOException("Block of " + clueValues[i] + " in a line of " + lineLength));
+            }
+        }
+        return Clue.of(Arrays.copyOf(clueValues, blocks));
+    }
+
+    /**
+     * Reads the state of each square by row, 2 bits per square.
+     */
+    private void readSquares(Board board, int width, int height) {
+        int packed = 0;
+        int squares = BinaryPuzzleFormat.SQUARES_PER_BYTE;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (squares == BinaryPuzzleFormat.SQUARES_PER_BYTE) {
+                    packed = buffer.get();
+                    squares = 0;
+                }
+                int state = (packed >>> (2 * squares)) & 0b11;
+                squares++;
+                if (state == Square.FILLED) {
+                    board.fillSquare(x, y);
+                } else if (state == Square.CROSS) {
+                    board.crossSquare(x, y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads an unsigned LEB128 varint of at most 5 bytes, the fifth holding only the 4 highest bits of the value.
+     */
+    private int readVarint() {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            if (shift == 28 && (b & 0xF0) != 0) {
+                break;
+            }
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new UncheckedIOException(new IOException("Malformed varint"));
+    }
+
+    /**
+     * Returns the position in the file of the next byte to read.
+     */
+    private long position() {
+        return windowStart + buffer.position();
+    }
+
+    /**
+     * Maps the window starting at the given position of the file.
+     */
+    private void map(long start) throws IOException {
+        windowStart = start;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(window, size - start));
+    }
+
+    /**
+     * Maps the window starting at the given position of the file, for a puzzle that didn't fit in the previous one.
+     */
+    private void remap(long start) {
+        try {
+            map(start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
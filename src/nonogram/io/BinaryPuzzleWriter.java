@@ -0,0 +1,138 @@
+package nonogram.io;
+
+import nonogram.generator.Board;
+import nonogram.generator.Clue;
+import nonogram.generator.Line;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes puzzles in the binary format described by {@link BinaryPuzzleFormat}, one after the other in a single file,
+ * so that a corpus generated once can be loaded again with {@link BinaryPuzzleReader} without reading any image.
+ *
+ * @author agueguen-LR
+ */
+public class BinaryPuzzleWriter implements AutoCloseable {
+
+    /**
+     * The output.
+     */
+    private final OutputStream out;
+
+    /**
+     * The number of puzzles written.
+     */
+    private int count = 0;
+
+    /**
+     * Creates a file and writes its header.
+     *
+     * @param file the file, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public BinaryPuzzleWriter(Path file) throws IOException {
+        this(Files.newOutputStream(file));
+    }
+
+    /**
+     * Writes the header of the format to an output.
+     *
+     * @param out the output, closed with this writer
+     * @throws IOException if the header cannot be written
+     */
+    public BinaryPuzzleWriter(OutputStream out) throws IOException {
+        this.out = new BufferedOutputStream(out, 1 << 16);
+        this.out.write(BinaryPuzzleFormat.MAGIC);
+        this.out.write(BinaryPuzzleFormat.VERSION);
+    }
+
+    /**
+     * Writes the clues of a board, and optionally the states of its squares.
+     *
+     * @param board the board
+     * @param withSquares true to write the states of the squares, such as a solution, false to write the clues only
+     * @throws IOException if the puzzle cannot be written
+     */
+    public void write(Board board, boolean withSquares) throws IOException {
+        int[] dimensions = board.getDimensions();
+        writeVarint(dimensions[0]);
+        writeVarint(dimensions[1]);
+        out.write(withSquares ? BinaryPuzzleFormat.HAS_SQUARES : 0);
+        for (Clue clue : board.getHorizontalClues()) {
+            writeClue(clue);
+        }
+        for (Clue clue : board.getVerticalClues()) {
+            writeClue(clue);
+        }
+        if (withSquares) {
+            writeSquares(board, dimensions[0], dimensions[1]);
+        }
+        count++;
+    }
+
+    /**
+     * Returns the number of puzzles written.
+     *
+     * @return the number of puzzles
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Flushes and closes the output.
+     *
+     * @throws IOException if the output cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Writes the number of blocks of a clue then their lengths.
+     */
+    private void writeClue(Clue clue) throws IOException {
+        writeVarint(clue.size());
+        for (int i = 0; i < clue.size(); i++) {
+            writeVarint(clue.get(i));
+        }
+    }
+
+    /**
+     * Writes the state of each square by row, 2 bits per square.
+     */
+    private void writeSquares(Board board, int width, int height) throws IOException {
+        int packed = 0;
+        int squares = 0;
+        for (int y = 0; y < height; y++) {
+            Line row = board.getRow(y);
+            for (int x = 0; x < width; x++) {
+                packed |= row.getState(x) << (2 * squares);
+                if (++squares == BinaryPuzzleFormat.SQUARES_PER_BYTE) {
+                    out.write(packed);
+                    packed = 0;
+                    squares = 0;
+                }
+            }
+        }
+        if (squares > 0) {
+            out.write(packed);
+        }
+    }
+
+    /**
+     * Writes an unsigned LEB128 varint.
+     */
+    private void writeVarint(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
@@ -0,0 +1,96 @@
+package nonogram.io;
+
+import nonogram.generator.Board;
+import nonogram.generator.Clue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+
+/**
+ * Reads and writes the CWD format: the number of rows, the number of columns, then the clue of each row
+ * and the clue of each column, one per line, with a blank line between the rows and the columns:
+ * <pre>
+ * 2
+ * 3
+ * 1 1
+ * 2
+ *
+ * 1
+ * 1
+ * 2
+ * </pre>
+ * The lengths of a clue are separated by spaces, an empty clue is 0. The format has no solution.
+ *
+ * @author agueguen-LR
+ */
+final class CwdFormat {
+
+    private CwdFormat() {}
+
+    /**
+     * Reads a puzzle, blank lines are skipped.
+     */
+    static Board read(Reader in) throws IOException {
+        PuzzleScanner scanner = new PuzzleScanner(in);
+        skipBlankLines(scanner);
+        int height = scanner.readInt();
+        scanner.nextLine();
+        skipBlankLines(scanner);
+        int width = scanner.readInt();
+        scanner.nextLine();
+        ArrayList<Clue> rows = readClues(scanner, height);
+        ArrayList<Clue> columns = readClues(scanner, width);
+        skipBlankLines(scanner);
+        if (!scanner.atEnd()) {
+            throw scanner.error("unexpected content after the clues");
+        }
+        return PuzzleFormat.newBoard(width, height, rows, columns);
+    }
+
+    /**
+     * Writes a puzzle.
+     */
+    static void write(Board board, Writer out) throws IOException {
+        int[] dimensions = board.getDimensions();
+        out.write(dimensions[1] + "\n" + dimensions[0] + "\n");
+        writeClues(board.getHorizontalClues(), out);
+        out.write('\n');
+        writeClues(board.getVerticalClues(), out);
+    }
+
+    /**
+     * Reads a number of clues, skipping the blank lines before each.
+     */
+    private static ArrayList<Clue> readClues(PuzzleScanner scanner, int count) throws IOException {
+        ArrayList<Clue> clues = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            skipBlankLines(scanner);
+            if (scanner.atEnd()) {
+                throw scanner.error("expected " + count + " clues, got " + i);
+            }
+            clues.add(scanner.readClue());
+        }
+        return clues;
+    }
+
+    /**
+     * Writes one clue per line, with its lengths separated by spaces.
+     */
+    private static void writeClues(ArrayList<Clue> clues, Writer out) throws IOException {
+        for (Clue clue : clues) {
+            out.write(clue.size() == 0 ? "0" : clue.getClueString());
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Skips the blank lines before the next content.
+     */
+    private static void skipBlankLines(PuzzleScanner scanner) throws IOException {
+        while (!scanner.atEnd() && scanner.atEndOfLine()) {
+            scanner.nextLine();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package nonogram.io;
+
+import nonogram.generator.Board;
+import nonogram.generator.Clue;
+import nonogram.generator.Line;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+
+/**
+ * Reads and writes the .non format:
+ * <pre>
+ * title "Example"
+ * width 3
+ * height 2
+ *
+ * rows
+ * 1,1
+ * 2
+ *
+ * columns
+ * 1
+ * 1
+ * 2
+ *
+ * goal "101011"
+ * </pre>
+ * A clue is a line of block lengths separated by commas, 0 or a blank line for an empty clue.
+ * The goal is the solution by row, 1 for a filled square and 0 for any other; the keywords not used by a board,
+ * such as title, catalogue or copyright, are ignored.
+ *
+ * @author agueguen-LR
+ */
+final class NonFormat {
+
+    private NonFormat() {}
+
+    /**
+     * Reads a puzzle, the squares of its goal are filled or crossed.
+     */
+    static Board read(Reader in) throws IOException {
+        PuzzleScanner scanner = new PuzzleScanner(in);
+        int width = -1;
+        int height = -1;
+        ArrayList<Clue> rows = null;
+        ArrayList<Clue> columns = null;
+        String goal = null;
+        while (!scanner.atEnd()) {
+            if (scanner.atEndOfLine()) {
+                scanner.nextLine();
+                continue;
+            }
+            switch (scanner.readWord()) {
+                case "width" -> {
+                    width = scanner.readInt();
+                    scanner.nextLine();
+                }
+                case "height" -> {
+                    height = scanner.readInt();
+                    scanner.nextLine();
+                }
+                case "rows" -> {
+                    scanner.nextLine();
+                    rows = readClues(scanner, height);
+                }
+                case "columns" -> {
+                    scanner.nextLine();
+                    columns = readClues(scanner, width);
+                }
+                case "goal" -> {
+                    goal = unquote(scanner.readRestOfLine());
+                    scanner.nextLine();
+                }
+                default -> scanner.nextLine();
+            }
+        }
+        if (rows == null || columns == null) {
+            throw new IOException("Missing rows or columns section");
+        }
+        Board board = PuzzleFormat.newBoard(width < 0 ? columns.size() : width, height < 0 ? rows.size() : height,
+                rows, columns);
+        if (goal != null) {
+            applyGoal(board, goal);
+        }
+        return board;
+    }
+
+    /**
+     * Writes a puzzle, with the filled squares of the board as its goal if asked.
+     */
+    static void write(Board board, Writer out, boolean withSolution) throws IOException {
+        int[] dimensions = board.getDimensions();
+        out.write("width " + dimensions[0] + "\n");
+        out.write("height " + dimensions[1] + "\n\nrows\n");
+        writeClues(board.getHorizontalClues(), out);
+        out.write("\ncolumns\n");
+        writeClues(board.getVerticalClues(), out);
+        if (withSolution) {
+            out.write("\ngoal \"");
+            for (int y = 0; y < dimensions[1]; y++) {
+                Line row = board.getRow(y);
+                for (int x = 0; x < dimensions[0]; x++) {
+                    out.write(row.isFilled(x) ? '1' : '0');
+                }
+            }
+            out.write("\"\n");
+        }
+    }
+
+    /**
+     * Reads the clues of a section, as many as the given count, or up to a blank line or a keyword
+     * if the count is not known yet.
+     */
+    private static ArrayList<Clue> readClues(PuzzleScanner scanner, int count) throws IOException {
+        ArrayList<Clue> clues = new ArrayList<>();
+        if (count >= 0) {
+            for (int i = 0; i < count; i++) {
+                if (scanner.atEnd()) {
+                    throw scanner.error("expected " + count + " clues, got " + i);
+                }
+                clues.add(scanner.readClue());
+            }
+        } else {
+            while (!scanner.atEnd() && !scanner.atEndOfLine() && scanner.atNumber()) {
+                clues.add(scanner.readClue());
+            }
+        }
+        return clues;
+    }
+
+    /**
+     * Writes one clue per line, with its lengths separated by commas.
+     */
+    private static void writeClues(ArrayList<Clue> clues, Writer out) throws IOException {
+        for (Clue clue : clues) {
+            if (clue.size() == 0) {
+                out.write('0');
+            }
+            for (int i = 0; i < clue.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(Integer.toString(clue.get(i)));
+            }
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Removes the quotes around a value.
+     */
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    /**
+     * Fills the squares of the goal marked 1 and crosses the others.
+     */
+    private static void applyGoal(Board board, String goal) throws IOException {
+        int[] dimensions = board.getDimensions();
+        if (goal.length() != dimensions[0] * dimensions[1]) {
+            throw new IOException("Expected a goal of " + dimensions[0] * dimensions[1] + " squares, got " + goal.length());
+        }
+        for (int i = 0; i < goal.length(); i++) {
+            int x = i % dimensions[0];
+            int y = i / dimensions[0];
+            switch (goal.charAt(i)) {
+                case '1' -> board.fillSquare(x, y);
+                case '0' -> board.crossSquare(x, y);
+                default -> throw new IOException("Unexpected character in goal: " + goal.charAt(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package nonogram.io;
+
+import nonogram.generator.Board;
+import nonogram.generator.Clue;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * Enum representing the text formats of puzzles shared with other nonogram tools, each read and written
+ * straight from and to the clue lists of a {@link Board}.
+ * <ul>
+ *     <li>NON: the .non format, with width, height, rows and columns sections, and an optional goal</li>
+ *     <li>CWD: the number of rows, the number of columns, then one clue per line, rows first</li>
+ *     <li>XML: the puzzleset format of webpbn, read with a StAX parser</li>
+ * </ul>
+ * Puzzles read from a file are checked to be consistent: one clue per line of the board, each clue fitting its line,
+ * and as many filled squares in the rows as in the columns.
+ *
+ * @author agueguen-LR
+ */
+public enum PuzzleFormat {
+    NON(".non") {
+        @Override
+        public Board read(Reader in) throws IOException {
+            return NonFormat.read(in);
+        }
+
+        @Override
+        public void write(Board board, Writer out, boolean withSolution) throws IOException {
+            NonFormat.write(board, out, withSolution);
+        }
+    },
+    CWD(".cwd") {
+        @Override
+        public Board read(Reader in) throws IOException {
+            return CwdFormat.read(in);
+        }
+
+        @Override
+        public void write(Board board, Writer out, boolean withSolution) throws IOException {
+            CwdFormat.write(board, out);
+        }
+    },
+    XML(".xml") {
+        @Override
+        public Board read(Reader in) throws IOException {
+            return XmlFormat.read(in);
+        }
+
+        @Override
+        public void write(Board board, Writer out, boolean withSolution) throws IOException {
+            XmlFormat.write(board, out, withSolution);
+        }
+    };
+
+    /**
+     * The extension of the files of the format.
+     */
+    private final String extension;
+
+    PuzzleFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the format of a file from its extension.
+     *
+     * @param file the file
+     * @return the format, or null if the extension is not one of a puzzle format
+     */
+    public static PuzzleFormat forFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        for (PuzzleFormat format : values()) {
+            if (name.endsWith(format.extension)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads a puzzle file in the format given by its extension.
+     *
+     * @param file the file
+     * @return a new board with the clues of the puzzle, and its solution if the file has one
+     * @throws IOException if the file cannot be read, has no puzzle format, or is malformed
+     */
+    public static Board readFile(Path file) throws IOException {
+        PuzzleFormat format = forFile(file);
+        if (format == null) {
+            throw new IOException("Unknown puzzle format: " + file);
+        }
+        return format.read(file);
+    }
+
+    /**
+     * Returns the extension of the files of the format.
+     *
+     * @return the extension, with its dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Reads a puzzle from a file.
+     *
+     * @param file the file
+     * @return a new board with the clues of the puzzle, and its solution if the file has one
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public Board read(Path file) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            return read(in);
+        } catch (IOException e) {
+            throw new IOException(file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes a puzzle to a file.
+     *
+     * @param board the board
+     * @param file the file, replaced if it exists
+     * @param withSolution true to write the states of the squares as the solution, if the format can hold one
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Board board, Path file, boolean withSolution) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            write(board, out, withSolution);
+        }
+    }
+
+    /**
+     * Reads a puzzle.
+     *
+     * @param in the input, not closed
+     * @return a new board with the clues of the puzzle, and its solution if the input has one
+     * @throws IOException if the input cannot be read or is malformed
+     */
+    public abstract Board read(Reader in) throws IOException;
+
+    /**
+     * Writes a puzzle.
+     *
+     * @param board the board
+     * @param out the output, not closed
+     * @param withSolution true to write the states of the squares as the solution, if the format can hold one
+     * @throws IOException if the output cannot be written
+     */
+    public abstract void write(Board board, Writer out, boolean withSolution) throws IOException;
+
+    /**
+     * Creates the board of a puzzle read from a file, after checking that its clues are consistent.
+     *
+     * @param width the number of columns
+     * @param height the number of rows
+     * @param rows the clues of the rows
+     * @param columns the clues of the columns
+     * @return the board, with every square empty
+     * @throws IOException if the dimensions are negative or too large, or the clues do not match them or cannot be
+     * satisfied
+     */
+    static Board newBoard(int width, int height, ArrayList<Clue> rows, ArrayList<Clue> columns) throws IOException {
+        if (width < 0 || height < 0) {
+            throw new IOException("Puzzle of " + width + " x " + height + " has a negative size");
+        }
+        if ((long) width * height > BinaryPuzzleFormat.MAX_SQUARES) {
+            throw new IOException("Puzzle of " + width + " x " + height + " is too large");
+        }
+        if (rows.size() != height) {
+            throw new IOException("Expected " + height + " row clues, got " + rows.size());
+        }
+        if (columns.size() != width) {
+            throw new IOException("Expected " + width + " column clues, got " + columns.size());
+        }
+        long filled = 0;
+        for (int y = 0; y < height; y++) {
+            filled += checkClue(rows.get(y), width, "row " + y);
+        }
+        for (int x = 0; x < width; x++) {
+            filled -= checkClue(columns.get(x), height, "column " + x);
+        }
+        if (filled != 0) {
+            throw new IOException("The rows and the columns do not fill the same number of squares");
+        }
+        return new Board(width, height, rows, columns);
+    }
+
+    /**
+     * Checks that a clue fits in its line, and returns the number of squares it fills.
+     */
+    private static int checkClue(Clue clue, int length, String line) throws IOException {
+        if (clue.getMinLength() > length) {
+            throw new IOException("The clue of " + line + " needs " + clue.getMinLength() + " squares, the line has " + length);
+        }
+        return clue.getSum();
+    }
+}
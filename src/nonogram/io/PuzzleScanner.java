@@ -0,0 +1,219 @@
+package nonogram.io;
+
+import nonogram.generator.Clue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reads the lines of a text puzzle file from a buffer of characters, parsing numbers and clues in place
+ * so that a clue costs no allocation besides the clue itself.
+ * <p>
+ * The scanner works one line at a time: the methods reading a line stop at its end, which is consumed by
+ * {@link #nextLine()}. Lines end with \n or \r\n.
+ *
+ * @author agueguen-LR
+ */
+final class PuzzleScanner {
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int position = 0;
+    private int limit = 0;
+
+    /**
+     * The number of the current line, from 1.
+     */
+    private int lineNumber = 1;
+
+    /**
+     * Buffer for the values of the clue being read.
+     */
+    private int[] values = new int[16];
+
+    /**
+     * Constructs a scanner on a reader.
+     *
+     * @param in the reader, not closed by the scanner
+     */
+    PuzzleScanner(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Checks if the end of the input is reached.
+     *
+     * @return true if no character is left
+     * @throws IOException if the input cannot be read
+     */
+    boolean atEnd() throws IOException {
+        return peek() < 0;
+    }
+
+    /**
+     * Skips the spaces and tabs of the current line, then checks if it has nothing left.
+     *
+     * @return true if the rest of the current line is blank
+     * @throws IOException if the input cannot be read
+     */
+    boolean atEndOfLine() throws IOException {
+        skipBlanks();
+        int c = peek();
+        return c < 0 || c == '\n' || c == '\r';
+    }
+
+    /**
+     * Skips the rest of the current line and its end.
+     *
+     * @throws IOException if the input cannot be read
+     */
+    void nextLine() throws IOException {
+        int c;
+        while ((c = read()) >= 0) {
+            if (c == '\n') {
+                lineNumber++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads the next word of the current line, a sequence of characters other than spaces.
+     *
+     * @return the word, empty at the end of the line
+     * @throws IOException if the input cannot be read
+     */
+    String readWord() throws IOException {
+        skipBlanks();
+        StringBuilder word = new StringBuilder();
+        int c;
+        while ((c = peek()) >= 0 && !Character.isWhitespace(c)) {
+            word.append((char) read());
+        }
+        return word.toString();
+    }
+
+    /**
+     * Reads the rest of the current line, without its surrounding spaces.
+     *
+     * @return the rest of the line
+     * @throws IOException if the input cannot be read
+     */
+    String readRestOfLine() throws IOException {
+        skipBlanks();
+        StringBuilder rest = new StringBuilder();
+        int c;
+        while ((c = peek()) >= 0 && c != '\n' && c != '\r') {
+            rest.append((char) read());
+        }
+        return rest.toString().strip();
+    }
+
+    /**
+     * Checks if the next character of the current line, after spaces, is a digit.
+     *
+     * @return true if a number follows
+     * @throws IOException if the input cannot be read
+     */
+    boolean atNumber() throws IOException {
+        skipBlanks();
+        int c = peek();
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Reads a non-negative number of the current line.
+     *
+     * @return the number
+     * @throws IOException if the input cannot be read, or if no number follows
+     */
+    int readInt() throws IOException {
+        if (!atNumber()) {
+            throw error("expected a number");
+        }
+        long value = 0;
+        int c;
+        while ((c = peek()) >= '0' && c <= '9') {
+            value = value * 10 + (read() - '0');
+            if (value > Integer.MAX_VALUE) {
+                throw error("number too large");
+            }
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads the clue of the current line, block lengths separated by commas or spaces, then goes to the next line.
+     * A line holding only 0, or nothing, is an empty clue.
+     *
+     * @return the clue
+     * @throws IOException if the input cannot be read, or if the line is not a clue
+     */
+    Clue readClue() throws IOException {
+        int count = 0;
+        while (!atEndOfLine()) {
+            int value = readInt();
+            if (value > 0) {
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, count * 2);
+                }
+                values[count++] = value;
+            } else if (count > 0 || !atEndOfLine()) {
+                throw error("block lengths must be positive");
+            }
+            skipBlanks();
+            if (peek() == ',') {
+                read();
+            }
+        }
+        nextLine();
+        return Clue.of(Arrays.copyOf(values, count));
+    }
+
+    /**
+     * Creates an exception giving the current line number.
+     *
+     * @param message the description of the problem
+     * @return the exception
+     */
+    IOException error(String message) {
+        return new IOException("line " + lineNumber + ": " + message);
+    }
+
+    /**
+     * Skips the spaces and tabs of the current line.
+     */
+    private void skipBlanks() throws IOException {
+        int c;
+        while ((c = peek()) == ' ' || c == '\t') {
+            position++;
+        }
+    }
+
+    /**
+     * Returns the next character without consuming it, or -1 at the end of the input.
+     */
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    /**
+     * Consumes the next character, or returns -1 at the end of the input.
+     */
+    private int read() throws IOException {
+        int c = peek();
+        if (c >= 0) {
+            position++;
+        }
+        return c;
+    }
+}
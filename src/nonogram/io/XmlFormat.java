@@ -0,0 +1,299 @@
+package nonogram.io;
+
+import nonogram.generator.Board;
+import nonogram.generator.Clue;
+import nonogram.generator.Line;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Reads and writes the puzzleset XML format of webpbn:
+ * <pre>
+ * &lt;puzzleset&gt;
+ * &lt;puzzle type="grid" defaultcolor="black"&gt;
+ * &lt;color name="white" char="."&gt;fff&lt;/color&gt;
+ * &lt;color name="black" char="X"&gt;000&lt;/color&gt;
+ * &lt;clues type="columns"&gt;
+ * &lt;line&gt;&lt;count&gt;1&lt;/count&gt;&lt;/line&gt;
+ * ...
+ * &lt;/clues&gt;
+ * &lt;clues type="rows"&gt;
+ * ...
+ * &lt;/clues&gt;
+ * &lt;solution type="goal"&gt;&lt;image&gt;
+ * |X.|
+ * |XX|
+ * &lt;/image&gt;&lt;/solution&gt;
+ * &lt;/puzzle&gt;
+ * &lt;/puzzleset&gt;
+ * </pre>
+ * The file is parsed as a stream with StAX, and the lengths of the blocks are parsed from the characters
+ * of the parser. Only the first puzzle of a set is read, and only black and white puzzles are supported.
+ * In the image of a solution the character of the default color is a filled square, the character
+ * of the background color a crossed square, and ? an empty square.
+ *
+ * @author agueguen-LR
+ */
+final class XmlFormat {
+
+    /**
+     * The character of an unknown square in an image.
+     */
+    private static final char UNKNOWN = '?';
+
+    private XmlFormat() {}
+
+    /**
+     * Reads the first puzzle of a set, the squares of its goal are filled or crossed.
+     */
+    static Board read(Reader in) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+            XMLStreamReader xml = factory.createXMLStreamReader(in);
+            try {
+                return readPuzzle(xml);
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes a puzzle set holding the puzzle, with the states of the squares as its goal if asked.
+     */
+    static void write(Board board, Writer out, boolean withSolution) throws IOException {
+        int[] dimensions = board.getDimensions();
+        out.write("<?xml version=\"1.0\"?>\n");
+        out.write("<!DOCTYPE pbn SYSTEM \"https://webpbn.com/pbn-0.3.dtd\">\n");
+        out.write("<puzzleset>\n<puzzle type=\"grid\" defaultcolor=\"black\">\n");
+        out.write("<color name=\"white\" char=\".\">fff</color>\n");
+        out.write("<color name=\"black\" char=\"X\">000</color>\n");
+        writeClues("columns", board.getVerticalClues(), out);
+        writeClues("rows", board.getHorizontalClues(), out);
+        if (withSolution) {
+            out.write("<solution type=\"goal\">\n<image>\n");
+            for (int y = 0; y < dimensions[1]; y++) {
+                Line row = board.getRow(y);
+                out.write('|');
+                for (int x = 0; x < dimensions[0]; x++) {
+                    out.write(row.isFilled(x) ? 'X' : row.isCrossed(x) ? '.' : UNKNOWN);
+                }
+                out.write("|\n");
+            }
+            out.write("</image>\n</solution>\n");
+        }
+        out.write("</puzzle>\n</puzzleset>\n");
+    }
+
+    /**
+     * Reads the elements of the first puzzle of the stream.
+     */
+    private static Board readPuzzle(XMLStreamReader xml) throws XMLStreamException, IOException {
+        String filledColor = "black";
+        String crossedColor = "white";
+        char filledChar = 'X';
+        char crossedChar = '.';
+        ArrayList<Clue> rows = null;
+        ArrayList<Clue> columns = null;
+        String image = null;
+        boolean inPuzzle = false;
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.END_ELEMENT && xml.getLocalName().equals("puzzle")) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            switch (xml.getLocalName()) {
+                case "puzzle" -> {
+                    inPuzzle = true;
+                    filledColor = attribute(xml, "defaultcolor", filledColor);
+                    crossedColor = attribute(xml, "backgroundcolor", crossedColor);
+                }
+                case "color" -> {
+                    String name = attribute(xml, "name", "");
+                    String character = attribute(xml, "char", "");
+                    if (character.length() == 1 && name.equals(filledColor)) {
+                        filledChar = character.charAt(0);
+                    } else if (character.length() == 1 && name.equals(crossedColor)) {
+                        crossedChar = character.charAt(0);
+                    }
+                }
+                case "clues" -> {
+                    String type = attribute(xml, "type", "");
+                    if (type.equals("rows")) {
+                        rows = readClues(xml, filledColor);
+                    } else if (type.equals("columns")) {
+                        columns = readClues(xml, filledColor);
+                    } else {
+                        throw new IOException("Unknown clues type: " + type);
+                    }
+                }
+                case "solution" -> {
+                    if (attribute(xml, "type", "goal").equals("goal") && image == null) {
+                        image = readImage(xml);
+                    }
+                }
+                default -> {
+                    // puzzleset, source, title, author, ... are not used by a board
+                }
+            }
+        }
+        if (!inPuzzle) {
+            throw new IOException("No puzzle in the file");
+        }
+        if (rows == null || columns == null) {
+            throw new IOException("Missing rows or columns clues");
+        }
+        Board board = PuzzleFormat.newBoard(columns.size(), rows.size(), rows, columns);
+        if (image != null) {
+            applyImage(board, image, filledChar, crossedChar);
+        }
+        return board;
+    }
+
+    /**
+     * Reads the lines of a clues element, up to its end.
+     */
+    private static ArrayList<Clue> readClues(XMLStreamReader xml, String filledColor) throws XMLStreamException, IOException {
+        ArrayList<Clue> clues = new ArrayList<>();
+        int[] values = new int[16];
+        int count = 0;
+        int value = -1;
+        while (true) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (xml.getLocalName()) {
+                    case "line" -> count = 0;
+                    case "count" -> {
+                        if (!attribute(xml, "color", filledColor).equals(filledColor)) {
+                            throw new IOException("Multicolor puzzles are not supported");
+                        }
+                        value = 0;
+                    }
+                    default -> throw new IOException("Unexpected element in clues: " + xml.getLocalName());
+                }
+            } else if (event == XMLStreamConstants.CHARACTERS && value >= 0) {
+                value = parseDigits(xml, value);
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                switch (xml.getLocalName()) {
+                    case "count" -> {
+                        if (value < 1) {
+                            throw new IOException("Block lengths must be positive: " + value);
+                        }
+                        if (count == values.length) {
+                            values = Arrays.copyOf(values, count * 2);
+                        }
+                        values[count++] = value;
+                        value = -1;
+                    }
+                    case "line" -> clues.add(Clue.of(Arrays.copyOf(values, count)));
+                    default -> {
+                        return clues;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the digits of the current text event to a number, spaces are skipped.
+     */
+    private static int parseDigits(XMLStreamReader xml, int value) throws IOException {
+        char[] text = xml.getTextCharacters();
+        int end = xml.getTextStart() + xml.getTextLength();
+        for (int i = xml.getTextStart(); i < end; i++) {
+            char c = text[i];
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                if (value > 1_000_000) {
+                    throw new IOException("Block length too large");
+                }
+            } else if (!Character.isWhitespace(c)) {
+                throw new IOException("Unexpected character in count: " + c);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Reads the text of the image of a solution, up to the end of the solution.
+     */
+    private static String readImage(XMLStreamReader xml) throws XMLStreamException {
+        String image = null;
+        while (true) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT && xml.getLocalName().equals("image")) {
+                image = xml.getElementText();
+            } else if (event == XMLStreamConstants.END_ELEMENT && xml.getLocalName().equals("solution")) {
+                return image;
+            }
+        }
+    }
+
+    /**
+     * Applies the squares of an image by row, the bars and spaces delimiting its rows are skipped.
+     */
+    private static void applyImage(Board board, String image, char filledChar, char crossedChar) throws IOException {
+        int[] dimensions = board.getDimensions();
+        int i = 0;
+        for (int k = 0; k < image.length(); k++) {
+            char c = image.charAt(k);
+            if (c == '|' || Character.isWhitespace(c)) {
+                continue;
+            }
+            if (i == dimensions[0] * dimensions[1]) {
+                throw new IOException("The image has more squares than the board");
+            }
+            int x = i % dimensions[0];
+            int y = i / dimensions[0];
+            if (c == filledChar) {
+                board.fillSquare(x, y);
+            } else if (c == crossedChar) {
+                board.crossSquare(x, y);
+            } else if (c != UNKNOWN) {
+                throw new IOException("Unexpected character in image: " + c);
+            }
+            i++;
+        }
+        if (i != dimensions[0] * dimensions[1]) {
+            throw new IOException("Expected an image of " + dimensions[0] * dimensions[1] + " squares, got " + i);
+        }
+    }
+
+    /**
+     * Writes a clues element.
+     */
+    private static void writeClues(String type, ArrayList<Clue> clues, Writer out) throws IOException {
+        out.write("<clues type=\"" + type + "\">\n");
+        for (Clue clue : clues) {
+            out.write("<line>");
+            for (int value : clue.getClue()) {
+                out.write("<count>" + value + "</count>");
+            }
+            out.write("</line>\n");
+        }
+        out.write("</clues>\n");
+    }
+
+    /**
+     * Returns the value of an attribute of the current element, or a default value.
+     */
+    private static String attribute(XMLStreamReader xml, String name, String defaultValue) {
+        String value = xml.getAttributeValue(null, name);
+        return value == null ? defaultValue : value;
+    }
+}
@@ -0,0 +1,487 @@
+package nonogram.solver;
+
+import nonogram.generator.Clue;
+import nonogram.generator.Square;
+
+import java.util.Arrays;
+
+/**
+ * BitLineSolver deduces the same squares as {@link CompleteLineSolver}, with the line held in bit masks
+ * instead of arrays: a mask of the filled squares, a mask of the crossed squares, and for each number of blocks
+ * a mask of the prefixes of the line that can hold them.
+ * <p>
+ * Bit i of a prefix mask means the first j blocks fit in the first i squares. The mask of j blocks is the mask of
+ * j - 1 blocks, moved past a square that is not filled and past the length of block j, keeping the starts whose
+ * squares hold no cross; the prefixes are then extended over the squares that are not filled with a single
+ * addition, whose carry runs through each stretch of them. The suffix masks are the prefix masks of the reversed
+ * line and clue, mirrored. A square is filled when a block covers it in every placement and crossed when none does,
+ * exactly as in {@link CompleteLineSolver}, with a few word operations per block instead of a loop over the squares.
+ * <p>
+ * Lines of up to 63 squares, which have up to 64 prefixes, fit in a single long per mask. Longer lines use arrays of
+ * longs with the same operations carried across the words. The masks are reused between calls.
+ *
+ * @see CompleteLineSolver
+ *
+ * @author agueguen-LR
+ */
+public class BitLineSolver implements LineSolverEngine {
+
+    /**
+     * The longest line solved with a single long per mask.
+     */
+    static final int WORD_LENGTH = 63;
+
+    /**
+     * The prefix masks of the line, one per number of blocks.
+     */
+    private long[] forward = new long[1];
+
+    /**
+     * The prefix masks of the reversed line, one per number of blocks.
+     */
+    private long[] reversed = new long[1];
+
+    /**
+     * The masks of lines longer than a word, stored one after the other, and the scratch masks of their operations.
+     */
+    private long[] wideForward = new long[0];
+    private long[] wideReversed = new long[0];
+    private long[][] scratch = new long[0][];
+
+    public BitLineSolver() {}
+
+    /**
+     * Returns true, every square that can be deduced is deduced in a single call.
+     *
+     * @return true
+     */
+    @Override
+    public boolean isComplete() {
+        return true;
+    }
+
+    /**
+     * Solves every square of the line that is the same in all placements of the clue.
+     *
+     * @param line the states of the squares of the line, updated in place
+     * @param length the number of squares in the line
+     * @param clue the clue for the line
+     * @return the number of squares whose state changed, or {@link #CONTRADICTION} if no placement agrees with the line
+     */
+    @Override
+    public int solve(byte[] line, int length, Clue clue) {
+        if (length == 0) {
+            return clue.size() == 0 ? 0 : CONTRADICTION;
+        }
+        if (length <= WORD_LENGTH) {
+            return solveWord(line, length, clue);
+        }
+        return solveWide(line, length, clue);
+    }
+
+    /**
+     * Solves a line of up to {@link #WORD_LENGTH} squares, each mask held in a long.
+     */
+    private int solveWord(byte[] line, int length, Clue clue) {
+        int blocks = clue.size();
+        if (forward.length < blocks + 1) {
+            forward = new long[blocks + 1];
+            reversed = new long[blocks + 1];
+        }
+        long squares = (1L << length) - 1;
+        long filled = 0;
+        long crossed = 0;
+        long reversedFilled = 0;
+        long reversedCrossed = 0;
+        for (int i = 0; i < length; i++) {
+            if (line[i] == Square.FILLED) {
+                filled |= 1L << i;
+                reversedFilled |= 1L << (length - 1 - i);
+            } else if (line[i] == Square.CROSS) {
+                crossed |= 1L << i;
+                reversedCrossed |= 1L << (length - 1 - i);
+            }
+        }
+        if (!prefixes(filled, crossed, length, clue, forward)
+                || !prefixes(reversedFilled, reversedCrossed, length, clue.reverse(), reversed)) {
+            return CONTRADICTION;
+        }
+
+        long notFilled = ~filled & squares;
+        long covered = 0;
+        long uncovered = 0;
+        for (int j = 0; j <= blocks; j++) {
+            // the blocks from j onwards fit in the squares from i onwards
+            long suffixes = mirror(reversed[blocks - j], length);
+            // square i can lie between block j - 1 and block j
+            uncovered |= forward[j] & (suffixes >>> 1);
+            if (j == 0) {
+                continue;
+            }
+            int blockLength = clue.get(j - 1);
+            long starts = (j == 1 ? forward[0] : (forward[j - 1] & notFilled) << 1) & fits(crossed, blockLength, length);
+            // the square after the block is not filled and the next blocks fit after it, or the block ends the line
+            long ends = ((suffixes >>> 1) & notFilled) | (suffixes & 1L << length);
+            covered |= smear(starts & (ends >>> blockLength), blockLength) & squares;
+        }
+        uncovered &= notFilled;
+
+        long empty = ~(filled | crossed) & squares;
+        long fill = empty & covered & ~uncovered;
+        long cross = empty & uncovered & ~covered;
+        for (long bits = fill; bits != 0; bits &= bits - 1) {
+            line[Long.numberOfTrailingZeros(bits)] = Square.FILLED;
+        }
+        for (long bits = cross; bits != 0; bits &= bits - 1) {
+            line[Long.numberOfTrailingZeros(bits)] = Square.CROSS;
+        }
+        return Long.bitCount(fill) + Long.bitCount(cross);
+    }
+
+    /**
+     * Computes the prefix masks of a line of up to {@link #WORD_LENGTH} squares.
+     *
+     * @param filled the mask of the filled squares
+     * @param crossed the mask of the crossed squares
+     * @param length the number of squares
+     * @param clue the clue of the line
+     * @param masks receives at index j the prefixes that can hold the first j blocks
+     * @return false if the whole line cannot hold the clue
+     */
+    static boolean prefixes(long filled, long crossed, int length, Clue clue, long[] masks) {
+        long notFilled = ~filled & ((1L << length) - 1);
+        long positions = length == 63 ? -1L : (1L << (length + 1)) - 1;
+        // prefix i + 1 extends prefix i when square i is not filled
+        long extensible = notFilled << 1;
+        masks[0] = extend(1L, extensible);
+        for (int j = 1; j <= clue.size(); j++) {
+            int blockLength = clue.get(j - 1);
+            long starts = (j == 1 ? masks[0] : (masks[j - 1] & notFilled) << 1) & fits(crossed, blockLength, length);
+            long ends = blockLength > length ? 0 : (starts << blockLength) & positions;
+            masks[j] = extend(ends, extensible);
+        }
+        return (masks[clue.size()] >>> length & 1) != 0;
+    }
+
+    /**
+     * Returns the squares where a block of the given length can start without covering a cross or leaving the line.
+     */
+    static long fits(long crossed, int blockLength, int length) {
+        if (blockLength > length) {
+            return 0;
+        }
+        // bit s of window is set if a cross lies between s and s + blockLength - 1
+        long window = crossed;
+        int covered = 1;
+        while (covered * 2 <= blockLength) {
+            window |= window >>> covered;
+            covered *= 2;
+        }
+        if (covered < blockLength) {
+            window |= window >>> (blockLength - covered);
+        }
+        return ~window & ((1L << (length - blockLength + 1)) - 1);
+    }
+
+    /**
+     * Extends the given prefixes through the stretches of the allowed bits above them.
+     * Within a stretch of ones, the addition of its lowest seed carries up to the end of the stretch
+     * and clears every bit it passes.
+     *
+     * @param seeds the prefixes to extend
+     * @param allowed the bits a prefix can be extended to
+     * @return the seeds and every allowed bit reached from them
+     */
+    static long extend(long seeds, long allowed) {
+        long stretches = allowed | seeds;
+        return (stretches & ~(stretches + seeds)) | seeds;
+    }
+
+    /**
+     * Sets the squares covered by a block of the given length starting at each bit.
+     */
+    static long smear(long starts, int blockLength) {
+        long covered = starts;
+        int width = 1;
+        while (width * 2 <= blockLength) {
+            covered |= covered << width;
+            width *= 2;
+        }
+        if (width < blockLength) {
+            covered |= covered << (blockLength - width);
+        }
+        return covered;
+    }
+
+    /**
+     * Maps each prefix i of the reversed line to the suffix starting at square length - i.
+     */
+    static long mirror(long mask, int length) {
+        return Long.reverse(mask) >>> (63 - length);
+    }
+
+    /**
+     * Solves a line longer than {@link #WORD_LENGTH} squares, each mask held in an array of longs.
+     */
+    private int solveWide(byte[] line, int length, Clue clue) {
+        int blocks = clue.size();
+        int words = (length + 1 + 63) / 64;
+        if (wideForward.length < (blocks + 1) * words) {
+            wideForward = new long[(blocks + 1) * words];
+            wideReversed = new long[(blocks + 1) * words];
+        }
+        if (scratch.length < 10 || scratch[0].length < words) {
+            scratch = new long[10][words];
+        }
+        long[] filled = scratch[0];
+        long[] crossed = scratch[1];
+        long[] reversedFilled = scratch[2];
+        long[] reversedCrossed = scratch[3];
+        long[] notFilled = scratch[4];
+        long[] covered = scratch[5];
+        long[] uncovered = scratch[6];
+        long[] suffixes = scratch[7];
+        long[] starts = scratch[8];
+        long[] temp = scratch[9];
+        for (int w = 0; w < words; w++) {
+            filled[w] = crossed[w] = reversedFilled[w] = reversedCrossed[w] = 0;
+            covered[w] = uncovered[w] = 0;
+        }
+        for (int i = 0; i < length; i++) {
+            int mirrored = length - 1 - i;
+            if (line[i] == Square.FILLED) {
+                filled[i >>> 6] |= 1L << i;
+                reversedFilled[mirrored >>> 6] |= 1L << mirrored;
+            } else if (line[i] == Square.CROSS) {
+                crossed[i >>> 6] |= 1L << i;
+                reversedCrossed[mirrored >>> 6] |= 1L << mirrored;
+            }
+        }
+        if (!widePrefixes(filled, crossed, length, words, clue, wideForward)
+                || !widePrefixes(reversedFilled, reversedCrossed, length, words, clue.reverse(), wideReversed)) {
+            return CONTRADICTION;
+        }
+
+        notFilled(filled, length, words, notFilled);
+        for (int j = 0; j <= blocks; j++) {
+            mirror(wideReversed, (blocks - j) * words, length, words, suffixes);
+            // square i can lie between block j - 1 and block j
+            shiftRight(suffixes, 1, words, temp);
+            for (int w = 0; w < words; w++) {
+                uncovered[w] |= wideForward[j * words + w] & temp[w];
+            }
+            if (j == 0) {
+                continue;
+            }
+            int blockLength = clue.get(j - 1);
+            blockStarts(wideForward, j, notFilled, crossed, blockLength, length, words, starts, temp);
+            // the square after the block is not filled and the next blocks fit after it, or the block ends the line
+            shiftRight(suffixes, 1, words, temp);
+            for (int w = 0; w < words; w++) {
+                temp[w] &= notFilled[w];
+            }
+            temp[length >>> 6] |= suffixes[length >>> 6] & 1L << length;
+            shiftRight(temp, blockLength, words, temp);
+            for (int w = 0; w < words; w++) {
+                starts[w] &= temp[w];
+            }
+            wideSmear(starts, blockLength, words, temp);
+            for (int w = 0; w < words; w++) {
+                covered[w] |= starts[w];
+            }
+        }
+
+        int changed = 0;
+        for (int i = 0; i < length; i++) {
+            if (line[i] != Square.EMPTY) {
+                continue;
+            }
+            boolean isCovered = (covered[i >>> 6] >>> i & 1) != 0;
+            boolean isUncovered = ((uncovered[i >>> 6] & notFilled[i >>> 6]) >>> i & 1) != 0;
+            if (isCovered && !isUncovered) {
+                line[i] = Square.FILLED;
+                changed++;
+            } else if (isUncovered && !isCovered) {
+                line[i] = Square.CROSS;
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Computes the prefix masks of a line longer than a word, each stored as words longs from index j * words.
+     *
+     * @return false if the whole line cannot hold the clue
+     */
+    private boolean widePrefixes(long[] filled, long[] crossed, int length, int words, Clue clue, long[] masks) {
+        long[] notFilled = scratch[4];
+        long[] extensible = scratch[7];
+        long[] starts = scratch[8];
+        long[] temp = scratch[9];
+        notFilled(filled, length, words, notFilled);
+        shiftLeft(notFilled, 1, words, extensible);
+        Arrays.fill(starts, 0, words, 0);
+        starts[0] = 1L;
+        wideExtend(starts, extensible, words, masks, 0);
+        for (int j = 1; j <= clue.size(); j++) {
+            int blockLength = clue.get(j - 1);
+            blockStarts(masks, j, notFilled, crossed, blockLength, length, words, starts, temp);
+            shiftLeft(starts, blockLength, words, starts);
+            // keep the prefixes within the line
+            int last = length >>> 6;
+            starts[last] &= (length & 63) == 63 ? -1L : (1L << ((length & 63) + 1)) - 1;
+            for (int w = last + 1; w < words; w++) {
+                starts[w] = 0;
+            }
+            wideExtend(starts, extensible, words, masks, j * words);
+        }
+        int last = clue.size() * words + (length >>> 6);
+        return (masks[last] >>> length & 1) != 0;
+    }
+
+    /**
+     * Computes in starts the squares where block j can start after the first j - 1 blocks, without covering a cross.
+     */
+    private static void blockStarts(long[] masks, int j, long[] notFilled, long[] crossed, int blockLength, int length,
+                                    int words, long[] starts, long[] temp) {
+        if (j == 1) {
+            System.arraycopy(masks, 0, starts, 0, words);
+        } else {
+            for (int w = 0; w < words; w++) {
+                starts[w] = masks[(j - 1) * words + w] & notFilled[w];
+            }
+            shiftLeft(starts, 1, words, starts);
+        }
+        if (blockLength > length) {
+            Arrays.fill(starts, 0, words, 0);
+            return;
+        }
+        // bit s of temp is set if a cross lies between s and s + blockLength - 1
+        System.arraycopy(crossed, 0, temp, 0, words);
+        int covered = 1;
+        while (covered * 2 <= blockLength) {
+            orShiftedRight(temp, covered, words);
+            covered *= 2;
+        }
+        if (covered < blockLength) {
+            orShiftedRight(temp, blockLength - covered, words);
+        }
+        int lastStart = length - blockLength;
+        for (int w = 0; w < words; w++) {
+            long valid;
+            if (w < lastStart >>> 6) {
+                valid = -1L;
+            } else if (w == lastStart >>> 6) {
+                valid = (lastStart & 63) == 63 ? -1L : (1L << ((lastStart & 63) + 1)) - 1;
+            } else {
+                valid = 0;
+            }
+            starts[w] &= ~temp[w] & valid;
+        }
+    }
+
+    /**
+     * Sets the squares of the line that are not filled.
+     */
+    private static void notFilled(long[] filled, int length, int words, long[] notFilled) {
+        for (int w = 0; w < words; w++) {
+            int bits = Math.clamp(length - w * 64L, 0, 64);
+            notFilled[w] = ~filled[w] & (bits == 64 ? -1L : (1L << bits) - 1);
+        }
+    }
+
+    /**
+     * Multi-word {@link #extend}, storing the result at the given offset of masks.
+     */
+    private static void wideExtend(long[] seeds, long[] allowed, int words, long[] masks, int offset) {
+        long carry = 0;
+        for (int w = 0; w < words; w++) {
+            long stretches = allowed[w] | seeds[w];
+            long sum = stretches + seeds[w];
+            long nextCarry = Long.compareUnsigned(sum, stretches) < 0 ? 1 : 0;
+            long withCarry = sum + carry;
+            if (withCarry == 0 && carry != 0) {
+                nextCarry = 1;
+            }
+            masks[offset + w] = (stretches & ~withCarry) | seeds[w];
+            carry = nextCarry;
+        }
+    }
+
+    /**
+     * Multi-word {@link #smear}, in place.
+     */
+    private static void wideSmear(long[] starts, int blockLength, int words, long[] temp) {
+        int width = 1;
+        while (width * 2 <= blockLength) {
+            orShiftedLeft(starts, width, words, temp);
+            width *= 2;
+        }
+        if (width < blockLength) {
+            orShiftedLeft(starts, blockLength - width, words, temp);
+        }
+    }
+
+    /**
+     * Multi-word {@link #mirror} of the mask at the given offset.
+     */
+    private static void mirror(long[] masks, int offset, int length, int words, long[] mirrored) {
+        for (int w = 0; w < words; w++) {
+            mirrored[w] = Long.reverse(masks[offset + words - 1 - w]);
+        }
+        shiftRight(mirrored, words * 64 - 1 - length, words, mirrored);
+    }
+
+    private static void orShiftedRight(long[] bits, int shift, int words) {
+        int wordShift = shift >>> 6;
+        int bitShift = shift & 63;
+        for (int w = 0; w < words; w++) {
+            int source = w + wordShift;
+            long value = source < words ? bits[source] >>> bitShift : 0;
+            if (bitShift != 0 && source + 1 < words) {
+                value |= bits[source + 1] << (64 - bitShift);
+            }
+            bits[w] |= value;
+        }
+    }
+
+    private static void orShiftedLeft(long[] bits, int shift, int words, long[] temp) {
+        shiftLeft(bits, shift, words, temp);
+        for (int w = 0; w < words; w++) {
+            bits[w] |= temp[w];
+        }
+    }
+
+    /**
+     * Shifts the bits towards the higher indexes, source and target may be the same array.
+     */
+    static void shiftLeft(long[] source, int shift, int words, long[] target) {
+        int wordShift = shift >>> 6;
+        int bitShift = shift & 63;
+        for (int w = words - 1; w >= 0; w--) {
+            int from = w - wordShift;
+            long value = from >= 0 ? source[from] << bitShift : 0;
+            if (bitShift != 0 && from - 1 >= 0) {
+                value |= source[from - 1] >>> (64 - bitShift);
+            }
+            target[w] = value;
+        }
+    }
+
+    /**
+     * Shifts the bits towards the lower indexes, source and target may be the same array.
+     */
+    static void shiftRight(long[] source, int shift, int words, long[] target) {
+        int wordShift = shift >>> 6;
+        int bitShift = shift & 63;
+        for (int w = 0; w < words; w++) {
+            int from = w + wordShift;
+            long value = from < words ? source[from] >>> bitShift : 0;
+            if (bitShift != 0 && from + 1 < words) {
+                value |= source[from + 1] << (64 - bitShift);
+            }
+            target[w] = value;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package nonogram.solver;
+
+import nonogram.generator.Board;
+import nonogram.generator.Line;
+import nonogram.generator.Square;
+
+import javax.swing.Timer;
+
+/**
+ * Replays on a displayed board the changes a solver makes to its own copy, at the pace of the display.
+ * <p>
+ * A Swing timer drains a bounded number of changes from the {@link SquareEvents} on each frame and applies them
+ * to the displayed board, on the event dispatch thread, so the displayed board is never written by the solver.
+ * When the solver outran the stream and changes were dropped, the frame copies the whole solved board instead.
+ * The timer stops once the solver is done and every change was shown.
+ * <p>
+ * The copy relies on the solver deciding each square at most once, as propagation does:
+ * a square read while the solver writes it is either still empty or already final.
+ *
+ * @author agueguen-LR
+ */
+class BoardAnimator {
+
+    /**
+     * The time between two frames, in milliseconds.
+     */
+    static final int FRAME_MILLIS = 16;
+
+    /**
+     * The board displayed, only changed on the event dispatch thread.
+     */
+    private final Board display;
+
+    /**
+     * The board being solved by the solver thread.
+     */
+    private final Board solving;
+
+    /**
+     * The changes made to the solving board.
+     */
+    private final SquareEvents events;
+
+    /**
+     * The largest number of changes shown per frame.
+     */
+    private final int changesPerFrame;
+
+    /**
+     * The number of columns of the boards.
+     */
+    private final int dimensionX;
+
+    /**
+     * The timer running the frames, null until started.
+     */
+    private Timer timer;
+
+    /**
+     * Constructs an animator showing the changes of a solving board on a displayed board.
+     *
+     * @param display the board displayed, with the same dimensions as the solving board
+     * @param solving the board being solved, publishing its changes to events
+     * @param events the changes made to the solving board
+     * @param changesPerFrame the largest number of changes shown per frame
+     */
+    BoardAnimator(Board display, Board solving, SquareEvents events, int changesPerFrame) {
+        this.display = display;
+        this.solving = solving;
+        this.events = events;
+        this.changesPerFrame = changesPerFrame;
+        this.dimensionX = display.getDimensions()[0];
+    }
+
+    /**
+     * Starts showing the changes. Must be called on the event dispatch thread.
+     */
+    void start() {
+        timer = new Timer(FRAME_MILLIS, e -> frame());
+        timer.start();
+    }
+
+    /**
+     * Shows the changes of one frame, and stops the timer once every change was shown.
+     *
+     * @return true if the displayed board is up to date with the finished solver
+     */
+    boolean frame() {
+        if (events.takeOverflow()) {
+            copySolvingBoard();
+        } else {
+            events.drain(changesPerFrame, this::apply);
+        }
+        display.repaintChangedSquares();
+        boolean finished = events.isFinished();
+        if (finished && timer != null) {
+            timer.stop();
+        }
+        return finished;
+    }
+
+    /**
+     * Applies a single change to the displayed board.
+     */
+    private void apply(int cell, byte state) {
+        int x = cell % dimensionX;
+        int y = cell / dimensionX;
+        switch (state) {
+            case Square.FILLED -> display.fillSquare(x, y);
+            case Square.CROSS -> display.crossSquare(x, y);
+            default -> display.clearSquare(x, y);
+        }
+    }
+
+    /**
+     * Copies every square of the solving board to the displayed board.
+     */
+    private void copySolvingBoard() {
+        int[] dimensions = solving.getDimensions();
+        for (int y = 0; y < dimensions[1]; y++) {
+            Line row = solving.getRow(y);
+            for (int x = 0; x < dimensions[0]; x++) {
+                apply(y * dimensionX + x, row.getState(x));
+            }
+        }
+    }
+}
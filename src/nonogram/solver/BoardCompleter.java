@@ -2,15 +2,22 @@ package nonogram.solver;
 
 import nonogram.generator.Board;
 import nonogram.generator.Clue;
+import nonogram.generator.Line;
 import nonogram.generator.Square;
 
 import javax.swing.*;
 import java.awt.*;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
 
 public class BoardCompleter {
 
+    /**
+     * The number of square changes the solver may get ahead of the display before they are dropped.
+     */
+    private static final int EVENT_CAPACITY = 1 << 16;
+
     /**
      * The board on which the Nonogram puzzle is being solved.
      */
@@ -26,19 +33,141 @@ public class BoardCompleter {
      */
     private final ArrayList<Clue> vertClues;
 
+    /**
+     * The engine solving each line, reused for every line.
+     */
+    private final LineSolverEngine engine;
+
+    /**
+     * The rows and columns waiting to be solved again.
+     */
+    private final LineQueue queue;
+
+    /**
+     * Buffer holding the states of the line being solved, as long as the longest line of the board.
+     */
+    private final byte[] lineBuffer;
+
+    /**
+     * The number of columns of the board.
+     */
+    private final int dimensionX;
+
+    /**
+     * Every square changed since the trail was last reset, as y * dimensionX + x, in the order they changed.
+     * Used by {@link BoardSearcher} to undo the consequences of a guess without copying the board.
+     */
+    private int[] trail = new int[64];
+
+    /**
+     * The number of squares in the trail.
+     */
+    private int trailSize = 0;
+
+    /**
+     * Whether a line was found to contradict its clue since the last solve or undo.
+     */
+    private boolean contradiction = false;
+
+    /**
+     * The metrics receiving the line solves and passes, null if none.
+     */
+    private SolverMetrics metrics;
+
+    /**
+     * The stream receiving every square changed by propagation, null if nothing displays the board.
+     */
+    private SquareEvents events;
+
     /**
      * Constructs a new {@code Solver} instance with the specified board and
      * initializes the horizontal and vertical clues.
      *
+     * Lines are solved with {@link CompleteLineSolver}, so a CONTRADICTION status means the board has no solution.
+     *
      * @param board the {@code Board} object representing the Nonogram puzzle to be solved
      */
     public BoardCompleter(Board board) {
+        this(board, new CompleteLineSolver());
+    }
+
+    /**
+     * Constructs a new {@code Solver} instance with the specified board and line solving engine.
+     *
+     * With the heuristics of {@link LineSolver}, which can deduce wrong squares, a CONTRADICTION status only means
+     * the heuristics failed on the board, not that the board has no solution.
+     *
+     * @param board the {@code Board} object representing the Nonogram puzzle to be solved
+     * @param engine the engine used to solve each line, such as {@link CompleteLineSolver} or {@link LineSolver}
+     */
+    public BoardCompleter(Board board, LineSolverEngine engine) {
         this.board = board;
+        this.engine = engine;
         this.horizClues = board.getHorizontalClues();
         this.vertClues = board.getVerticalClues();
+        int[] dimensions = board.getDimensions();
+        this.queue = new LineQueue(dimensions[0], dimensions[1]);
+        this.lineBuffer = new byte[Math.max(dimensions[0], dimensions[1])];
+        this.dimensionX = dimensions[0];
+    }
+
+    /**
+     * Solves as much of the board as possible without any Swing dependency or delay.
+     * Lines are solved again only when one of their squares changed, until the board reaches its fixpoint,
+     * or until a line is found to contradict its clue, which stops the solve at once.
+     *
+     * @return a {@code SolveResult} describing the final state of the board, the number of passes and the elapsed time
+     * @throws CancellationException if the thread is interrupted, the board is left partially solved
+     */
+    public SolveResult solve() {
+        long start = System.nanoTime();
+        trailSize = 0;
+        contradiction = false;
+        queue.markAll();
+        int passes = propagate();
+        return new SolveResult(getStatus(), passes, System.nanoTime() - start);
     }
 
-    public void BeginSolving(int speed) throws InterruptedException{
+    /**
+     * Sets the metrics receiving the line solves, the progress they make and the time spent per pass and per line length.
+     * The squares deduced by each rule are recorded by the engine, see {@link LineSolver#setMetrics}.
+     *
+     * @param metrics the metrics, null to stop recording
+     */
+    public void setMetrics(SolverMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the stream receiving every square changed by propagation, so another thread can follow the solve.
+     * Guesses made by the search are not published.
+     *
+     * @param events the stream, null to stop publishing
+     */
+    void setEvents(SquareEvents events) {
+        this.events = events;
+    }
+
+    /**
+     * Solves the board while displaying it in a new window.
+     * The solver runs at full speed on a copy of the board and publishes every square it changes to a bounded
+     * {@link SquareEvents} stream. A {@link BoardAnimator} shows those changes on the displayed board from the
+     * event dispatch thread, a few per frame; if the solver gets too far ahead, the changes that don't fit in the
+     * stream are dropped and the display catches up by copying the whole board.
+     *
+     * @param speed the number of milliseconds per square shown, the display shows at least one square per frame,
+     * and 0 shows every pending change on each frame
+     * @return a {@code SolveResult} describing the final state of the copy solved
+     * @throws CancellationException if the thread is interrupted
+     */
+    public SolveResult BeginSolving(int speed) {
+        Board solving = copyOf(board);
+        SquareEvents stream = new SquareEvents(EVENT_CAPACITY);
+        BoardCompleter completer = new BoardCompleter(solving, engine);
+        completer.setEvents(stream);
+        int changesPerFrame = speed <= 0 ? Integer.MAX_VALUE : Math.max(1, BoardAnimator.FRAME_MILLIS / speed);
+        BoardAnimator animator = new BoardAnimator(board, solving, stream, changesPerFrame);
+
         var frame = new JFrame("Nonogram Board");
         SwingUtilities.invokeLater(() -> {
             board.setBackground(Color.BLUE.darker());
@@ -46,57 +175,310 @@ public class BoardCompleter {
             frame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
             frame.getContentPane().add(board, BorderLayout.CENTER);
             frame.setVisible(true);
+            animator.start();
         });
-        fillBoard(frame, speed);
+        try {
+            return completer.solve();
+        } finally {
+            stream.close();
+        }
     }
 
     /**
-     * Slows down the advancement of the solver by the specified delay.
-     * This method also triggers the revalidation and repainting of the JFrame.
+     * Fills the board until its fixpoint is reached, without display or delay.
+     * Every row and column starts dirty, each pass solves the dirty rows then the dirty columns,
+     * and a line becomes dirty again only when one of its squares changes.
      *
-     * @param frame the JFrame displaying the Nonogram board
-     * @param delay the delay in milliseconds between each step
-     * @throws InterruptedException if the thread is interrupted during the delay
+     * @return true if the fixpoint was reached, false if a line was found to contradict its clue
+     * @throws CancellationException if the thread is interrupted, the board is left partially solved
      */
-    private void slowProgression(JFrame frame, int delay) throws InterruptedException{
-        Thread.sleep(delay);
-        SwingUtilities.invokeLater(() -> {
-            frame.revalidate();
-            frame.repaint();
-        });
+    public boolean fillBoard() {
+        contradiction = false;
+        queue.markAll();
+        propagate();
+        return !contradiction;
     }
 
-    public void fillBoard(JFrame frame, int delay) throws InterruptedException {
-        int[] dimensions = board.getDimensions();
+    /**
+     * Solves the dirty lines until the fixpoint is reached. As soon as a line contradicts its clue,
+     * the remaining dirty lines are dropped and {@link #getStatus()} reports the contradiction.
+     *
+     * @return the number of passes made over the dirty lines, including the one cut short by a contradiction
+     * @throws CancellationException if the thread is interrupted between two passes, the board is left partially solved
+     */
+    int propagate() {
+        return propagate(Integer.MAX_VALUE);
+    }
 
-        int loop = 0;
-        while(loop < 20) {
-            //for all rows
-            for (int i = 0; i < dimensions[0]; i++) {
-                ArrayList<Square> row = board.getRow(i);
-                drawNewStates(frame, delay, i, row, horizClues);
+    /**
+     * Solves the dirty lines for at most the given number of passes. Lines still dirty after the last pass
+     * are left in the queue, so the squares deduced are sound but the fixpoint may not be reached.
+     *
+     * @param maxPasses the largest number of passes made
+     * @return the number of passes made over the dirty lines, including the one cut short by a contradiction
+     * @throws CancellationException if the thread is interrupted between two passes, the board is left partially solved
+     */
+    int propagate(int maxPasses) {
+        int passes = 0;
+        while (!queue.isEmpty() && passes < maxPasses) {
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Solving was interrupted");
+            }
+            long passStart = metrics != null ? System.nanoTime() : 0;
+            //for all dirty rows
+            for (int count = queue.rowCount(); count > 0 && !contradiction; count--) {
+                int y = queue.pollRow();
+                drawNewStates(y, true);
             }
 
-            //for all columns
-            for (int i = 0; i < dimensions[1]; i++) {
-                ArrayList<Square> column = board.getColumn(i);
-                drawNewStates(frame, delay, i, column, vertClues);
+            //for all dirty columns, including those dirtied by the rows above
+            for (int count = queue.columnCount(); count > 0 && !contradiction; count--) {
+                int x = queue.pollColumn();
+                drawNewStates(x, false);
+            }
+            passes++;
+            if (contradiction) {
+                queue.clear();
+            }
+            if (metrics != null) {
+                metrics.recordPass(System.nanoTime() - passStart);
             }
-            loop++;
         }
+        return passes;
     }
 
-    private void drawNewStates(JFrame frame, int delay, int clueIndex, ArrayList<Square> line, ArrayList<Clue> clues) throws InterruptedException {
-        LineSolver solver = new LineSolver();
-        HashMap<Integer, Boolean> newSquareStates = solver.getNewSquareStates(line, clues.get(clueIndex));
-        for (int squareIndex : newSquareStates.keySet()) {
-            if (newSquareStates.get(squareIndex)) {
-                line.get(squareIndex).fill();
+    /**
+     * Solves a single line and applies the new states to the board.
+     * Every changed square marks the line crossing it as dirty. Unless the engine is complete, the solved line
+     * itself is marked dirty too, since the heuristics of some engines may deduce more from their own results.
+     * Every changed square is also published to the event stream, if any.
+     * A line contradicting its clue is left unchanged and flags the contradiction.
+     *
+     * @param index the row or column number
+     * @param isRow true if the line is a row, false if it is a column
+     */
+    private void drawNewStates(int index, boolean isRow) {
+        Line line = isRow ? board.getRow(index) : board.getColumn(index);
+        Clue clue = isRow ? horizClues.get(index) : vertClues.get(index);
+
+        line.copyStates(lineBuffer);
+        int changed = solveLine(line.size(), clue);
+        if (changed == LineSolverEngine.CONTRADICTION) {
+            contradiction = true;
+            return;
+        }
+        if (changed == 0) {
+            return;
+        }
+        for (int squareIndex = 0; squareIndex < line.size(); squareIndex++) {
+            byte newState = lineBuffer[squareIndex];
+            if (newState == line.getState(squareIndex)) {
+                continue;
+            }
+            if (newState == Square.FILLED) {
+                line.fill(squareIndex);
             }
             else {
-                line.get(squareIndex).cross();
+                line.cross(squareIndex);
+            }
+            int cell = isRow ? index * dimensionX + squareIndex : squareIndex * dimensionX + index;
+            record(cell);
+            if (events != null) {
+                events.publish(cell, newState);
+            }
+            if (isRow) {
+                queue.markColumn(squareIndex);
+            } else {
+                queue.markRow(squareIndex);
+            }
+        }
+        if (engine.isComplete()) {
+            return;
+        }
+        if (isRow) {
+            queue.markRow(index);
+        } else {
+            queue.markColumn(index);
+        }
+    }
+
+    /**
+     * Solves the line held in the line buffer, recording it in the metrics if any.
+     *
+     * @param length the number of squares in the line
+     * @param clue the clue for the line
+     * @return the number of squares whose state changed, or {@link LineSolverEngine#CONTRADICTION}
+     */
+    private int solveLine(int length, Clue clue) {
+        if (metrics == null) {
+            return engine.solve(lineBuffer, length, clue);
+        }
+        long start = System.nanoTime();
+        int changed = engine.solve(lineBuffer, length, clue);
+        metrics.recordLineSolve(length, Math.max(changed, 0), System.nanoTime() - start);
+        return changed;
+    }
+
+    /**
+     * Sets the state of a square as a guess, records it in the trail and marks its row and column as dirty.
+     *
+     * @param x the column number
+     * @param y the row number
+     * @param filled true to fill the square, false to cross it
+     */
+    void setSquare(int x, int y, boolean filled) {
+        if (filled) {
+            board.fillSquare(x, y);
+        } else {
+            board.crossSquare(x, y);
+        }
+        record(y * dimensionX + x);
+        queue.markRow(y);
+        queue.markColumn(x);
+    }
+
+    /**
+     * Returns the number of squares changed since the trail was last reset.
+     * @return the current size of the trail, to be given back to {@link #undo(int)}
+     */
+    int getTrailSize() {
+        return trailSize;
+    }
+
+    /**
+     * Returns a square of the trail.
+     * @param index the position in the trail, below {@link #getTrailSize()}
+     * @return the square, as y * dimensionX + x
+     */
+    int getTrailSquare(int index) {
+        return trail[index];
+    }
+
+    /**
+     * Checks whether a line was found to contradict its clue since the last solve or undo,
+     * without looking at the rest of the board like {@link #getStatus()} does.
+     * @return true if the last propagation stopped on a contradiction
+     */
+    boolean hasContradiction() {
+        return contradiction;
+    }
+
+    /**
+     * Empties every square changed since the trail had the given size, and forgets any dirty line.
+     * @param mark a size previously returned by {@link #getTrailSize()}
+     */
+    void undo(int mark) {
+        while (trailSize > mark) {
+            trailSize--;
+            board.clearSquare(trail[trailSize] % dimensionX, trail[trailSize] / dimensionX);
+        }
+        queue.clear();
+        contradiction = false;
+    }
+
+    /**
+     * Adds a changed square to the trail.
+     * @param cell the square, as y * dimensionX + x
+     */
+    private void record(int cell) {
+        if (trailSize == trail.length) {
+            trail = Arrays.copyOf(trail, trailSize * 2);
+        }
+        trail[trailSize++] = cell;
+    }
+
+    /**
+     * Determines the status of the board from the last propagation and the current state of its squares.
+     *
+     * @return CONTRADICTION if the last propagation found a line contradicting its clue, without looking at the board,
+     * otherwise SOLVED if every square is decided and every line matches its clue,
+     * CONTRADICTION if a fully decided line does not match its clue, STUCK otherwise
+     */
+    SolveResult.Status getStatus() {
+        if (contradiction) {
+            return SolveResult.Status.CONTRADICTION;
+        }
+        return statusOf(board);
+    }
+
+    /**
+     * Determines the status of a board from the current state of its squares.
+     *
+     * @param board the board to check
+     * @return SOLVED if every square is decided and every line matches its clue,
+     * CONTRADICTION if a fully decided line does not match its clue, STUCK otherwise
+     */
+    static SolveResult.Status statusOf(Board board) {
+        ArrayList<Clue> horizClues = board.getHorizontalClues();
+        ArrayList<Clue> vertClues = board.getVerticalClues();
+        int[] dimensions = board.getDimensions();
+        boolean complete = true;
+        for (int i = 0; i < dimensions[1]; i++) {
+            SolveResult.Status status = lineStatus(board.getRow(i), horizClues.get(i));
+            if (status == SolveResult.Status.CONTRADICTION) {
+                return status;
+            }
+            complete &= status == SolveResult.Status.SOLVED;
+        }
+        for (int i = 0; i < dimensions[0]; i++) {
+            SolveResult.Status status = lineStatus(board.getColumn(i), vertClues.get(i));
+            if (status == SolveResult.Status.CONTRADICTION) {
+                return status;
+            }
+            complete &= status == SolveResult.Status.SOLVED;
+        }
+        return complete ? SolveResult.Status.SOLVED : SolveResult.Status.STUCK;
+    }
+
+    /**
+     * Copies the states of a board into a new board sharing its clues, for solvers that must leave a board unchanged.
+     *
+     * @param board the board to copy
+     * @return the copy
+     */
+    static Board copyOf(Board board) {
+        int[] dimensions = board.getDimensions();
+        Board copy = new Board(dimensions[0], dimensions[1], board.getHorizontalClues(), board.getVerticalClues());
+        for (int y = 0; y < dimensions[1]; y++) {
+            Line row = board.getRow(y);
+            Line copyRow = copy.getRow(y);
+            for (int x = 0; x < dimensions[0]; x++) {
+                if (row.isFilled(x)) {
+                    copyRow.fill(x);
+                } else if (row.isCrossed(x)) {
+                    copyRow.cross(x);
+                }
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Determines the status of a single line.
+     *
+     * @param line the line to check
+     * @param clue the clue for the line
+     * @return SOLVED if the line is decided and matches its clue, CONTRADICTION if it is decided and doesn't, STUCK otherwise
+     */
+    private static SolveResult.Status lineStatus(Line line, Clue clue) {
+        int clueIndex = 0;
+        int run = 0;
+        for (int i = 0; i <= line.size(); i++) {
+            byte state = i < line.size() ? line.getState(i) : Square.CROSS;
+            if (state == Square.EMPTY) {
+                return SolveResult.Status.STUCK;
+            }
+            if (state == Square.FILLED) {
+                run++;
+            } else if (run > 0) {
+                if (clueIndex == clue.size() || run != clue.get(clueIndex)) {
+                    return SolveResult.Status.CONTRADICTION;
+                }
+                clueIndex++;
+                run = 0;
             }
-            slowProgression(frame, delay);
         }
+        return clueIndex == clue.size() ? SolveResult.Status.SOLVED : SolveResult.Status.CONTRADICTION;
     }
 }
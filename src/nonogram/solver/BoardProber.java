@@ -0,0 +1,404 @@
+package nonogram.solver;
+
+import nonogram.generator.Board;
+import nonogram.generator.Line;
+import nonogram.generator.Square;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * BoardProber deduces the squares line logic alone misses, before {@link BoardSearcher} has to guess.
+ * <p>
+ * Once {@link BoardCompleter} reaches its fixpoint, each empty square is probed: it is filled and propagated for
+ * a few passes, then crossed and propagated the same way. A square whose two outcomes agree on another square
+ * decides that square, and a probe that contradicts the clues decides the probed square the other way.
+ * Both are sound, so unlike a guess they are never undone. The squares decided are committed to the board and
+ * propagated to the fixpoint, then every empty square is probed again, until a round decides nothing.
+ * <p>
+ * The probes of a round only read the board, so they run in parallel on a {@link ForkJoinPool}: the squares are
+ * split in ranges, each probed on its own copy of the board with its own engine, and idle workers steal the ranges
+ * left. A range commits the squares it decides to its own copy right away, so its next probes start from more
+ * decided squares. The squares are probed in order of the fewest empty squares in their row and column,
+ * then of the most decided neighbours, where a probe most often reaches a contradiction.
+ *
+ * @author agueguen-LR
+ */
+public class BoardProber {
+
+    /**
+     * The number of passes each probe propagates for.
+     */
+    static final int PROBE_PASSES = 8;
+
+    /**
+     * The largest number of squares probed by a task before it is split.
+     */
+    private static final int SQUARES_PER_TASK = 32;
+
+    /**
+     * The board being solved.
+     */
+    private final Board board;
+
+    /**
+     * The engine of each worker thread, created on first use.
+     */
+    private final ThreadLocal<LineSolverEngine> engines;
+
+    /**
+     * The pool running the probes.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The number of passes each probe propagates for.
+     */
+    private final int probePasses;
+
+    /**
+     * The number of columns of the board.
+     */
+    private final int dimensionX;
+
+    /**
+     * The number of rows of the board.
+     */
+    private final int dimensionY;
+
+    /**
+     * The number of squares probed during the last call to {@link #probe()}.
+     */
+    private final AtomicInteger probes = new AtomicInteger();
+
+    /**
+     * The number of squares decided by probing during the last call to {@link #probe()}.
+     */
+    private int decided = 0;
+
+    /**
+     * The value of {@link System#nanoTime()} after which the current call to {@link #probe(long)} stops probing.
+     */
+    private long deadline;
+
+    /**
+     * Constructs a prober solving its lines with {@link BitLineSolver}.
+     *
+     * @param board the board to solve
+     * @param pool the pool running the probes, such as {@link ForkJoinPool#commonPool()}
+     */
+    public BoardProber(Board board, ForkJoinPool pool) {
+        this(board, BitLineSolver::new, pool, PROBE_PASSES);
+    }
+
+    /**
+     * Constructs a prober solving its lines with the given engines.
+     *
+     * @param board the board to solve
+     * @param engineFactory creates the engine of each worker thread, such as {@code CompleteLineSolver::new}
+     * @param pool the pool running the probes, such as {@link ForkJoinPool#commonPool()}
+     * @param probePasses the number of passes each probe propagates for
+     */
+    public BoardProber(Board board, Supplier<LineSolverEngine> engineFactory, ForkJoinPool pool, int probePasses) {
+        if (probePasses < 1) {
+            throw new IllegalArgumentException("Probes must propagate for at least one pass: " + probePasses);
+        }
+        this.board = board;
+        this.engines = ThreadLocal.withInitial(engineFactory);
+        this.pool = pool;
+        this.probePasses = probePasses;
+        int[] dimensions = board.getDimensions();
+        this.dimensionX = dimensions[0];
+        this.dimensionY = dimensions[1];
+    }
+
+    /**
+     * Solves the board with line logic, then probes its empty squares until a round decides nothing.
+     * The board is left with every square line logic and probing decided.
+     *
+     * @return a {@code SolveResult} with status SOLVED, CONTRADICTION if probing proved the clues have no solution,
+     * or STUCK if a search is still needed, the number of passes on the board itself and the elapsed time
+     * @throws CancellationException if the thread is interrupted, the board is left partially solved
+     */
+    public SolveResult probe() {
+        return probe(System.nanoTime() + Long.MAX_VALUE / 2);
+    }
+
+    /**
+     * Solves the board with line logic, then probes its empty squares until a round decides nothing
+     * or the deadline passes. The probes stop as soon as the deadline passes, and the squares they decided
+     * so far are still committed, so the board is left with every square decided in time.
+     *
+     * @param deadline the value of {@link System#nanoTime()} after which probing stops
+     * @return a {@code SolveResult} with status SOLVED, CONTRADICTION if probing proved the clues have no solution,
+     * or STUCK if a search is still needed or the deadline passed, the number of passes on the board itself
+     * and the elapsed time
+     * @throws CancellationException if the thread is interrupted, the board is left partially solved
+     */
+    public SolveResult probe(long deadline) {
+        long start = System.nanoTime();
+        this.deadline = deadline;
+        probes.set(0);
+        decided = 0;
+        BoardCompleter completer = new BoardCompleter(board, engines.get());
+        SolveResult initial = completer.solve();
+        int passes = initial.getPasses();
+        SolveResult.Status status = initial.getStatus();
+
+        while (status == SolveResult.Status.STUCK && System.nanoTime() - deadline < 0) {
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Probing was interrupted");
+            }
+            int[] squares = orderSquares();
+            Deductions deductions = pool.invoke(new ProbeTask(squares, 0, squares.length));
+            if (deductions.contradiction) {
+                status = SolveResult.Status.CONTRADICTION;
+                break;
+            }
+            if (deductions.size == 0) {
+                break;
+            }
+            for (int i = 0; i < deductions.size && status == SolveResult.Status.STUCK; i++) {
+                int square = deductions.squares[i] >>> 1;
+                boolean filled = (deductions.squares[i] & 1) != 0;
+                byte state = board.getRow(square / dimensionX).getState(square % dimensionX);
+                if (state == Square.EMPTY) {
+                    completer.setSquare(square % dimensionX, square / dimensionX, filled);
+                    decided++;
+                } else if ((state == Square.FILLED) != filled) {
+                    // two ranges deduced opposite states, each one soundly, so there is no solution
+                    status = SolveResult.Status.CONTRADICTION;
+                }
+            }
+            if (status == SolveResult.Status.STUCK) {
+                passes += completer.propagate();
+                status = completer.getStatus();
+            }
+        }
+        return new SolveResult(status, passes, System.nanoTime() - start);
+    }
+
+    /**
+     * Returns the number of squares probed during the last call to {@link #probe()}, each probe trying both states.
+     *
+     * @return the number of probes
+     */
+    public int getProbes() {
+        return probes.get();
+    }
+
+    /**
+     * Returns the number of squares decided by probing during the last call to {@link #probe()},
+     * not counting the squares propagation deduced from them.
+     *
+     * @return the number of squares decided by probing
+     */
+    public int getDecidedSquares() {
+        return decided;
+    }
+
+    /**
+     * Orders the empty squares of the board, those in the most constrained lines and with the most decided
+     * neighbours first.
+     *
+     * @return the empty squares, as y * dimensionX + x
+     */
+    int[] orderSquares() {
+        int[] emptyInRow = new int[dimensionY];
+        int[] emptyInColumn = new int[dimensionX];
+        int count = 0;
+        for (int y = 0; y < dimensionY; y++) {
+            Line row = board.getRow(y);
+            for (int x = 0; x < dimensionX; x++) {
+                if (row.isEmpty(x)) {
+                    emptyInRow[y]++;
+                    emptyInColumn[x]++;
+                    count++;
+                }
+            }
+        }
+
+        // the key of each square in the upper half, the square in the lower half
+        long[] keys = new long[count];
+        count = 0;
+        for (int y = 0; y < dimensionY; y++) {
+            Line row = board.getRow(y);
+            for (int x = 0; x < dimensionX; x++) {
+                if (!row.isEmpty(x)) {
+                    continue;
+                }
+                int neighbours = (x > 0 && !row.isEmpty(x - 1) ? 1 : 0)
+                        + (x < dimensionX - 1 && !row.isEmpty(x + 1) ? 1 : 0)
+                        + (y > 0 && !board.getRow(y - 1).isEmpty(x) ? 1 : 0)
+                        + (y < dimensionY - 1 && !board.getRow(y + 1).isEmpty(x) ? 1 : 0);
+                long key = (long) (emptyInRow[y] + emptyInColumn[x]) * 8 - neighbours;
+                keys[count++] = key << 32 | (y * dimensionX + x);
+            }
+        }
+        Arrays.sort(keys);
+        int[] squares = new int[count];
+        for (int i = 0; i < count; i++) {
+            squares[i] = (int) keys[i];
+        }
+        return squares;
+    }
+
+    /**
+     * The squares decided by a range of probes, each as square << 1 | 1 if filled and square << 1 if crossed.
+     */
+    private static final class Deductions {
+
+        private int[] squares = new int[16];
+        private int size = 0;
+
+        /**
+         * Whether both states of a square contradict the clues, in which case the board has no solution.
+         */
+        private boolean contradiction = false;
+
+        void add(int square, boolean filled) {
+            if (size == squares.length) {
+                squares = Arrays.copyOf(squares, size * 2);
+            }
+            squares[size++] = square << 1 | (filled ? 1 : 0);
+        }
+
+        Deductions merge(Deductions other) {
+            contradiction |= other.contradiction;
+            for (int i = 0; i < other.size; i++) {
+                if (size == squares.length) {
+                    squares = Arrays.copyOf(squares, size * 2);
+                }
+                squares[size++] = other.squares[i];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Probes a range of squares, splitting it in halves while it is larger than {@link #SQUARES_PER_TASK}.
+     */
+    private final class ProbeTask extends RecursiveTask<Deductions> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int[] squares;
+        private final int from;
+        private final int to;
+
+        private ProbeTask(int[] squares, int from, int to) {
+            this.squares = squares;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Deductions compute() {
+            if (to - from > SQUARES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                ProbeTask first = new ProbeTask(squares, from, middle);
+                first.fork();
+                Deductions second = new ProbeTask(squares, middle, to).compute();
+                return first.join().merge(second);
+            }
+            return probeRange();
+        }
+
+        /**
+         * Probes every square of the range on a copy of the board, committing each deduction to the copy.
+         */
+        private Deductions probeRange() {
+            Deductions deductions = new Deductions();
+            if (System.nanoTime() - deadline >= 0) {
+                return deductions;
+            }
+            Board copy = BoardCompleter.copyOf(board);
+            BoardCompleter completer = new BoardCompleter(copy, engines.get());
+            // the state of each square after the filled probe, EMPTY if the probe did not change it
+            byte[] filledOutcome = new byte[dimensionX * dimensionY];
+            int[] common = new int[16];
+
+            for (int i = from; i < to && !deductions.contradiction && System.nanoTime() - deadline < 0; i++) {
+                int square = squares[i];
+                int x = square % dimensionX;
+                int y = square / dimensionX;
+                if (!copy.getRow(y).isEmpty(x)) {
+                    continue;
+                }
+                probes.incrementAndGet();
+                int mark = completer.getTrailSize();
+
+                completer.setSquare(x, y, true);
+                completer.propagate(probePasses);
+                boolean filledContradicts = completer.hasContradiction();
+                int[] filledSquares = new int[completer.getTrailSize() - mark];
+                for (int t = 0; t < filledSquares.length; t++) {
+                    filledSquares[t] = completer.getTrailSquare(mark + t);
+                    filledOutcome[filledSquares[t]] = stateOf(copy, filledSquares[t]);
+                }
+                completer.undo(mark);
+
+                completer.setSquare(x, y, false);
+                completer.propagate(probePasses);
+                boolean crossedContradicts = completer.hasContradiction();
+                int commonCount = 0;
+                if (!filledContradicts && !crossedContradicts) {
+                    for (int t = mark + 1; t < completer.getTrailSize(); t++) {
+                        int changed = completer.getTrailSquare(t);
+                        if (filledOutcome[changed] == stateOf(copy, changed)) {
+                            if (commonCount == common.length) {
+                                common = Arrays.copyOf(common, commonCount * 2);
+                            }
+                            common[commonCount++] = changed << 1 | (stateOf(copy, changed) == Square.FILLED ? 1 : 0);
+                        }
+                    }
+                }
+                completer.undo(mark);
+                for (int changed : filledSquares) {
+                    filledOutcome[changed] = Square.EMPTY;
+                }
+
+                if (filledContradicts && crossedContradicts) {
+                    deductions.contradiction = true;
+                    break;
+                }
+                if (filledContradicts || crossedContradicts) {
+                    commit(completer, deductions, square, crossedContradicts);
+                } else {
+                    for (int c = 0; c < commonCount; c++) {
+                        commit(completer, deductions, common[c] >>> 1, (common[c] & 1) != 0);
+                    }
+                }
+                if (completer.getTrailSize() > mark) {
+                    // propagate the squares committed by this probe together
+                    completer.propagate();
+                    deductions.contradiction = completer.hasContradiction();
+                }
+            }
+            return deductions;
+        }
+
+        /**
+         * Commits a deduction to the copy of the board, to be propagated with the other deductions of its probe.
+         * The squares deduced by a probe were all empty before it, so none of them is decided yet.
+         */
+        private void commit(BoardCompleter completer, Deductions deductions, int square, boolean filled) {
+            deductions.add(square, filled);
+            completer.setSquare(square % dimensionX, square / dimensionX, filled);
+        }
+    }
+
+    /**
+     * Returns the state of a square of a board.
+     */
+    private byte stateOf(Board board, int square) {
+        return board.getRow(square / dimensionX).getState(square % dimensionX);
+    }
+}
@@ -0,0 +1,296 @@
+package nonogram.solver;
+
+import nonogram.generator.Board;
+import nonogram.generator.Line;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BoardSearcher completes the boards that line logic alone leaves stuck.
+ * Once {@link BoardCompleter} reaches its fixpoint, the searcher guesses the state of an empty square,
+ * propagates the guess through the lines, and backtracks when the board turns out to contradict its clues.
+ * <p>
+ * The square guessed is taken from the line with the fewest empty squares, where a wrong guess is found the fastest.
+ * Each guess is first tried filled, then crossed. Backtracking empties the squares recorded in the trail of the
+ * {@link BoardCompleter} since the guess, so the board is never copied.
+ * <p>
+ * With probing enabled, the squares {@link BoardProber} can decide are decided before the first guess,
+ * which leaves far fewer squares to guess on hard boards.
+ *
+ * @author agueguen-LR
+ */
+public class BoardSearcher {
+
+    /**
+     * The board being solved.
+     */
+    private final Board board;
+
+    /**
+     * The completer propagating each guess, and recording the squares it changes.
+     */
+    private final BoardCompleter completer;
+
+    /**
+     * The number of columns of the board.
+     */
+    private final int dimensionX;
+
+    /**
+     * The number of rows of the board.
+     */
+    private final int dimensionY;
+
+    /**
+     * The number of empty squares in each row, recounted before each guess.
+     */
+    private final int[] emptyInRow;
+
+    /**
+     * The number of empty squares in each column, recounted before each guess.
+     */
+    private final int[] emptyInColumn;
+
+    /**
+     * For each guess on the stack, the square guessed as y * dimensionX + x.
+     */
+    private int[] guessedSquares = new int[16];
+
+    /**
+     * For each guess on the stack, the size of the trail before the guess.
+     */
+    private int[] trailMarks = new int[16];
+
+    /**
+     * For each guess on the stack, whether the crossed alternative is being tried.
+     */
+    private boolean[] crossTried = new boolean[16];
+
+    /**
+     * The pool probing the board before the first guess, null if the board is not probed.
+     */
+    private ForkJoinPool probingPool;
+
+    /**
+     * The number of guesses on the stack.
+     */
+    private int depth = 0;
+
+    /**
+     * The number of guesses made during the last search.
+     */
+    private int branches = 0;
+
+    /**
+     * The largest number of simultaneous guesses during the last search.
+     */
+    private int maxDepth = 0;
+
+    /**
+     * Constructs a searcher using the complete line solver to propagate guesses.
+     *
+     * @param board the board to solve
+     */
+    public BoardSearcher(Board board) {
+        this(board, new CompleteLineSolver());
+    }
+
+    /**
+     * Constructs a searcher using the given engine to propagate guesses.
+     *
+     * @param board the board to solve
+     * @param engine the engine used to solve each line
+     */
+    public BoardSearcher(Board board, LineSolverEngine engine) {
+        this.board = board;
+        this.completer = new BoardCompleter(board, engine);
+        int[] dimensions = board.getDimensions();
+        this.dimensionX = dimensions[0];
+        this.dimensionY = dimensions[1];
+        this.emptyInRow = new int[dimensionY];
+        this.emptyInColumn = new int[dimensionX];
+    }
+
+    /**
+     * Enables probing the board with a {@link BoardProber} once line logic gets stuck, before the first guess.
+     *
+     * @param pool the pool running the probes, null to guess right after line logic
+     */
+    public void setProbing(ForkJoinPool pool) {
+        this.probingPool = pool;
+    }
+
+    /**
+     * Solves the board completely, guessing whenever line logic gets stuck.
+     * On success the board holds a solution, otherwise it is left as line logic alone leaves it.
+     *
+     * @return a {@code SolveResult} with status SOLVED, or CONTRADICTION if the clues have no solution,
+     * the total number of propagation passes and the elapsed time
+     * @throws java.util.concurrent.CancellationException if the thread is interrupted, the board is left partially solved
+     */
+    public SolveResult solve() {
+        long start = System.nanoTime();
+        depth = 0;
+        branches = 0;
+        maxDepth = 0;
+
+        SolveResult initial = completer.solve();
+        int passes = initial.getPasses();
+        SolveResult.Status status = initial.getStatus();
+        if (status == SolveResult.Status.STUCK && probingPool != null) {
+            SolveResult probed = new BoardProber(board, probingPool).probe();
+            passes += probed.getPasses();
+            status = probed.getStatus();
+        }
+
+        while (status != SolveResult.Status.SOLVED) {
+            if (status == SolveResult.Status.STUCK) {
+                int square = chooseSquare();
+                push(square);
+                completer.setSquare(square % dimensionX, square / dimensionX, true);
+            } else if (!backtrack()) {
+                return new SolveResult(SolveResult.Status.CONTRADICTION, passes, System.nanoTime() - start);
+            }
+            passes += completer.propagate();
+            status = completer.getStatus();
+        }
+        return new SolveResult(status, passes, System.nanoTime() - start);
+    }
+
+    /**
+     * Explores every branch of the board, counting its solutions instead of stopping at the first one.
+     * Used by {@link SolutionCounter}, which shares the count between the searchers of several boards.
+     * The board is left in an unspecified state.
+     *
+     * @param found the number of solutions found so far, incremented for each solution of this board
+     * @param limit the search stops as soon as found reaches it
+     * @param deadline the value of {@link System#nanoTime()} after which the search stops
+     * @return true if every branch of the board was explored, false if the search stopped early
+     * @throws java.util.concurrent.CancellationException if the thread is interrupted
+     */
+    boolean countSolutions(AtomicInteger found, int limit, long deadline) {
+        depth = 0;
+        branches = 0;
+        maxDepth = 0;
+
+        SolveResult.Status status = completer.solve().getStatus();
+        while (true) {
+            if (found.get() >= limit || System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            if (status == SolveResult.Status.STUCK) {
+                int square = chooseSquare();
+                push(square);
+                completer.setSquare(square % dimensionX, square / dimensionX, true);
+            } else {
+                if (status == SolveResult.Status.SOLVED && found.incrementAndGet() >= limit) {
+                    return false;
+                }
+                if (!backtrack()) {
+                    return true;
+                }
+            }
+            completer.propagate();
+            status = completer.getStatus();
+        }
+    }
+
+    /**
+     * Returns the number of guesses made during the last search.
+     *
+     * @return the number of branches explored
+     */
+    public int getBranches() {
+        return branches;
+    }
+
+    /**
+     * Returns the largest number of simultaneous guesses during the last search.
+     *
+     * @return the maximum depth of the search
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Undoes guesses until one can be switched to its crossed alternative, then crosses it.
+     *
+     * @return false if every alternative has been tried, true otherwise
+     */
+    private boolean backtrack() {
+        while (depth > 0) {
+            int top = depth - 1;
+            completer.undo(trailMarks[top]);
+            if (!crossTried[top]) {
+                crossTried[top] = true;
+                branches++;
+                completer.setSquare(guessedSquares[top] % dimensionX, guessedSquares[top] / dimensionX, false);
+                return true;
+            }
+            depth--;
+        }
+        return false;
+    }
+
+    /**
+     * Adds a guess to the stack.
+     *
+     * @param square the square guessed, as y * dimensionX + x
+     */
+    private void push(int square) {
+        if (depth == guessedSquares.length) {
+            guessedSquares = Arrays.copyOf(guessedSquares, depth * 2);
+            trailMarks = Arrays.copyOf(trailMarks, depth * 2);
+            crossTried = Arrays.copyOf(crossTried, depth * 2);
+        }
+        guessedSquares[depth] = square;
+        trailMarks[depth] = completer.getTrailSize();
+        crossTried[depth] = false;
+        depth++;
+        branches++;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    /**
+     * Chooses the most constrained empty square: an empty square of the line with the fewest empty squares,
+     * preferring the one whose crossing line also has the fewest empty squares.
+     *
+     * @return the square, as y * dimensionX + x, or -1 if no square is empty
+     */
+    int chooseSquare() {
+        Arrays.fill(emptyInRow, 0);
+        Arrays.fill(emptyInColumn, 0);
+        for (int y = 0; y < dimensionY; y++) {
+            Line row = board.getRow(y);
+            for (int x = 0; x < dimensionX; x++) {
+                if (row.isEmpty(x)) {
+                    emptyInRow[y]++;
+                    emptyInColumn[x]++;
+                }
+            }
+        }
+
+        int best = -1;
+        int bestLine = Integer.MAX_VALUE;
+        int bestCrossing = Integer.MAX_VALUE;
+        for (int y = 0; y < dimensionY; y++) {
+            Line row = board.getRow(y);
+            for (int x = 0; x < dimensionX; x++) {
+                if (!row.isEmpty(x)) {
+                    continue;
+                }
+                int line = Math.min(emptyInRow[y], emptyInColumn[x]);
+                int crossing = Math.max(emptyInRow[y], emptyInColumn[x]);
+                if (line < bestLine || (line == bestLine && crossing < bestCrossing)) {
+                    best = y * dimensionX + x;
+                    bestLine = line;
+                    bestCrossing = crossing;
+                }
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,263 @@
+package nonogram.solver;
+
+import nonogram.generator.Clue;
+import nonogram.generator.Square;
+
+
+/**
+ * CompleteLineSolver deduces every square of a line that can be deduced from the line and its clue alone.
+ * A square is filled if it is covered by a block in every placement of the clue that agrees with the line,
+ * and crossed if it is covered by a block in none of them.
+ * <p>
+ * The placements are never enumerated: a forward table records which prefixes of the line can hold the first blocks
+ * of the clue, a backward table which suffixes can hold the last ones, and a block can start at a square
+ * exactly when a prefix and a suffix around it are both possible. This settles the whole line in O(n·k)
+ * time for a line of n squares and a clue of k numbers. The tables are reused between calls.
+ *
+ * @see LineSolver
+ *
+ * @author agueguen-LR
+ */
+public class CompleteLineSolver implements LineSolverEngine {
+
+    /**
+     * The values of the clue being solved.
+     */
+    private int[] clue = new int[0];
+
+    /**
+     * The number of crossed squares before each index of the line.
+     */
+    private int[] crossedBefore = new int[0];
+
+    /**
+     * The number of filled squares before each index of the line.
+     */
+    private int[] filledBefore = new int[0];
+
+    /**
+     * forward[j*(n+2)+i] is true if the first j blocks can be placed in the first i squares.
+     */
+    private boolean[] forward = new boolean[0];
+
+    /**
+     * backward[j*(n+2)+i] is true if the blocks from j onwards can be placed in the squares from i onwards.
+     */
+    private boolean[] backward = new boolean[0];
+
+    /**
+     * Difference array counting the possible blocks covering each square.
+     */
+    private int[] blockCoverage = new int[0];
+
+    /**
+     * Whether each square can be left out of every block.
+     */
+    private boolean[] canBeCrossed = new boolean[0];
+
+    public CompleteLineSolver() {}
+
+    /**
+     * Returns true, every square that can be deduced is deduced in a single call.
+     *
+     * @return true
+     */
+    @Override
+    public boolean isComplete() {
+        return true;
+    }
+
+    /**
+     * Solves every square of the line that is the same in all placements of the clue.
+     * If the line cannot satisfy its clue at all, nothing is deduced and the contradiction is reported.
+     *
+     * @param line the states of the squares of the line, updated in place
+     * @param length the number of squares in the line
+     * @param clue the clue for the line
+     * @return the number of squares whose state changed, or {@link #CONTRADICTION} if no placement agrees with the line
+     */
+    @Override
+    public int solve(byte[] line, int length, Clue clue) {
+        int clueSize = loadClue(clue);
+        ensureCapacity(length, clueSize);
+        int width = length + 2;
+
+        for (int i = 0; i < length; i++) {
+            crossedBefore[i + 1] = crossedBefore[i] + (line[i] == Square.CROSS ? 1 : 0);
+            filledBefore[i + 1] = filledBefore[i] + (line[i] == Square.FILLED ? 1 : 0);
+        }
+
+        fillForward(line, length, clueSize, width);
+        if (!forward[clueSize * width + length]) {
+            return CONTRADICTION;
+        }
+        fillBackward(line, length, clueSize, width);
+
+        // squares that can be covered by some block
+        for (int i = 0; i <= length; i++) {
+            blockCoverage[i] = 0;
+        }
+        for (int j = 0; j < clueSize; j++) {
+            int blockLength = this.clue[j];
+            for (int start = 0; start + blockLength <= length; start++) {
+                if (canStartBlock(line, length, clueSize, width, j, start)) {
+                    blockCoverage[start]++;
+                    blockCoverage[start + blockLength]--;
+                }
+            }
+        }
+
+        // squares that can be left between two blocks
+        for (int i = 0; i < length; i++) {
+            canBeCrossed[i] = false;
+            if (line[i] == Square.FILLED) {
+                continue;
+            }
+            for (int j = 0; j <= clueSize; j++) {
+                if (forward[j * width + i] && backward[j * width + i + 1]) {
+                    canBeCrossed[i] = true;
+                    break;
+                }
+            }
+        }
+
+        int changed = 0;
+        int coverage = 0;
+        for (int i = 0; i < length; i++) {
+            coverage += blockCoverage[i];
+            if (line[i] != Square.EMPTY) {
+                continue;
+            }
+            if (coverage > 0 && !canBeCrossed[i]) {
+                line[i] = Square.FILLED;
+                changed++;
+            } else if (coverage == 0 && canBeCrossed[i]) {
+                line[i] = Square.CROSS;
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Computes which prefixes of the line can hold the first blocks of the clue.
+     */
+    private void fillForward(byte[] line, int length, int clueSize, int width) {
+        for (int i = 0; i <= length; i++) {
+            forward[i] = filledBefore[i] == 0;
+        }
+        for (int j = 1; j <= clueSize; j++) {
+            int blockLength = clue[j - 1];
+            int row = j * width;
+            forward[row] = false;
+            for (int i = 1; i <= length; i++) {
+                // square i-1 is left empty
+                boolean possible = line[i - 1] != Square.FILLED && forward[row + i - 1];
+                // or the block j-1 ends on square i-1
+                int start = i - blockLength;
+                if (!possible && start >= 0 && noCross(start, i)) {
+                    if (j == 1) {
+                        possible = forward[start];
+                    } else {
+                        possible = start >= 1 && line[start - 1] != Square.FILLED && forward[row - width + start - 1];
+                    }
+                }
+                forward[row + i] = possible;
+            }
+        }
+    }
+
+    /**
+     * Computes which suffixes of the line can hold the last blocks of the clue.
+     */
+    private void fillBackward(byte[] line, int length, int clueSize, int width) {
+        int lastRow = clueSize * width;
+        for (int i = 0; i <= length; i++) {
+            backward[lastRow + i] = filledBefore[length] - filledBefore[i] == 0;
+        }
+        backward[lastRow + length + 1] = true;
+        for (int j = clueSize - 1; j >= 0; j--) {
+            int blockLength = clue[j];
+            int row = j * width;
+            backward[row + length] = false;
+            backward[row + length + 1] = false;
+            for (int i = length - 1; i >= 0; i--) {
+                // square i is left empty
+                boolean possible = line[i] != Square.FILLED && backward[row + i + 1];
+                // or the block j starts on square i
+                int end = i + blockLength;
+                if (!possible && end <= length && noCross(i, end)) {
+                    if (j == clueSize - 1) {
+                        possible = backward[lastRow + end];
+                    } else {
+                        possible = end < length && line[end] != Square.FILLED && backward[row + width + end + 1];
+                    }
+                }
+                backward[row + i] = possible;
+            }
+        }
+    }
+
+    /**
+     * Checks if block j can start on the given square in a placement that agrees with the whole line.
+     */
+    private boolean canStartBlock(byte[] line, int length, int clueSize, int width, int j, int start) {
+        int end = start + clue[j];
+        if (!noCross(start, end)) {
+            return false;
+        }
+        boolean before;
+        if (j == 0) {
+            before = forward[start];
+        } else {
+            before = start >= 1 && line[start - 1] != Square.FILLED && forward[j * width + start - 1];
+        }
+        if (!before) {
+            return false;
+        }
+        if (j == clueSize - 1) {
+            return backward[clueSize * width + end];
+        }
+        return end < length && line[end] != Square.FILLED && backward[(j + 1) * width + end + 1];
+    }
+
+    /**
+     * Checks that no square between start (inclusive) and end (exclusive) is crossed.
+     */
+    private boolean noCross(int start, int end) {
+        return crossedBefore[end] - crossedBefore[start] == 0;
+    }
+
+    /**
+     * Copies the values of a clue into the clue buffer.
+     * @param clue the clue
+     * @return the number of values in the clue
+     */
+    private int loadClue(Clue clue) {
+        int clueSize = clue.size();
+        if (this.clue.length < clueSize) {
+            this.clue = new int[clueSize];
+        }
+        for (int i = 0; i < clueSize; i++) {
+            this.clue[i] = clue.get(i);
+        }
+        return clueSize;
+    }
+
+    /**
+     * Grows the buffers so that they can hold a line of the given length and clue size.
+     */
+    private void ensureCapacity(int length, int clueSize) {
+        if (crossedBefore.length < length + 1) {
+            crossedBefore = new int[length + 1];
+            filledBefore = new int[length + 1];
+            blockCoverage = new int[length + 1];
+            canBeCrossed = new boolean[length];
+        }
+        int tableSize = (clueSize + 1) * (length + 2);
+        if (forward.length < tableSize) {
+            forward = new boolean[tableSize];
+            backward = new boolean[tableSize];
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package nonogram.solver;
+
+/**
+ * Represents how hard a board was to solve, as measured by {@link DifficultyRater}.
+ * Holds the trace of the solve, the number of squares deduced at each level of reasoning, the passes,
+ * the guesses and their depth, and the score computed from them.
+ *
+ * @author agueguen-LR
+ */
+public class Difficulty {
+
+    /**
+     * The final status of the board, STUCK if the search ran out of time.
+     */
+    private final SolveResult.Status status;
+
+    /**
+     * The number of squares deduced by each rule of {@link LineSolver}, by ordinal of {@link SolverMetrics.Rule}.
+     */
+    private final long[] ruleSquares;
+
+    /**
+     * The number of squares deduced by {@link CompleteLineSolver} once the rules were stuck.
+     */
+    private final long lineLogicSquares;
+
+    /**
+     * The number of squares left to the search.
+     */
+    private final long searchSquares;
+
+    /**
+     * The number of propagation passes, with the rules then with complete line logic.
+     */
+    private final int passes;
+
+    /**
+     * The number of guesses made by the search.
+     */
+    private final int branches;
+
+    /**
+     * The largest number of simultaneous guesses.
+     */
+    private final int maxDepth;
+
+    /**
+     * The score of the board.
+     */
+    private final double score;
+
+    /**
+     * The time taken by the rating, in nanoseconds.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a new Difficulty.
+     *
+     * @param status the final status of the board
+     * @param ruleSquares the number of squares deduced by each rule, by ordinal of {@link SolverMetrics.Rule}
+     * @param lineLogicSquares the number of squares deduced by complete line logic
+     * @param searchSquares the number of squares left to the search
+     * @param passes the number of propagation passes
+     * @param branches the number of guesses made by the search
+     * @param maxDepth the largest number of simultaneous guesses
+     * @param score the score of the board
+     * @param elapsedNanos the time taken by the rating, in nanoseconds
+     */
+    public Difficulty(SolveResult.Status status, long[] ruleSquares, long lineLogicSquares, long searchSquares,
+                      int passes, int branches, int maxDepth, double score, long elapsedNanos) {
+        this.status = status;
+        this.ruleSquares = ruleSquares.clone();
+        this.lineLogicSquares = lineLogicSquares;
+        this.searchSquares = searchSquares;
+        this.passes = passes;
+        this.branches = branches;
+        this.maxDepth = maxDepth;
+        this.score = score;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the final status of the board.
+     *
+     * @return SOLVED, CONTRADICTION if the board has no solution, or STUCK if the search ran out of time
+     */
+    public SolveResult.Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the number of squares deduced by a rule of {@link LineSolver}.
+     *
+     * @param rule the rule
+     * @return the number of squares
+     */
+    public long getRuleSquares(SolverMetrics.Rule rule) {
+        return ruleSquares[rule.ordinal()];
+    }
+
+    /**
+     * Returns the number of squares deduced by complete line logic once the rules of {@link LineSolver} were stuck.
+     *
+     * @return the number of squares
+     */
+    public long getLineLogicSquares() {
+        return lineLogicSquares;
+    }
+
+    /**
+     * Returns the number of squares left undecided by line logic, and decided by the search.
+     *
+     * @return the number of squares
+     */
+    public long getSearchSquares() {
+        return searchSquares;
+    }
+
+    /**
+     * Returns the number of propagation passes.
+     *
+     * @return the number of passes
+     */
+    public int getPasses() {
+        return passes;
+    }
+
+    /**
+     * Returns the number of guesses made by the search.
+     *
+     * @return the number of branches, 0 if line logic solved the board
+     */
+    public int getBranches() {
+        return branches;
+    }
+
+    /**
+     * Returns the largest number of simultaneous guesses.
+     *
+     * @return the maximum depth of the search
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Checks if the board can be solved by line logic alone, without guessing.
+     *
+     * @return true if the board was solved without search
+     */
+    public boolean isLineSolvable() {
+        return status == SolveResult.Status.SOLVED && branches == 0;
+    }
+
+    /**
+     * Returns the score of the board, see {@link DifficultyRater} for how it is computed.
+     *
+     * @return the score, higher for harder boards
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the time taken by the rating.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns a string representation of the Difficulty object.
+     *
+     * @return the string representation of the Difficulty object
+     */
+    @Override
+    public String toString() {
+        return "Difficulty{" + "status=" + status + ", score=" + score
+                + ", crossPlacer=" + ruleSquares[SolverMetrics.Rule.CROSS_PLACER.ordinal()]
+                + ", spaceFiller=" + ruleSquares[SolverMetrics.Rule.SPACE_FILLER.ordinal()]
+                + ", edgeExtender=" + ruleSquares[SolverMetrics.Rule.EDGE_EXTENDER.ordinal()]
+                + ", lineLogic=" + lineLogicSquares + ", search=" + searchSquares + ", passes=" + passes
+                + ", branches=" + branches + ", maxDepth=" + maxDepth + '}';
+    }
+}
@@ -0,0 +1,214 @@
+package nonogram.solver;
+
+import nonogram.generator.Board;
+import nonogram.generator.Clue;
+import nonogram.generator.Line;
+import nonogram.generator.Square;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DifficultyRater scores how hard a board is for a human, from the trace of a solve that reasons
+ * the way a human would: the simple rules first, deeper line logic only when they are stuck, and guessing last.
+ * <ol>
+ *     <li>the rules of {@link LineSolver} run to their fixpoint, recording through {@link SolverMetrics}
+ *     the squares each rule deduces; the rules can deduce wrong squares, so each line is also solved by
+ *     {@link CompleteLineSolver} and only the squares both agree on are kept and credited to their rule</li>
+ *     <li>{@link CompleteLineSolver} carries on from there, deducing what the rules missed</li>
+ *     <li>{@link BoardSearcher} guesses the remaining squares, within a time budget</li>
+ * </ol>
+ * The score is the average weight of a square, weighted by how it was deduced, plus the cost of the passes and guesses:
+ * <pre>
+ * score = (1 * crossPlacer + 1 * spaceFiller + 2 * edgeExtender + 4 * lineLogic + 8 * search) / squares
+ *       + 0.1 * passes + 1 * maxDepth + 0.5 * log2(1 + branches)
+ * </pre>
+ * A board solved by the rules alone scores between 1 and 2 plus its passes, and any guessing puts a board above
+ * every board that needs none of the same size. The board given is never modified.
+ * <p>
+ * The rater reuses its engines and metrics between boards, so an instance should only be used by one thread at a time.
+ *
+ * @author agueguen-LR
+ */
+public class DifficultyRater {
+
+    /**
+     * The weight of a square deduced by each rule, by ordinal of {@link SolverMetrics.Rule}.
+     */
+    private static final double[] RULE_WEIGHTS = {1, 1, 2};
+
+    /**
+     * The weight of a square deduced by complete line logic.
+     */
+    private static final double LINE_LOGIC_WEIGHT = 4;
+
+    /**
+     * The weight of a square decided by the search.
+     */
+    private static final double SEARCH_WEIGHT = 8;
+
+    /**
+     * The cost of a propagation pass.
+     */
+    private static final double PASS_WEIGHT = 0.1;
+
+    /**
+     * The cost of each level of simultaneous guesses.
+     */
+    private static final double DEPTH_WEIGHT = 1;
+
+    /**
+     * The cost of the guesses, per doubling of their number.
+     */
+    private static final double BRANCH_WEIGHT = 0.5;
+
+    /**
+     * The time budget of the search for each board, in nanoseconds.
+     */
+    private final long searchTimeoutNanos;
+
+    /**
+     * The rules, checked against complete line logic, reporting the squares they deduce to the metrics.
+     */
+    private final RuleEngine rules = new RuleEngine();
+
+    /**
+     * The complete line solver, used once the rules are stuck and by the search.
+     */
+    private final CompleteLineSolver lineLogic = new CompleteLineSolver();
+
+    /**
+     * The metrics recording the rules, reset for each board.
+     */
+    private final SolverMetrics metrics = new SolverMetrics();
+
+    /**
+     * Constructs a rater giving the search one second per board.
+     */
+    public DifficultyRater() {
+        this(1000);
+    }
+
+    /**
+     * Constructs a rater with the given time budget for the search of each board.
+     * A board whose search runs out of time is rated with status STUCK, as far as the search went.
+     *
+     * @param searchTimeoutMillis the time budget of the search for each board, in milliseconds
+     */
+    public DifficultyRater(long searchTimeoutMillis) {
+        this.searchTimeoutNanos = Math.min(TimeUnit.MILLISECONDS.toNanos(searchTimeoutMillis), Long.MAX_VALUE / 2);
+    }
+
+    /**
+     * Solves a copy of the board and rates it from the trace of the solve.
+     *
+     * @param board the board, left unchanged; its squares are taken as given, usually all empty
+     * @return the difficulty of the board
+     * @throws java.util.concurrent.CancellationException if the thread is interrupted
+     */
+    public Difficulty rate(Board board) {
+        long start = System.nanoTime();
+        Board copy = BoardCompleter.copyOf(board);
+        int[] dimensions = copy.getDimensions();
+        long squares = (long) dimensions[0] * dimensions[1];
+
+        metrics.reset();
+        BoardCompleter completer = new BoardCompleter(copy, rules);
+        completer.setMetrics(metrics);
+        SolveResult result = completer.solve();
+        SolveResult.Status status = result.getStatus();
+        int passes = result.getPasses();
+        SolverMetrics.Snapshot trace = metrics.snapshot();
+        long[] ruleSquares = new long[SolverMetrics.Rule.values().length];
+        for (SolverMetrics.Rule rule : SolverMetrics.Rule.values()) {
+            ruleSquares[rule.ordinal()] = trace.getRuleSquares(rule);
+        }
+
+        long lineLogicSquares = 0;
+        long searchSquares = 0;
+        int branches = 0;
+        int maxDepth = 0;
+        if (status == SolveResult.Status.STUCK) {
+            long before = countEmpty(copy);
+            result = new BoardCompleter(copy, lineLogic).solve();
+            status = result.getStatus();
+            passes += result.getPasses();
+            searchSquares = countEmpty(copy);
+            lineLogicSquares = before - searchSquares;
+        }
+        if (status == SolveResult.Status.STUCK) {
+            BoardSearcher searcher = new BoardSearcher(copy, lineLogic);
+            AtomicInteger found = new AtomicInteger();
+            boolean exhausted = searcher.countSolutions(found, 1, System.nanoTime() + searchTimeoutNanos);
+            if (found.get() > 0) {
+                status = SolveResult.Status.SOLVED;
+            } else if (exhausted) {
+                status = SolveResult.Status.CONTRADICTION;
+            }
+            branches = searcher.getBranches();
+            maxDepth = searcher.getMaxDepth();
+        }
+
+        double reasoning = LINE_LOGIC_WEIGHT * lineLogicSquares + SEARCH_WEIGHT * searchSquares;
+        for (int i = 0; i < ruleSquares.length; i++) {
+            reasoning += RULE_WEIGHTS[i] * ruleSquares[i];
+        }
+        double score = (squares == 0 ? 0 : reasoning / squares) + PASS_WEIGHT * passes + DEPTH_WEIGHT * maxDepth
+                + BRANCH_WEIGHT * Math.log1p(branches) / Math.log(2);
+        return new Difficulty(status, ruleSquares, lineLogicSquares, searchSquares, passes, branches, maxDepth, score,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Solves a line with the rules of {@link LineSolver}, keeping only the squares complete line logic also deduces.
+     * The rules are not sound on every line, a square they get wrong is left empty for the next layer.
+     */
+    private final class RuleEngine implements LineSolverEngine {
+
+        private final LineSolver ruleSolver = new LineSolver();
+        private byte[] ruleLine = new byte[0];
+        private byte[] completeLine = new byte[0];
+
+        @Override
+        public int solve(byte[] line, int length, Clue clue) {
+            if (ruleLine.length < length) {
+                ruleLine = new byte[length];
+                completeLine = new byte[length];
+            }
+            System.arraycopy(line, 0, completeLine, 0, length);
+            if (lineLogic.solve(completeLine, length, clue) == CONTRADICTION) {
+                return CONTRADICTION;
+            }
+            System.arraycopy(line, 0, ruleLine, 0, length);
+            if (ruleSolver.solve(ruleLine, length, clue) == CONTRADICTION) {
+                return 0;
+            }
+            int changed = 0;
+            for (int i = 0; i < length; i++) {
+                if (line[i] == Square.EMPTY && ruleLine[i] != Square.EMPTY && ruleLine[i] == completeLine[i]) {
+                    line[i] = ruleLine[i];
+                    metrics.recordRule(ruleSolver.getRule(i), 1);
+                    changed++;
+                }
+            }
+            return changed;
+        }
+    }
+
+    /**
+     * Counts the empty squares of a board.
+     */
+    private static long countEmpty(Board board) {
+        int[] dimensions = board.getDimensions();
+        long empty = 0;
+        for (int y = 0; y < dimensions[1]; y++) {
+            Line row = board.getRow(y);
+            for (int x = 0; x < dimensions[0]; x++) {
+                if (row.isEmpty(x)) {
+                    empty++;
+                }
+            }
+        }
+        return empty;
+    }
+}
@@ -0,0 +1,342 @@
+package nonogram.solver;
+
+import nonogram.generator.Clue;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of solved lines, shared by any number of engines and threads.
+ * <p>
+ * A line is looked up by its clue and the states of its squares before solving, packed two bits per square, and maps to
+ * the packed states after solving, or to a mark if the line contradicts its clue. Clues are compared by content, so
+ * identical rows of a board, the branches of a search and the puzzles of a batch all share their entries. The cache is
+ * split into segments, each one a {@link LinkedHashMap} in access order behind its own lock, evicting its least
+ * recently used line once it holds its share of the capacity.
+ * <p>
+ * The cache is used through the engines returned by {@link #engine(LineSolverEngine)}, one per thread:
+ * <pre>
+ * LineCache cache = new LineCache(1 &lt;&lt; 16);
+ * new BoardCompleter(board, cache.engine(new CompleteLineSolver()));
+ * new ParallelBoardCompleter(board, () -&gt; cache.engine(new CompleteLineSolver()), 4);
+ * </pre>
+ * The engines given to one cache must deduce the same states from the same line, so they should all be
+ * of the same kind. Unlike {@link LineMemo}, which only serves one thread and compares clues by identity,
+ * every lookup here takes a lock, so the cache pays off when lines are expensive to solve or shared between threads.
+ *
+ * @author agueguen-LR
+ */
+public class LineCache {
+
+    /**
+     * The number of segments of a cache large enough to be split.
+     */
+    private static final int SEGMENTS = 16;
+
+    /**
+     * The number of squares packed in a long.
+     */
+    private static final int SQUARES_PER_WORD = 32;
+
+    /**
+     * The solution cached for a line contradicting its clue.
+     */
+    private static final long[] CONTRADICTED = new long[0];
+
+    /**
+     * The segments, selected by the hash of the key.
+     */
+    private final Segment[] segments;
+
+    /**
+     * The mask turning a hash into the index of a segment.
+     */
+    private final int segmentMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs an empty cache holding up to about the given number of lines.
+     *
+     * @param capacity the largest number of lines held, rounded up to a multiple of the number of segments
+     */
+    public LineCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int count = capacity < SEGMENTS * 4 ? 1 : SEGMENTS;
+        int segmentCapacity = (capacity + count - 1) / count;
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+        this.segmentMask = count - 1;
+    }
+
+    /**
+     * Returns an engine solving its lines through this cache, and with the given engine on a miss.
+     * The returned engine keeps buffers like any engine, so it should only be used by one thread at a time;
+     * each thread gets its own from the same cache.
+     *
+     * @param engine the engine solving the lines missing from the cache
+     * @return the caching engine
+     */
+    public LineSolverEngine engine(LineSolverEngine engine) {
+        return new CachingEngine(engine);
+    }
+
+    /**
+     * Returns the number of lines found in the cache.
+     *
+     * @return the number of hits since the cache was created
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lines missing from the cache, and solved by an engine.
+     *
+     * @return the number of misses since the cache was created
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of lines evicted to make room for others.
+     *
+     * @return the number of evictions since the cache was created
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the share of lookups found in the cache.
+     *
+     * @return the hit rate, from 0.0 to 1.0, 0.0 before any lookup
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Returns the number of lines held.
+     *
+     * @return the size of the cache
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes every line from the cache, the statistics are kept.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns a string representation of the LineCache object.
+     *
+     * @return the string representation of the LineCache object
+     */
+    @Override
+    public String toString() {
+        return "LineCache{" + "size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses()
+                + ", evictions=" + getEvictions() + ", hitRate=" + getHitRate() + '}';
+    }
+
+    /**
+     * Returns the number of longs holding the packed states of a line.
+     */
+    private static int words(int length) {
+        return (length + SQUARES_PER_WORD - 1) / SQUARES_PER_WORD;
+    }
+
+    /**
+     * Packs the states of a line two bits per square.
+     */
+    private static void pack(byte[] line, int length, long[] packed) {
+        for (int w = 0, words = words(length); w < words; w++) {
+            long word = 0;
+            int end = Math.min(length, (w + 1) * SQUARES_PER_WORD);
+            for (int i = w * SQUARES_PER_WORD; i < end; i++) {
+                word |= (long) line[i] << ((i % SQUARES_PER_WORD) * 2);
+            }
+            packed[w] = word;
+        }
+    }
+
+    /**
+     * Unpacks a solution into a line.
+     *
+     * @return the number of squares whose state changed
+     */
+    private static int unpack(long[] packed, byte[] line, int length) {
+        int changed = 0;
+        for (int i = 0; i < length; i++) {
+            byte state = (byte) (packed[i / SQUARES_PER_WORD] >>> ((i % SQUARES_PER_WORD) * 2) & 3);
+            if (line[i] != state) {
+                line[i] = state;
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * An engine solving its lines through the cache, with its own probe key.
+     */
+    private final class CachingEngine implements LineSolverEngine {
+
+        private final LineSolverEngine engine;
+        private final Key probe = new Key();
+
+        private CachingEngine(LineSolverEngine engine) {
+            this.engine = engine;
+        }
+
+        @Override
+        public boolean isComplete() {
+            return engine.isComplete();
+        }
+
+        /**
+         * Copies the cached solution of the line into it, or solves it and caches it.
+         *
+         * @param line the states of the squares of the line, updated in place
+         * @param length the number of squares in the line
+         * @param clue the clue for the line
+         * @return the number of squares whose state changed, or {@link #CONTRADICTION} if the line cannot satisfy its clue
+         */
+        @Override
+        public int solve(byte[] line, int length, Clue clue) {
+            probe.set(clue, line, length);
+            Segment segment = segments[probe.hash & segmentMask];
+            long[] solution;
+            synchronized (segment) {
+                solution = segment.get(probe);
+            }
+            if (solution != null) {
+                hits.increment();
+                return solution == CONTRADICTED ? CONTRADICTION : unpack(solution, line, length);
+            }
+            misses.increment();
+            Key key = probe.copy();
+            int changed = engine.solve(line, length, clue);
+            if (changed == CONTRADICTION) {
+                solution = CONTRADICTED;
+            } else {
+                solution = new long[words(length)];
+                pack(line, length, solution);
+            }
+            synchronized (segment) {
+                segment.put(key, solution);
+            }
+            return changed;
+        }
+    }
+
+    /**
+     * A part of the cache, evicting its least recently used line once full. Only used while holding its lock.
+     */
+    private final class Segment extends LinkedHashMap<Key, long[]> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, long[]> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A clue and the packed states of a line. The probe of an engine reuses its array between lookups,
+     * a key stored in the cache owns an array of the exact size.
+     */
+    private static final class Key {
+
+        private Clue clue;
+        private int clueHash;
+        private long[] packed = new long[1];
+        private int length;
+        private int hash;
+
+        void set(Clue clue, byte[] line, int length) {
+            if (clue != this.clue) {
+                this.clue = clue;
+                this.clueHash = clue.hashCode();
+            }
+            int words = words(length);
+            if (packed.length < words) {
+                packed = new long[words];
+            }
+            pack(line, length, packed);
+            this.length = length;
+            int h = clueHash * 31 + length;
+            for (int w = 0; w < words; w++) {
+                h = h * 31 + Long.hashCode(packed[w]);
+            }
+            // spread the high bits to the segment index
+            this.hash = h ^ (h >>> 16);
+        }
+
+        Key copy() {
+            Key key = new Key();
+            key.clue = clue;
+            key.clueHash = clueHash;
+            key.packed = Arrays.copyOf(packed, words(length));
+            key.length = length;
+            key.hash = hash;
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key other) || hash != other.hash || length != other.length) {
+                return false;
+            }
+            int words = words(length);
+            if (!Arrays.equals(packed, 0, words, other.packed, 0, words)) {
+                return false;
+            }
+            return clue == other.clue || clue.equals(other.clue);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package nonogram.solver;
+
+import nonogram.generator.Clue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * A line solving engine remembering the lines it already solved, for searches that meet the same line states
+ * again and again in different branches.
+ * <p>
+ * A line is looked up by its clue and the states of its squares, with a probe key pointing at the line buffer, so a hit
+ * allocates nothing; the line and its solution are copied only on a miss. Once the memo holds its capacity it is
+ * cleared and starts over. Lines found to contradict their clue are remembered as well. Like any engine, a memo must
+ * only be used by one thread at a time.
+ *
+ * @author agueguen-LR
+ */
+class LineMemo implements LineSolverEngine {
+
+    /**
+     * The solution remembered for a line contradicting its clue.
+     */
+    private static final byte[] CONTRADICTED = new byte[0];
+
+    /**
+     * The engine solving the lines missing from the memo.
+     */
+    private final LineSolverEngine engine;
+
+    /**
+     * The largest number of lines remembered.
+     */
+    private final int capacity;
+
+    /**
+     * The solution of each line, by clue and states before solving.
+     */
+    private final HashMap<Key, byte[]> solved;
+
+    /**
+     * The key used for lookups, pointing at the line being solved.
+     */
+    private final Key probe = new Key();
+
+    /**
+     * Constructs a memo in front of an engine.
+     *
+     * @param engine the engine solving the lines missing from the memo
+     * @param capacity the largest number of lines remembered
+     */
+    LineMemo(LineSolverEngine engine, int capacity) {
+        this.engine = engine;
+        this.capacity = capacity;
+        this.solved = new HashMap<>();
+    }
+
+    /**
+     * Returns whether the engine behind the memo is complete.
+     *
+     * @return true if the engine solving the lines missing from the memo is complete
+     */
+    @Override
+    public boolean isComplete() {
+        return engine.isComplete();
+    }
+
+    /**
+     * Copies the remembered solution of the line into it, or solves it and remembers it.
+     *
+     * @param line the states of the squares of the line, updated in place
+     * @param length the number of squares in the line
+     * @param clue the clue for the line
+     * @return the number of squares whose state changed, or {@link #CONTRADICTION} if the line cannot satisfy its clue
+     */
+    @Override
+    public int solve(byte[] line, int length, Clue clue) {
+        probe.set(clue, line, length);
+        byte[] solution = solved.get(probe);
+        if (solution == CONTRADICTED) {
+            return CONTRADICTION;
+        }
+        if (solution != null) {
+            int changed = 0;
+            for (int i = 0; i < length; i++) {
+                if (line[i] != solution[i]) {
+                    line[i] = solution[i];
+                    changed++;
+                }
+            }
+            return changed;
+        }
+        Key key = new Key();
+        key.set(clue, Arrays.copyOf(line, length), length);
+        int changed = engine.solve(line, length, clue);
+        if (solved.size() >= capacity) {
+            solved.clear();
+        }
+        solved.put(key, changed == CONTRADICTION ? CONTRADICTED : Arrays.copyOf(line, length));
+        return changed;
+    }
+
+    /**
+     * Returns the number of lines remembered.
+     *
+     * @return the size of the memo
+     */
+    int size() {
+        return solved.size();
+    }
+
+    /**
+     * A clue and the states of a line, compared by content for the states and by identity for the clue,
+     * which is the same object for every state of a given line of a board.
+     */
+    private static final class Key {
+
+        private Clue clue;
+        private byte[] states;
+        private int length;
+        private int hash;
+
+        void set(Clue clue, byte[] states, int length) {
+            this.clue = clue;
+            this.states = states;
+            this.length = length;
+            int h = System.identityHashCode(clue);
+            for (int i = 0; i < length; i++) {
+                h = 31 * h + states[i];
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && clue == other.clue && hash == other.hash
+                    && Arrays.equals(states, 0, length, other.states, 0, other.length);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package nonogram.solver;
+
+/**
+ * Work queue of the rows and columns of a board that need to be solved again.
+ * A line is queued at most once at a time, marking a line that is already queued does nothing.
+ * Rows and columns are kept in separate first-in first-out queues so that they can be processed in alternating sweeps.
+ *
+ * @author agueguen-LR
+ */
+class LineQueue {
+
+    /**
+     * The queue of dirty rows.
+     */
+    private final IndexQueue rows;
+
+    /**
+     * The queue of dirty columns.
+     */
+    private final IndexQueue columns;
+
+    /**
+     * Constructs an empty LineQueue for a board of the given dimensions.
+     *
+     * @param dimensionX the number of columns in the board
+     * @param dimensionY the number of rows in the board
+     */
+    LineQueue(int dimensionX, int dimensionY) {
+        this.rows = new IndexQueue(dimensionY);
+        this.columns = new IndexQueue(dimensionX);
+    }
+
+    /**
+     * Marks every row and column of the board as dirty.
+     */
+    void markAll() {
+        rows.addAll();
+        columns.addAll();
+    }
+
+    /**
+     * Marks a row as dirty.
+     * @param y the row number
+     */
+    void markRow(int y) {
+        rows.add(y);
+    }
+
+    /**
+     * Marks a column as dirty.
+     * @param x the column number
+     */
+    void markColumn(int x) {
+        columns.add(x);
+    }
+
+    /**
+     * Returns the number of rows currently waiting to be solved.
+     * @return the number of dirty rows
+     */
+    int rowCount() {
+        return rows.size();
+    }
+
+    /**
+     * Returns the number of columns currently waiting to be solved.
+     * @return the number of dirty columns
+     */
+    int columnCount() {
+        return columns.size();
+    }
+
+    /**
+     * Removes the oldest dirty row from the queue.
+     * @return the row number, -1 if no row is dirty
+     */
+    int pollRow() {
+        return rows.poll();
+    }
+
+    /**
+     * Removes the oldest dirty column from the queue.
+     * @return the column number, -1 if no column is dirty
+     */
+    int pollColumn() {
+        return columns.poll();
+    }
+
+    /**
+     * Checks if no row or column is waiting to be solved.
+     * @return true if the board is at its fixpoint, false otherwise
+     */
+    boolean isEmpty() {
+        return rows.size() == 0 && columns.size() == 0;
+    }
+
+    /**
+     * Removes every row and column from the queue.
+     */
+    void clear() {
+        rows.clear();
+        columns.clear();
+    }
+
+    /**
+     * Ring buffer of distinct indexes between 0 and capacity-1.
+     * Since an index can only be queued once, the buffer never holds more than capacity elements.
+     */
+    private static class IndexQueue {
+        private final int[] buffer;
+        private final boolean[] queued;
+        private int head = 0;
+        private int size = 0;
+
+        IndexQueue(int capacity) {
+            this.buffer = new int[capacity];
+            this.queued = new boolean[capacity];
+        }
+
+        void add(int index) {
+            if (queued[index]) {
+                return;
+            }
+            queued[index] = true;
+            buffer[(head + size) % buffer.length] = index;
+            size++;
+        }
+
+        void addAll() {
+            for (int i = 0; i < buffer.length; i++) {
+                add(i);
+            }
+        }
+
+        int poll() {
+            if (size == 0) {
+                return -1;
+            }
+            int index = buffer[head];
+            head = (head + 1) % buffer.length;
+            size--;
+            queued[index] = false;
+            return index;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            while (size > 0) {
+                poll();
+            }
+        }
+    }
+}
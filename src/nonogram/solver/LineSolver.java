@@ -4,26 +4,78 @@ import nonogram.generator.Clue;
 import nonogram.generator.Square;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 
 /**
  * LineSolver does as much as it can on a single line of the nonogram.
+ * Lines can either be solved as lists of squares with {@link #getNewSquareStates},
+ * or as raw square states with {@link #solve}, which reuses the buffers of the solver instead of allocating.
+ * A LineSolver is therefore not thread-safe, each thread should use its own.
  *
  * @author agueguen-LR
  */
-public class LineSolver extends LineSolverUtilities{
+public class LineSolver extends LineSolverUtilities implements LineSolverEngine{
+
+    /**
+     * The primitive lineState, reused for every line.
+     */
+    private final LineStateBuffer state = new LineStateBuffer();
+
+    /**
+     * Copy of the line given to {@link #solve}, before any deduction.
+     */
+    private byte[] original = new byte[0];
+
+    /**
+     * The line with the crosses placed so far, used to recompute the lineState.
+     */
+    private byte[] work = new byte[0];
+
+    /**
+     * The new state deduced for each square, 0 if nothing was deduced.
+     */
+    private byte[] deduced = new byte[0];
+
+    /**
+     * The ordinal of the {@link SolverMetrics.Rule} that deduced each square, see {@link #getRule(int)}.
+     */
+    private byte[] deducedBy = new byte[0];
+
+    /**
+     * The rule currently filling squares.
+     */
+    private SolverMetrics.Rule fillRule = SolverMetrics.Rule.SPACE_FILLER;
+
+    /**
+     * The squares deduced by each rule during the last call to {@link #solve}.
+     */
+    private final int[] ruleSquares = new int[SolverMetrics.Rule.values().length];
+
+    /**
+     * The metrics receiving the squares deduced by each rule, null if none.
+     */
+    private SolverMetrics metrics;
 
     public LineSolver() {}
 
+    /**
+     * Sets the metrics receiving the number of squares each rule deduces in {@link #solve}.
+     * @param metrics the metrics, null to stop recording
+     */
+    public void setMetrics(SolverMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Returns the new states of the squares in the line after as much as possible has been solved.
      * @param line the line to solve
      * @param clue the clue for the line
      * @return HashMap of the new states of the squares, with the index of the square as the key and value as a boolean, true if filled, false if crossed
      */
-    public HashMap<Integer, Boolean> getNewSquareStates(ArrayList<Square> line, Clue clue) {
+    public HashMap<Integer, Boolean> getNewSquareStates(List<Square> line, Clue clue) {
         ArrayList<Integer> lineState = getLineState(line);
 
         HashMap<Integer, Boolean> newSquareStates = new HashMap<>();
@@ -51,6 +103,309 @@ public class LineSolver extends LineSolverUtilities{
         return newSquareStates;
     }
 
+    /**
+     * Solves as much as possible of a line given as raw square states and writes the new states into the array.
+     * Gives the same results as {@link #getNewSquareStates} without boxing or copying the line into new objects,
+     * the lineState is kept in reusable buffers and the reversed passes read those buffers backwards.
+     * Before applying the rules, the line is checked against the counts of its clue, see {@link #contradicts}.
+     * The rules can deduce wrong squares on some lines, so once they did, a contradiction found by a board solver
+     * only means the heuristics failed, not that the board has no solution.
+     * @param line the states of the squares of the line, updated in place
+     * @param length the number of squares in the line
+     * @param clue the clue for the line
+     * @return the number of squares whose state changed, or {@link #CONTRADICTION} if the line cannot satisfy its clue
+     */
+    @Override
+    public int solve(byte[] line, int length, Clue clue) {
+        if (contradicts(line, length, clue)) {
+            return CONTRADICTION;
+        }
+        if (original.length < length) {
+            original = new byte[length];
+            work = new byte[length];
+            deduced = new byte[length];
+            deducedBy = new byte[length];
+        }
+        state.loadClue(clue);
+        System.arraycopy(line, 0, original, 0, length);
+        Arrays.fill(deduced, 0, length, (byte) 0);
+
+        placeCrosses(length, false);
+        placeCrosses(length, true);
+
+        // only crosses have been deduced so far
+        for (int i = 0; i < length; i++) {
+            work[i] = deduced[i] != 0 ? deduced[i] : original[i];
+        }
+        state.encode(work, length);
+
+        state.setReversed(false);
+        fillRule = SolverMetrics.Rule.SPACE_FILLER;
+        fillSpaces();
+        fillRule = SolverMetrics.Rule.EDGE_EXTENDER;
+        extendEdges(false);
+        extendEdges(true);
+
+        int changed = 0;
+        Arrays.fill(ruleSquares, 0);
+        for (int i = 0; i < length; i++) {
+            if (deduced[i] != 0) {
+                line[i] = deduced[i];
+                ruleSquares[deducedBy[i]]++;
+                changed++;
+            }
+        }
+        if (metrics != null) {
+            for (SolverMetrics.Rule rule : SolverMetrics.Rule.values()) {
+                metrics.recordRule(rule, ruleSquares[rule.ordinal()]);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the rule that deduced a square during the last call to {@link #solve}.
+     * @param index the index of a square whose state that call changed
+     * @return the rule that deduced the square
+     */
+    SolverMetrics.Rule getRule(int index) {
+        return SolverMetrics.Rule.values()[deducedBy[index]];
+    }
+
+    /**
+     * Checks the line against its clue with the counts the rules rely on: the clue must fit in the line,
+     * the line must not hold more filled squares than the clue, nor fewer squares left to fill,
+     * no block may be longer than the longest of the clue, and a line without empty squares must match its clue.
+     * These checks are cheap and catch the contradictions the search runs into the most, but not all of them,
+     * use {@link CompleteLineSolver} to find every one.
+     * @param line the states of the squares of the line
+     * @param length the number of squares in the line
+     * @param clue the clue for the line
+     * @return true if the line certainly cannot satisfy its clue
+     */
+    static boolean contradicts(byte[] line, int length, Clue clue) {
+        if (clue.getMinLength() > length) {
+            return true;
+        }
+        int longestClue = 0;
+        for (int i = 0; i < clue.size(); i++) {
+            longestClue = Math.max(longestClue, clue.get(i));
+        }
+        int filled = 0;
+        int empty = 0;
+        int run = 0;
+        int blocks = 0;
+        boolean matches = true;
+        for (int i = 0; i <= length; i++) {
+            byte square = i < length ? line[i] : Square.CROSS;
+            if (square == Square.FILLED) {
+                filled++;
+                if (++run > longestClue) {
+                    return true;
+                }
+                continue;
+            }
+            if (run > 0) {
+                matches &= blocks < clue.size() && clue.get(blocks) == run;
+                blocks++;
+                run = 0;
+            }
+            if (square == Square.EMPTY) {
+                empty++;
+            }
+        }
+        if (filled > clue.getSum() || filled + empty < clue.getSum()) {
+            return true;
+        }
+        return empty == 0 && !(matches && blocks == clue.size());
+    }
+
+    /**
+     * Primitive equivalent of {@link #CrossPlacer}, reversed is the equivalent of {@link #CrossPlacerReversed}.
+     * @param length the number of squares in the line
+     * @param reversed true to place the crosses from the end of the line
+     */
+    private void placeCrosses(int length, boolean reversed) {
+        System.arraycopy(original, 0, work, 0, length);
+        state.encode(work, length);
+        state.setReversed(reversed);
+
+        int indexOfNextFilled = 0;
+        int indexOfPreviousEmpty;
+        int indexOfNextEmpty = state.nextEmptyIndex(0);
+
+        if (state.allCluesComplete()) { // line is complete, crosses should be placed in all empty squares
+            while (indexOfNextEmpty != -1) {
+                crossSection(indexOfNextEmpty);
+                if (indexOfNextEmpty + 1 == state.size()) {
+                    return;
+                }
+                indexOfNextEmpty = state.nextEmptyIndex(indexOfNextEmpty + 1);
+            }
+            return;
+        }
+
+        for (int clueIndex = 0; clueIndex < state.clueSize(); clueIndex++) {
+            int currentClue = state.clue(clueIndex);
+
+            indexOfNextFilled = state.nextFilledIndex(indexOfNextFilled);
+            if (indexOfNextFilled == -1 || state.get(indexOfNextFilled) > currentClue) { // no more crosses can be deduced
+                return;
+            }
+
+            indexOfPreviousEmpty = state.previousEmptyIndex(indexOfNextFilled);
+            if (indexOfPreviousEmpty == -1) { // we're at an edge
+                if (indexOfNextFilled + 1 < state.size()) {
+                    if (currentClue == state.get(indexOfNextFilled) && state.get(indexOfNextFilled + 1) < 0) {
+                        crossSquare(state.stateIndexToSquareIndex(indexOfNextFilled + 1));
+                        state.encode(work, length);
+                    } else if (currentClue > state.get(indexOfNextFilled)) {
+                        return;
+                    }
+                }
+                indexOfNextFilled++;
+                continue;
+            }
+
+            if (-state.get(indexOfPreviousEmpty) > currentClue) { // no more crosses can be deduced
+                return;
+            }
+
+            if (indexOfNextFilled + 1 < state.size()) {
+                if (currentClue == state.get(indexOfNextFilled) && state.get(indexOfNextFilled + 1) < 0) {
+                    crossSection(indexOfPreviousEmpty);
+                    crossSquare(state.stateIndexToSquareIndex(indexOfNextFilled + 1));
+                    state.encode(work, length);
+                } else if (currentClue > state.get(indexOfNextFilled)) {
+                    return;
+                }
+            }
+            indexOfNextFilled++;
+        }
+    }
+
+    /**
+     * Primitive equivalent of {@link #SpaceFiller}.
+     */
+    private void fillSpaces() {
+        int incompleteLength = state.lengthOfInterCrossSection();
+
+        //line is already complete
+        if (incompleteLength == 0) {
+            return;
+        }
+
+        int stateIndex = state.nextEmptyIndex(0);
+
+        int clueLength = state.activeClueLength();
+        int notCompletableLength = incompleteLength - clueLength;
+        int alreadyFilled = 0;
+
+        if (stateIndex > 0 && state.get(stateIndex - 1) > 0) {
+            alreadyFilled = state.get(stateIndex - 1);
+        }
+
+        int squareIndex = state.stateIndexToSquareIndex(stateIndex) - alreadyFilled;
+
+        if (clueLength > incompleteLength / 2) {
+            int firstIncomplete = state.firstIncompleteClue();
+            int lastIncomplete = state.lastIncompleteClue();
+            if (firstIncomplete == -1 || lastIncomplete == -1) {
+                return;
+            }
+            for (int clueIndex = firstIncomplete; clueIndex <= lastIncomplete; clueIndex++) {
+                int clueValue = state.clue(clueIndex);
+                if (clueValue > notCompletableLength) {
+                    for (int i = 0; i < clueValue - notCompletableLength; i++) {
+                        fillSquare(squareIndex + notCompletableLength + i);
+                    }
+                }
+                squareIndex += clueValue + 1;
+            }
+        }
+    }
+
+    /**
+     * Primitive equivalent of {@link #edgeExtender}, reversed is the equivalent of {@link #edgeExtenderReversed}.
+     * As with the list version, crossed squares are read from the line before any deduction.
+     * @param reversed true to extend from the end of the line
+     */
+    private void extendEdges(boolean reversed) {
+        state.setReversed(reversed);
+
+        int currentClueIndex = state.firstIncompleteClue();
+        if (currentClueIndex == -1 || currentClueIndex >= state.clueSize()) { // no incomplete clues
+            return;
+        }
+
+        int emptyIndex = state.nextEmptyIndex(0);
+        if (emptyIndex == -1) { // line is already complete
+            return;
+        }
+        int previousFilledIndex = state.previousFilledIndex(emptyIndex);
+        int nextFilledIndex = state.nextFilledIndex(emptyIndex);
+
+        int amountOfSquaresToFill;
+        int squareIndex;
+
+        if (previousFilledIndex != -1 && previousFilledIndex == emptyIndex - 1) { //Extension starts from filled square
+            amountOfSquaresToFill = state.clue(currentClueIndex) - state.get(emptyIndex - 1);
+            squareIndex = state.stateIndexToSquareIndex(emptyIndex);
+
+        } else if (nextFilledIndex == -1) { //No filled square to extend from
+            return;
+
+        } else { // Extension has a gap at the start
+            amountOfSquaresToFill = state.clue(currentClueIndex) - (state.get(emptyIndex + 1) - state.get(emptyIndex));
+            squareIndex = state.stateIndexToSquareIndex(emptyIndex + 1) + state.get(emptyIndex + 1);
+        }
+
+        while (squareIndex < state.length() && amountOfSquaresToFill > 0) {
+            if (original[state.toForward(squareIndex)] == Square.CROSS) { // hit an edge
+                break;
+            }
+            fillSquare(squareIndex);
+            squareIndex++;
+            amountOfSquaresToFill--;
+        }
+    }
+
+    /**
+     * Crosses every square of a section of the lineState, in the current direction.
+     * @param sectionIndex the index of the section
+     */
+    private void crossSection(int sectionIndex) {
+        int squareIndex = state.stateIndexToSquareIndex(sectionIndex);
+        for (int i = 0; i < Math.abs(state.get(sectionIndex)); i++) {
+            crossSquare(squareIndex + i);
+        }
+    }
+
+    /**
+     * Crosses a square in the working line and records the deduction if the square was empty.
+     * @param squareIndex the index of the square in the current direction
+     */
+    private void crossSquare(int squareIndex) {
+        int index = state.toForward(squareIndex);
+        work[index] = Square.CROSS;
+        if (original[index] == Square.EMPTY) {
+            deduced[index] = Square.CROSS;
+            deducedBy[index] = (byte) SolverMetrics.Rule.CROSS_PLACER.ordinal();
+        }
+    }
+
+    /**
+     * Records that a square should be filled if it was empty, a fill overrides a cross deduced for the same square.
+     * @param squareIndex the index of the square in the current direction
+     */
+    private void fillSquare(int squareIndex) {
+        int index = state.toForward(squareIndex);
+        if (index >= 0 && index < state.length() && original[index] == Square.EMPTY && deduced[index] != Square.FILLED) {
+            deduced[index] = Square.FILLED;
+            deducedBy[index] = (byte) fillRule.ordinal();
+        }
+    }
+
     /**
      * Returns the indexes of the squares that should be filled between each side.
      * Based upon the space between the edges and the total length of active clues.
@@ -101,7 +456,7 @@ public class LineSolver extends LineSolverUtilities{
      * @param clue the clue for the line
      * @return the indexes of the squares that should be filled
      */
-    public ArrayList<Integer> edgeExtender(ArrayList<Square> line, ArrayList<Integer> lineState, Clue clue) {
+    public ArrayList<Integer> edgeExtender(List<Square> line, ArrayList<Integer> lineState, Clue clue) {
         ArrayList<Integer> newSquares = new ArrayList<>();
 
         int currentClueIndex = firstIncompleteClue(clue, lineState);
@@ -121,14 +476,14 @@ public class LineSolver extends LineSolverUtilities{
         int squareIndex;
 
         if (previousFilledIndex != -1 && previousFilledIndex == emptyIndex - 1) { //Extension starts from filled square
-            AmountOfSquaresToFill = clue.getClue().get(currentClueIndex) - lineState.get(emptyIndex - 1);
+            AmountOfSquaresToFill = clue.get(currentClueIndex) - lineState.get(emptyIndex - 1);
             squareIndex = stateIndexToSquareIndex(emptyIndex, lineState);
 
         } else if(nextFilledIndex == -1){ //No filled square to extend from
             return newSquares;
 
         }else{ // Extension has a gap at the start
-            AmountOfSquaresToFill = clue.getClue().get(currentClueIndex) - (lineState.get(emptyIndex + 1)-lineState.get(emptyIndex));
+            AmountOfSquaresToFill = clue.get(currentClueIndex) - (lineState.get(emptyIndex + 1)-lineState.get(emptyIndex));
             squareIndex = stateIndexToSquareIndex(emptyIndex+1, lineState) + lineState.get(emptyIndex+1);
         }
 
@@ -154,7 +509,7 @@ public class LineSolver extends LineSolverUtilities{
      * @param clue the clue for the line
      * @return the indexes of the squares that should be filled
      */
-    public ArrayList<Integer> edgeExtenderReversed(ArrayList<Square> line, ArrayList<Integer> lineState, Clue clue) {
+    public ArrayList<Integer> edgeExtenderReversed(List<Square> line, ArrayList<Integer> lineState, Clue clue) {
         ArrayList<Integer> newSquares = edgeExtender(new ArrayList<>(line.reversed()), new ArrayList<>(lineState.reversed()), clue.reverse());
         newSquares.replaceAll(integer -> line.size() - integer - 1);
         return newSquares;
@@ -167,7 +522,7 @@ public class LineSolver extends LineSolverUtilities{
      * @param clue the current clue
      * @return ArrayList of indexes of the crosses to be placed
      */
-    public ArrayList<Integer> CrossPlacer(ArrayList<Square> line, ArrayList<Integer> lineState, Clue clue){
+    public ArrayList<Integer> CrossPlacer(List<Square> line, ArrayList<Integer> lineState, Clue clue){
         ArrayList<Integer> CrossedSquares = new ArrayList<>();
         int IndexOfNextFilled = 0; // should be next filled active not from 0
         int IndexOfPreviousEmpty;
@@ -240,7 +595,7 @@ public class LineSolver extends LineSolverUtilities{
         return CrossedSquares;
     }
 
-    public ArrayList<Integer> CrossPlacerReversed(ArrayList<Square> line, ArrayList<Integer> lineState, Clue clue){
+    public ArrayList<Integer> CrossPlacerReversed(List<Square> line, ArrayList<Integer> lineState, Clue clue){
         ArrayList<Integer> CrossedSquares = CrossPlacer(new ArrayList<>(line.reversed()), new ArrayList<>(lineState.reversed()), clue.reverse());
         CrossedSquares.replaceAll(integer -> line.size() - integer -1);
         return CrossedSquares;
@@ -0,0 +1,49 @@
+package nonogram.solver;
+
+import nonogram.generator.Clue;
+
+/**
+ * A strategy for solving a single line of the nonogram, used by {@link BoardCompleter}.
+ * The line is given as raw square states ({@link nonogram.generator.Square#EMPTY},
+ * {@link nonogram.generator.Square#CROSS} or {@link nonogram.generator.Square#FILLED})
+ * and the engine writes the states it deduces directly into the array.
+ * An engine that finds the line cannot satisfy its clue returns {@link #CONTRADICTION}, so that the solvers
+ * can give up on the board, or on the branch of a search, at once.
+ * Engines may keep buffers between calls, so an instance should only be used by one thread at a time.
+ *
+ * @see LineSolver
+ * @see CompleteLineSolver
+ *
+ * @author agueguen-LR
+ */
+public interface LineSolverEngine {
+
+    /**
+     * Returned by {@link #solve} when no placement of the clue agrees with the line.
+     */
+    int CONTRADICTION = -1;
+
+    /**
+     * Solves as much as possible of a line and writes the new states into the array.
+     * Only empty squares are ever changed, and none is when the line is found to contradict its clue.
+     * An engine is not required to find every contradiction, only to never report one for a line that can be solved.
+     *
+     * @param line the states of the squares of the line, updated in place
+     * @param length the number of squares in the line
+     * @param clue the clue for the line
+     * @return the number of squares whose state changed, or {@link #CONTRADICTION} if the line cannot satisfy its clue
+     */
+    int solve(byte[] line, int length, Clue clue);
+
+    /**
+     * Tells whether the engine deduces every square that can be deduced from the line, in a single call.
+     * Solving again a line a complete engine just solved deduces nothing, so the board solvers only solve
+     * a line again once a square of it changed; they solve it again right away for other engines, whose
+     * heuristics may deduce more from their own results.
+     *
+     * @return true if a second call on the solved line would never change a square, false by default
+     */
+    default boolean isComplete() {
+        return false;
+    }
+}
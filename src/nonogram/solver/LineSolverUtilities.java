@@ -6,6 +6,7 @@ import nonogram.generator.Square;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 
 abstract class LineSolverUtilities implements StateUtilities, ClueUtilities{
 
@@ -17,7 +18,7 @@ abstract class LineSolverUtilities implements StateUtilities, ClueUtilities{
      *
      * @return ArrayList<Integer> containing the exact current state of the line
      */
-    public ArrayList<Integer> getLineState(ArrayList<Square> line) {
+    public ArrayList<Integer> getLineState(List<Square> line) {
 
         ArrayList<Integer> lineState = new ArrayList<>();
         boolean increasing = false;
@@ -226,8 +227,8 @@ abstract class LineSolverUtilities implements StateUtilities, ClueUtilities{
         return lengthOfSection(startCrossIndex+1, endCrossIndex-1, lineState);
     }
 
-    public ArrayList<Integer> updateLineState(ArrayList<Square> line, HashMap<Integer, Boolean> newSquareStates){
-        ArrayList<Square> updatedLine = copyLine(line);
+    public ArrayList<Integer> updateLineState(List<Square> line, HashMap<Integer, Boolean> newSquareStates){
+        List<Square> updatedLine = copyLine(line);
         for (Integer index : newSquareStates.keySet()){
             if (newSquareStates.get(index)){
                 updatedLine.get(index).fill();
@@ -238,7 +239,7 @@ abstract class LineSolverUtilities implements StateUtilities, ClueUtilities{
         return getLineState(updatedLine);
     }
 
-    private ArrayList<Square> copyLine(ArrayList<Square> line){
+    private List<Square> copyLine(List<Square> line){
         ArrayList<Square> copy = new ArrayList<>();
         for (Square square : line){
             Square newSquare = new Square();
@@ -284,11 +285,11 @@ abstract class LineSolverUtilities implements StateUtilities, ClueUtilities{
         int clueIndex = 0;
 
         //while filled sections are equal to clues and no empty square has been passed
-        while(filledIndex < emptyIndex && stateValue == clue.getClue().get(clueIndex)){
+        while(filledIndex < emptyIndex && stateValue == clue.get(clueIndex)){
 
             clueIndex++;
             //all clues are complete
-            if (clueIndex == clue.getClue().size()){
+            if (clueIndex == clue.size()){
                 return -1;
             }
 
@@ -318,14 +319,14 @@ abstract class LineSolverUtilities implements StateUtilities, ClueUtilities{
         }
         //Nothing is filled so the last clue is incomplete
         if (filledIndex == -1){
-            return clue.getClue().size()-1;
+            return clue.size()-1;
         }
 
         int stateValue = lineState.get(filledIndex);
-        int clueIndex = clue.getClue().size()-1;
+        int clueIndex = clue.size()-1;
 
         //while filled sections are equal to clues and no empty square has been passed
-        while(filledIndex > emptyIndex && stateValue == clue.getClue().get(clueIndex)){
+        while(filledIndex > emptyIndex && stateValue == clue.get(clueIndex)){
 
             clueIndex--;
             //all clues are complete
@@ -360,7 +361,7 @@ abstract class LineSolverUtilities implements StateUtilities, ClueUtilities{
 
         int length = 0;
         for (int i = firstIncomplete; i <= lastIncomplete; i++){
-            length += clue.getClue().get(i);
+            length += clue.get(i);
         }
         return length + lastIncomplete - firstIncomplete;
     }
@@ -382,18 +383,18 @@ abstract class LineSolverUtilities implements StateUtilities, ClueUtilities{
     }
 
     public Boolean allCluesComplete(Clue clue, ArrayList<Integer> lineState) {
-        if(clue.getClue().isEmpty()){
+        if(clue.size() == 0){
             return true;
         }
 
         int clueIndex = 0;
         for (Integer section : lineState){
-            if (section.equals(clue.getClue().get(clueIndex))){
+            if (section.equals(clue.get(clueIndex))){
                 clueIndex++;
             }
-            if(clueIndex == clue.getClue().size()){break;}
+            if(clueIndex == clue.size()){break;}
         }
-        return clueIndex == clue.getClue().size();
+        return clueIndex == clue.size();
     }
 
 }
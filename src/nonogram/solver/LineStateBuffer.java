@@ -0,0 +1,421 @@
+package nonogram.solver;
+
+import nonogram.generator.Clue;
+import nonogram.generator.Square;
+
+
+/**
+ * Reusable primitive equivalent of the lineState used by {@link LineSolverUtilities}.
+ * Holds the run-length encoding of a line in an int array, along with the cells of the line and its clue,
+ * so that a line can be solved without boxing or copying anything once the buffers are large enough.
+ * <p>
+ * The buffer can be read backwards: when reversed, every index given to or returned by the methods below
+ * is counted from the end of the line, which replaces copying and reversing the line, state and clue.
+ * The encoding uses the same convention as {@link LineSolverUtilities#getLineState}:
+ * 0 represents a CROSS, positive numbers consecutive FILLED squares, negative numbers consecutive EMPTY squares.
+ *
+ * @author agueguen-LR
+ */
+class LineStateBuffer {
+
+    /**
+     * The run-length encoding of the line, always stored forwards.
+     */
+    private int[] runs = new int[16];
+
+    /**
+     * The number of runs in the encoding.
+     */
+    private int size;
+
+    /**
+     * The cells the encoding was computed from.
+     */
+    private byte[] line;
+
+    /**
+     * The number of cells in the line.
+     */
+    private int length;
+
+    /**
+     * The values of the clue, always stored forwards.
+     */
+    private int[] clue = new int[16];
+
+    /**
+     * The number of values in the clue.
+     */
+    private int clueSize;
+
+    /**
+     * Whether indexes are counted from the end of the line.
+     */
+    private boolean reversed;
+
+    /**
+     * Copies the values of a clue into the buffer.
+     * @param clue the clue
+     */
+    void loadClue(Clue clue) {
+        clueSize = clue.size();
+        if (this.clue.length < clueSize) {
+            this.clue = new int[Math.max(clueSize, this.clue.length * 2)];
+        }
+        for (int i = 0; i < clueSize; i++) {
+            this.clue[i] = clue.get(i);
+        }
+    }
+
+    /**
+     * Computes the encoding of the given cells, the array is kept as the line of the buffer.
+     * @param line the cells of the line
+     * @param length the number of cells in the line
+     */
+    void encode(byte[] line, int length) {
+        this.line = line;
+        this.length = length;
+        if (runs.length < length) {
+            runs = new int[Math.max(length, runs.length * 2)];
+        }
+        size = 0;
+        boolean increasing = false;
+        boolean decreasing = false;
+        for (int i = 0; i < length; i++) {
+            byte state = line[i];
+            if (state == Square.FILLED) {
+                if (increasing) {
+                    runs[size - 1]++;
+                } else {
+                    runs[size++] = 1;
+                    increasing = true;
+                    decreasing = false;
+                }
+            } else if (state == Square.EMPTY) {
+                if (decreasing) {
+                    runs[size - 1]--;
+                } else {
+                    runs[size++] = -1;
+                    decreasing = true;
+                    increasing = false;
+                }
+            } else {
+                runs[size++] = 0;
+                increasing = false;
+                decreasing = false;
+            }
+        }
+    }
+
+    /**
+     * Sets the direction in which the line, its encoding and its clue are read.
+     * @param reversed true to count every index from the end
+     */
+    void setReversed(boolean reversed) {
+        this.reversed = reversed;
+    }
+
+    /**
+     * Returns the number of runs in the encoding.
+     * @return the number of runs
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns a run of the encoding.
+     * @param stateIndex the index of the run
+     * @return the value of the run
+     */
+    int get(int stateIndex) {
+        return runs[reversed ? size - 1 - stateIndex : stateIndex];
+    }
+
+    /**
+     * Returns the number of cells in the line.
+     * @return the length of the line
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Returns the state of a cell of the line the encoding was computed from.
+     * @param squareIndex the index of the cell
+     * @return the raw state of the cell
+     */
+    byte cell(int squareIndex) {
+        return line[toForward(squareIndex)];
+    }
+
+    /**
+     * Converts an index in the current direction into an index counted from the start of the line.
+     * @param squareIndex the index in the current direction
+     * @return the index from the start of the line
+     */
+    int toForward(int squareIndex) {
+        return reversed ? length - 1 - squareIndex : squareIndex;
+    }
+
+    /**
+     * Returns the number of values in the clue.
+     * @return the number of values
+     */
+    int clueSize() {
+        return clueSize;
+    }
+
+    /**
+     * Returns a value of the clue.
+     * @param clueIndex the index of the value
+     * @return the value
+     */
+    int clue(int clueIndex) {
+        return clue[reversed ? clueSize - 1 - clueIndex : clueIndex];
+    }
+
+    /**
+     * Primitive equivalent of {@link LineSolverUtilities#stateIndexToSquareIndex}, in the current direction.
+     */
+    int stateIndexToSquareIndex(int stateIndex) {
+        int squareIndex = 0;
+        for (int i = 0; i < stateIndex; i++) {
+            int stateValue = get(i);
+            squareIndex += stateValue == 0 ? 1 : Math.abs(stateValue);
+        }
+        return squareIndex;
+    }
+
+    /**
+     * Primitive equivalent of {@link LineSolverUtilities#nextCrossIndex}, in the current direction.
+     */
+    int nextCrossIndex(int currentIndex) {
+        if (currentIndex >= size || currentIndex < 0) {return -1;}
+        for (int i = currentIndex; i < size; i++) {
+            if (get(i) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Primitive equivalent of {@link LineSolverUtilities#previousCrossIndex}, in the current direction.
+     */
+    int previousCrossIndex(int currentIndex) {
+        if (currentIndex >= size || currentIndex < 0) {return -1;}
+        for (int i = currentIndex; i >= 0; i--) {
+            if (get(i) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Primitive equivalent of {@link LineSolverUtilities#nextFilledIndex}, in the current direction.
+     */
+    int nextFilledIndex(int currentIndex) {
+        if (currentIndex >= size || currentIndex < 0) {return -1;}
+        for (int i = currentIndex; i < size; i++) {
+            if (get(i) > 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Primitive equivalent of {@link LineSolverUtilities#previousFilledIndex}, in the current direction.
+     */
+    int previousFilledIndex(int currentIndex) {
+        if (currentIndex >= size || currentIndex < 0) {return -1;}
+        for (int i = currentIndex; i >= 0; i--) {
+            if (get(i) > 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Primitive equivalent of {@link LineSolverUtilities#nextEmptyIndex}, in the current direction.
+     */
+    int nextEmptyIndex(int currentIndex) {
+        if (currentIndex >= size || currentIndex < 0) {return -1;}
+        for (int i = currentIndex; i < size; i++) {
+            if (get(i) < 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Primitive equivalent of {@link LineSolverUtilities#previousEmptyIndex}, in the current direction.
+     */
+    int previousEmptyIndex(int currentIndex) {
+        if (currentIndex >= size || currentIndex < 0) {return -1;}
+        for (int i = currentIndex; i >= 0; i--) {
+            if (get(i) < 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Primitive equivalent of {@link LineSolverUtilities#lengthOfSection}, in the current direction.
+     */
+    int lengthOfSection(int startIndex, int endIndex) {
+        int length = 0;
+        for (int i = startIndex; i <= endIndex; i++) {
+            int stateValue = get(i);
+            length += stateValue == 0 ? 1 : Math.abs(stateValue);
+        }
+        return length;
+    }
+
+    /**
+     * Primitive equivalent of {@link LineSolverUtilities#lengthOfInterCrossSection}, in the current direction.
+     */
+    int lengthOfInterCrossSection() {
+        int startIndex = nextEmptyIndex(0);
+        int endIndex = previousEmptyIndex(size - 1);
+        if (startIndex == -1 || endIndex == -1) {
+            return 0;
+        }
+
+        int startCrossIndex = previousCrossIndex(startIndex);
+        int endCrossIndex = nextCrossIndex(endIndex);
+        if (startCrossIndex == -1 && endCrossIndex == -1) {
+            return lengthOfSection(0, size - 1);
+        } else if (startCrossIndex == -1) {
+            return lengthOfSection(0, endCrossIndex - 1);
+        } else if (endCrossIndex == -1) {
+            return lengthOfSection(startCrossIndex + 1, size - 1);
+        }
+        return lengthOfSection(startCrossIndex + 1, endCrossIndex - 1);
+    }
+
+    /**
+     * Checks if a run is equal to a value of the clue, a value outside the clue never matches.
+     * @param stateValue the value of the run
+     * @param clueIndex the index of the value in the clue
+     * @return true if the clue has that value at that index
+     */
+    private boolean matchesClue(int stateValue, int clueIndex) {
+        return clueIndex >= 0 && clueIndex < clueSize && stateValue == clue(clueIndex);
+    }
+
+    /**
+     * Primitive equivalent of {@link LineSolverUtilities#firstIncompleteClue}, in the current direction.
+     */
+    int firstIncompleteClue() {
+        int filledIndex = nextFilledIndex(0);
+        int emptyIndex = nextEmptyIndex(0);
+
+        //No empty squares means the line is complete and all clues are filled
+        if (emptyIndex == -1) {
+            return -1;
+        }
+        //Nothing is filled so the first clue is incomplete
+        if (filledIndex == -1) {
+            return 0;
+        }
+
+        int stateValue = get(filledIndex);
+        int clueIndex = 0;
+
+        //while filled sections are equal to clues and no empty square has been passed
+        while (filledIndex < emptyIndex && matchesClue(stateValue, clueIndex)) {
+            clueIndex++;
+            //all clues are complete
+            if (clueIndex == clueSize) {
+                return -1;
+            }
+            filledIndex = nextFilledIndex(filledIndex + 1);
+            //no more filled squares
+            if (filledIndex == -1) {
+                return clueIndex;
+            }
+            stateValue = get(filledIndex);
+        }
+        //clue is incomplete or empty square has been passed
+        return clueIndex;
+    }
+
+    /**
+     * Primitive equivalent of {@link LineSolverUtilities#lastIncompleteClue}, in the current direction.
+     */
+    int lastIncompleteClue() {
+        int filledIndex = previousFilledIndex(size - 1);
+        int emptyIndex = previousEmptyIndex(size - 1);
+
+        //No empty squares means the line is complete and all clues are filled
+        if (emptyIndex == -1) {
+            return -1;
+        }
+        //Nothing is filled so the last clue is incomplete
+        if (filledIndex == -1) {
+            return clueSize - 1;
+        }
+
+        int stateValue = get(filledIndex);
+        int clueIndex = clueSize - 1;
+
+        //while filled sections are equal to clues and no empty square has been passed
+        while (filledIndex > emptyIndex && matchesClue(stateValue, clueIndex)) {
+            clueIndex--;
+            //all clues are complete
+            if (clueIndex == -1) {
+                return -1;
+            }
+            filledIndex = previousFilledIndex(filledIndex - 1);
+            //no more filled squares
+            if (filledIndex == -1) {
+                return clueIndex;
+            }
+            stateValue = get(filledIndex);
+        }
+        //clue is incomplete or empty square has been passed
+        return clueIndex;
+    }
+
+    /**
+     * Primitive equivalent of {@link LineSolverUtilities#activeClueLength}, in the current direction.
+     */
+    int activeClueLength() {
+        int firstIncomplete = firstIncompleteClue();
+        int lastIncomplete = lastIncompleteClue();
+
+        if (firstIncomplete == -1 || lastIncomplete == -1) {
+            return 0;
+        }
+
+        int length = 0;
+        for (int i = firstIncomplete; i <= lastIncomplete; i++) {
+            length += clue(i);
+        }
+        return length + lastIncomplete - firstIncomplete;
+    }
+
+    /**
+     * Primitive equivalent of {@link LineSolverUtilities#allCluesComplete}, in the current direction.
+     */
+    boolean allCluesComplete() {
+        if (clueSize == 0) {
+            return true;
+        }
+
+        int clueIndex = 0;
+        for (int i = 0; i < size; i++) {
+            if (get(i) == clue(clueIndex)) {
+                clueIndex++;
+            }
+            if (clueIndex == clueSize) {break;}
+        }
+        return clueIndex == clueSize;
+    }
+}
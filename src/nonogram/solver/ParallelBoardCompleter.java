@@ -0,0 +1,284 @@
+package nonogram.solver;
+
+import nonogram.generator.Board;
+import nonogram.generator.Clue;
+import nonogram.generator.Line;
+import nonogram.generator.Square;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * ParallelBoardCompleter solves the same fixpoint as {@link BoardCompleter#solve()}, spreading each sweep over the cores.
+ * <p>
+ * Within a row sweep no two rows share a square, so every dirty row is solved in parallel and writes its own squares
+ * of the board directly; the same goes for columns. The columns crossed by a changed square are only collected
+ * during the sweep, and marked dirty once every row has been solved, so a column sweep never runs while a row
+ * sweep is still writing. Each worker thread solves its lines with its own engine and buffer,
+ * since engines are not thread-safe.
+ * <p>
+ * A line found to contradict its clue stops the solve at the end of its sweep, the lines of that sweep already
+ * being solved by the other workers, and the solve reports the contradiction.
+ * <p>
+ * There is no display, delay or trail in this mode, the board is left as the fixpoint leaves it.
+ *
+ * @author agueguen-LR
+ */
+public class ParallelBoardCompleter implements AutoCloseable {
+
+    /**
+     * The board on which the Nonogram puzzle is being solved.
+     */
+    private final Board board;
+
+    /**
+     * The list of horizontal clues for each row of the Nonogram.
+     */
+    private final ArrayList<Clue> horizClues;
+
+    /**
+     * The list of vertical clues for each column of the Nonogram.
+     */
+    private final ArrayList<Clue> vertClues;
+
+    /**
+     * The engine of each worker thread, created on first use.
+     */
+    private final ThreadLocal<LineSolverEngine> engines;
+
+    /**
+     * Whether the engines are complete, in which case a solved line is not solved again until a square of it changes.
+     */
+    private final boolean completeEngines;
+
+    /**
+     * The line buffer of each worker thread, as long as the longest line of the board.
+     */
+    private final ThreadLocal<byte[]> lineBuffers;
+
+    /**
+     * The pool running the sweeps.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Whether the pool was created by this completer, and must be shut down by it.
+     */
+    private final boolean ownsPool;
+
+    /**
+     * The rows and columns waiting to be solved again.
+     */
+    private final LineQueue queue;
+
+    /**
+     * The lines polled from the queue for the current sweep.
+     */
+    private final int[] sweep;
+
+    /**
+     * For each line of the current sweep, whether the engine changed one of its squares.
+     */
+    private final boolean[] changed;
+
+    /**
+     * The rows crossed by a square changed during a column sweep, set to 1 by the workers.
+     */
+    private final AtomicIntegerArray touchedRows;
+
+    /**
+     * The columns crossed by a square changed during a row sweep, set to 1 by the workers.
+     */
+    private final AtomicIntegerArray touchedColumns;
+
+    /**
+     * Whether a worker found a line contradicting its clue during the current solve.
+     */
+    private volatile boolean contradiction;
+
+    /**
+     * The metrics receiving the line solves and passes, null if none.
+     */
+    private volatile SolverMetrics metrics;
+
+    /**
+     * Constructs a completer running its sweeps on a new pool with the given parallelism.
+     * The pool is shut down by {@link #close()}.
+     *
+     * @param board the {@code Board} object representing the Nonogram puzzle to be solved
+     * @param engineFactory creates the engine of each worker thread, such as {@code CompleteLineSolver::new}
+     * @param parallelism the number of worker threads
+     */
+    public ParallelBoardCompleter(Board board, Supplier<LineSolverEngine> engineFactory, int parallelism) {
+        this(board, engineFactory, new ForkJoinPool(parallelism), true);
+    }
+
+    /**
+     * Constructs a completer running its sweeps on a shared pool, which is left running by {@link #close()}.
+     *
+     * @param board the {@code Board} object representing the Nonogram puzzle to be solved
+     * @param engineFactory creates the engine of each worker thread, such as {@code CompleteLineSolver::new}
+     * @param pool the pool running the sweeps, such as {@link ForkJoinPool#commonPool()}
+     */
+    public ParallelBoardCompleter(Board board, Supplier<LineSolverEngine> engineFactory, ForkJoinPool pool) {
+        this(board, engineFactory, pool, false);
+    }
+
+    private ParallelBoardCompleter(Board board, Supplier<LineSolverEngine> engineFactory, ForkJoinPool pool, boolean ownsPool) {
+        this.board = board;
+        this.horizClues = board.getHorizontalClues();
+        this.vertClues = board.getVerticalClues();
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        int[] dimensions = board.getDimensions();
+        int longest = Math.max(dimensions[0], dimensions[1]);
+        this.engines = ThreadLocal.withInitial(engineFactory);
+        this.completeEngines = engineFactory.get().isComplete();
+        this.lineBuffers = ThreadLocal.withInitial(() -> new byte[longest]);
+        this.queue = new LineQueue(dimensions[0], dimensions[1]);
+        this.sweep = new int[longest];
+        this.changed = new boolean[longest];
+        this.touchedRows = new AtomicIntegerArray(dimensions[1]);
+        this.touchedColumns = new AtomicIntegerArray(dimensions[0]);
+    }
+
+    /**
+     * Sets the metrics receiving the line solves, the progress they make and the time spent per pass and per line length.
+     * The squares deduced by each rule are recorded by the engines, which can be given the same metrics by their factory.
+     *
+     * @param metrics the metrics, null to stop recording
+     */
+    public void setMetrics(SolverMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Solves as much of the board as possible, sweeping the dirty rows then the dirty columns in parallel
+     * until the board reaches its fixpoint or a line contradicts its clue.
+     *
+     * @return a {@code SolveResult} describing the final state of the board, the number of passes and the elapsed time
+     */
+    public SolveResult solve() {
+        long start = System.nanoTime();
+        contradiction = false;
+        queue.markAll();
+        int passes = 0;
+        while (!queue.isEmpty()) {
+            long passStart = System.nanoTime();
+            sweep(true);
+            if (!contradiction) {
+                sweep(false);
+            }
+            passes++;
+            if (contradiction) {
+                queue.clear();
+            }
+            SolverMetrics metrics = this.metrics;
+            if (metrics != null) {
+                metrics.recordPass(System.nanoTime() - passStart);
+            }
+        }
+        SolveResult.Status status = contradiction ? SolveResult.Status.CONTRADICTION : BoardCompleter.statusOf(board);
+        return new SolveResult(status, passes, System.nanoTime() - start);
+    }
+
+    /**
+     * Shuts down the pool if it was created by this completer.
+     */
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Solves every dirty row, or every dirty column, in parallel, then marks the lines they changed as dirty.
+     *
+     * @param isRow true to sweep the rows, false to sweep the columns
+     */
+    private void sweep(boolean isRow) {
+        int count = 0;
+        for (int index = isRow ? queue.pollRow() : queue.pollColumn(); index != -1;
+             index = isRow ? queue.pollRow() : queue.pollColumn()) {
+            sweep[count++] = index;
+        }
+        if (count == 0) {
+            return;
+        }
+        int lines = count;
+        pool.submit(() -> IntStream.range(0, lines).parallel().forEach(i -> changed[i] = solveLine(sweep[i], isRow)))
+                .join();
+
+        AtomicIntegerArray touched = isRow ? touchedColumns : touchedRows;
+        if (!completeEngines) {
+            for (int i = 0; i < count; i++) {
+                if (changed[i]) {
+                    if (isRow) {
+                        queue.markRow(sweep[i]);
+                    } else {
+                        queue.markColumn(sweep[i]);
+                    }
+                }
+            }
+        }
+        for (int crossing = 0; crossing < touched.length(); crossing++) {
+            if (touched.get(crossing) != 0) {
+                touched.set(crossing, 0);
+                if (isRow) {
+                    queue.markColumn(crossing);
+                } else {
+                    queue.markRow(crossing);
+                }
+            }
+        }
+    }
+
+    /**
+     * Solves a single line with the engine of the current thread and applies the new states to the board.
+     *
+     * @param index the row or column number
+     * @param isRow true if the line is a row, false if it is a column
+     * @return true if a square of the line changed
+     */
+    private boolean solveLine(int index, boolean isRow) {
+        if (contradiction) {
+            return false;
+        }
+        Line line = isRow ? board.getRow(index) : board.getColumn(index);
+        Clue clue = isRow ? horizClues.get(index) : vertClues.get(index);
+        byte[] lineBuffer = lineBuffers.get();
+
+        line.copyStates(lineBuffer);
+        SolverMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        int changedSquares = engines.get().solve(lineBuffer, line.size(), clue);
+        if (metrics != null) {
+            metrics.recordLineSolve(line.size(), Math.max(changedSquares, 0), System.nanoTime() - start);
+        }
+        if (changedSquares == LineSolverEngine.CONTRADICTION) {
+            contradiction = true;
+            return false;
+        }
+        if (changedSquares == 0) {
+            return false;
+        }
+        AtomicIntegerArray touched = isRow ? touchedColumns : touchedRows;
+        for (int squareIndex = 0; squareIndex < line.size(); squareIndex++) {
+            byte newState = lineBuffer[squareIndex];
+            if (newState == line.getState(squareIndex)) {
+                continue;
+            }
+            if (newState == Square.FILLED) {
+                line.fill(squareIndex);
+            } else {
+                line.cross(squareIndex);
+            }
+            touched.set(squareIndex, 1);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,112 @@
+package nonogram.solver;
+
+/**
+ * Represents the outcome of counting the solutions of a board with {@link SolutionCounter}.
+ * Holds the number of solutions found, whether the count is exact, the number of guesses explored
+ * and the time it took.
+ *
+ * @author agueguen-LR
+ */
+public class SolutionCount {
+
+    /**
+     * Enum representing how the count ended.
+     * EXACT means every branch was explored and the board has exactly that many solutions,
+     * LIMIT_REACHED means the search stopped once the limit was found, the board has at least that many,
+     * TIMEOUT means the time budget ran out first, the board has at least the solutions found.
+     */
+    public enum Status {
+        EXACT, LIMIT_REACHED, TIMEOUT
+    }
+
+    /**
+     * How the count ended.
+     */
+    private final Status status;
+
+    /**
+     * The number of solutions found.
+     */
+    private final int solutions;
+
+    /**
+     * The number of guesses explored.
+     */
+    private final long branches;
+
+    /**
+     * The time taken by the count, in nanoseconds.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a new SolutionCount.
+     *
+     * @param status how the count ended
+     * @param solutions the number of solutions found
+     * @param branches the number of guesses explored
+     * @param elapsedNanos the time taken by the count, in nanoseconds
+     */
+    public SolutionCount(Status status, int solutions, long branches, long elapsedNanos) {
+        this.status = status;
+        this.solutions = solutions;
+        this.branches = branches;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns how the count ended.
+     *
+     * @return the status of the count
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the number of solutions found, a lower bound unless the status is EXACT.
+     *
+     * @return the number of solutions found
+     */
+    public int getSolutions() {
+        return solutions;
+    }
+
+    /**
+     * Checks if the board is known to have exactly one solution.
+     *
+     * @return true if the count is exact and found a single solution
+     */
+    public boolean isUnique() {
+        return status == Status.EXACT && solutions == 1;
+    }
+
+    /**
+     * Returns the number of guesses explored.
+     *
+     * @return the number of branches
+     */
+    public long getBranches() {
+        return branches;
+    }
+
+    /**
+     * Returns the time taken by the count.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns a string representation of the SolutionCount object.
+     *
+     * @return the string representation of the SolutionCount object
+     */
+    @Override
+    public String toString() {
+        return "SolutionCount{" + "status=" + status + ", solutions=" + solutions + ", branches=" + branches
+                + ", elapsedMillis=" + elapsedNanos / 1_000_000.0 + '}';
+    }
+}
@@ -0,0 +1,212 @@
+package nonogram.solver;
+
+import nonogram.generator.Board;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SolutionCounter tells whether a board has a unique solution, by counting its solutions up to a limit.
+ * The board given is never modified, every search runs on a copy of it.
+ * <p>
+ * The board is first probed with {@link BoardProber}, on the same pool, so the squares it can decide without guessing
+ * never split the search. The first guesses are then made breadth first on copies of the board, each propagated with
+ * {@link BoardCompleter}, until there are enough open branches to keep every worker busy. Each branch is then explored
+ * depth first by its own {@link BoardSearcher}, which backtracks through its trail instead of copying the board, and
+ * solves its lines through a {@link LineMemo} since the same line states come back in many branches. Behind the memos,
+ * the branches of a count share a {@link LineCache}, so a line solved by one worker is not solved again by another. The
+ * workers share the number of solutions found, and all stop once it reaches the limit or the time budget runs out.
+ *
+ * @author agueguen-LR
+ */
+public class SolutionCounter implements AutoCloseable {
+
+    /**
+     * The number of branches opened per worker before the depth first searches start.
+     */
+    private static final int BRANCHES_PER_WORKER = 8;
+
+    /**
+     * The largest number of lines remembered by the memo of each branch.
+     */
+    private static final int MEMO_CAPACITY = 1 << 14;
+
+    /**
+     * The largest number of lines held by the cache shared by the branches of a count.
+     */
+    private static final int CACHE_CAPACITY = 1 << 16;
+
+    /**
+     * The board whose solutions are counted.
+     */
+    private final Board board;
+
+    /**
+     * The pool running the searches.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Whether the pool was created by this counter, and must be shut down by it.
+     */
+    private final boolean ownsPool;
+
+    /**
+     * Constructs a counter running its searches on a new pool with the given parallelism.
+     * The pool is shut down by {@link #close()}.
+     *
+     * @param board the board whose solutions are counted, left unchanged
+     * @param parallelism the number of worker threads
+     */
+    public SolutionCounter(Board board, int parallelism) {
+        this(board, new ForkJoinPool(parallelism), true);
+    }
+
+    /**
+     * Constructs a counter running its searches on a shared pool, which is left running by {@link #close()}.
+     *
+     * @param board the board whose solutions are counted, left unchanged
+     * @param pool the pool running the searches, such as {@link ForkJoinPool#commonPool()}
+     */
+    public SolutionCounter(Board board, ForkJoinPool pool) {
+        this(board, pool, false);
+    }
+
+    private SolutionCounter(Board board, ForkJoinPool pool, boolean ownsPool) {
+        this.board = board;
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+    }
+
+    /**
+     * Counts the solutions of the board, stopping as soon as limit solutions are found.
+     * A limit of 2 is enough to tell whether the solution is unique.
+     *
+     * @param limit the number of solutions after which the count stops
+     * @param timeoutMillis the time budget of the count in milliseconds
+     * @return the number of solutions found and whether that count is exact
+     * @throws CancellationException if the thread is interrupted
+     */
+    public SolutionCount count(int limit, long timeoutMillis) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive: " + limit);
+        }
+        long start = System.nanoTime();
+        long deadline = start + Math.min(TimeUnit.MILLISECONDS.toNanos(timeoutMillis), Long.MAX_VALUE / 2);
+        AtomicInteger found = new AtomicInteger();
+        AtomicLong branches = new AtomicLong();
+
+        ArrayDeque<Board> frontier = split(found, limit, deadline, branches);
+        boolean exhaustive = frontier.isEmpty() || System.nanoTime() - deadline < 0
+                && search(frontier, found, limit, deadline, branches, new LineCache(CACHE_CAPACITY));
+
+        SolutionCount.Status status;
+        if (found.get() >= limit) {
+            status = SolutionCount.Status.LIMIT_REACHED;
+        } else if (exhaustive) {
+            status = SolutionCount.Status.EXACT;
+        } else {
+            status = SolutionCount.Status.TIMEOUT;
+        }
+        return new SolutionCount(status, Math.min(found.get(), limit), branches.get(), System.nanoTime() - start);
+    }
+
+    /**
+     * Shuts down the pool if it was created by this counter.
+     */
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Guesses breadth first until there are enough open branches for the workers.
+     * The branches solved or contradicted by their guess are settled here and never searched.
+     * Splitting stops early once the deadline has passed, leaving the branches still open.
+     *
+     * @return the open branches, each stuck at the fixpoint of its guesses
+     */
+    private ArrayDeque<Board> split(AtomicInteger found, int limit, long deadline, AtomicLong branches) {
+        ArrayDeque<Board> frontier = new ArrayDeque<>();
+        Board root = BoardCompleter.copyOf(board);
+        SolveResult.Status status = new BoardProber(root, pool).probe(deadline).getStatus();
+        if (status == SolveResult.Status.SOLVED) {
+            found.incrementAndGet();
+        } else if (status == SolveResult.Status.STUCK) {
+            frontier.add(root);
+        }
+
+        int target = pool.getParallelism() * BRANCHES_PER_WORKER;
+        while (!frontier.isEmpty() && frontier.size() < target && found.get() < limit
+                && System.nanoTime() - deadline < 0) {
+            Board parent = frontier.poll();
+            int square = new BoardSearcher(parent).chooseSquare();
+            int[] dimensions = parent.getDimensions();
+            for (boolean filled : new boolean[]{true, false}) {
+                Board child = BoardCompleter.copyOf(parent);
+                BoardCompleter completer = new BoardCompleter(child, new CompleteLineSolver());
+                completer.setSquare(square % dimensions[0], square / dimensions[0], filled);
+                completer.propagate();
+                branches.incrementAndGet();
+                status = completer.getStatus();
+                if (status == SolveResult.Status.SOLVED) {
+                    found.incrementAndGet();
+                } else if (status == SolveResult.Status.STUCK) {
+                    frontier.add(child);
+                }
+            }
+        }
+        return frontier;
+    }
+
+    /**
+     * Searches every open branch depth first on the pool.
+     *
+     * @return true if every branch was explored, false if a search stopped early
+     */
+    private boolean search(ArrayDeque<Board> frontier, AtomicInteger found, int limit, long deadline, AtomicLong branches,
+                           LineCache cache) {
+        ArrayList<Callable<Boolean>> searches = new ArrayList<>(frontier.size());
+        for (Board branch : frontier) {
+            searches.add(() -> {
+                BoardSearcher searcher = new BoardSearcher(branch,
+                        new LineMemo(cache.engine(new CompleteLineSolver()), MEMO_CAPACITY));
+                try {
+                    return searcher.countSolutions(found, limit, deadline);
+                } finally {
+                    branches.addAndGet(searcher.getBranches());
+                }
+            });
+        }
+        List<Future<Boolean>> results = pool.invokeAll(searches);
+        boolean exhaustive = true;
+        try {
+            for (Future<Boolean> result : results) {
+                exhaustive &= result.get();
+            }
+        } catch (InterruptedException e) {
+            results.forEach(result -> result.cancel(true));
+            Thread.currentThread().interrupt();
+            CancellationException cancelled = new CancellationException("Counting was interrupted");
+            cancelled.initCause(e);
+            throw cancelled;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return exhaustive;
+    }
+}
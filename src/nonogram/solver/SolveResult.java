@@ -0,0 +1,97 @@
+package nonogram.solver;
+
+/**
+ * Represents the outcome of a headless solve of a nonogram board.
+ * Holds the final status of the board, the number of passes the solver made over it
+ * and the time it took to get there.
+ *
+ * @see BoardCompleter#solve()
+ *
+ * @author agueguen-LR
+ */
+public class SolveResult {
+
+    /**
+     * Enum representing the possible outcomes of a solve.
+     * SOLVED means every square is decided and every line matches its clue,
+     * STUCK means the solver could not decide every square,
+     * CONTRADICTION means the board cannot satisfy its clues.
+     */
+    public enum Status {
+        SOLVED, STUCK, CONTRADICTION
+    }
+
+    /**
+     * The final status of the board.
+     */
+    private final Status status;
+
+    /**
+     * The number of passes the solver made over the board.
+     */
+    private final int passes;
+
+    /**
+     * The time taken by the solve, in nanoseconds.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a new SolveResult.
+     *
+     * @param status the final status of the board
+     * @param passes the number of passes the solver made over the board
+     * @param elapsedNanos the time taken by the solve, in nanoseconds
+     */
+    public SolveResult(Status status, int passes, long elapsedNanos) {
+        this.status = status;
+        this.passes = passes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the final status of the board.
+     *
+     * @return the final status of the board
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Checks if the board was completely solved.
+     *
+     * @return true if the status is SOLVED, false otherwise
+     */
+    public boolean isSolved() {
+        return status == Status.SOLVED;
+    }
+
+    /**
+     * Returns the number of passes the solver made over the board.
+     *
+     * @return the number of passes
+     */
+    public int getPasses() {
+        return passes;
+    }
+
+    /**
+     * Returns the time taken by the solve.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns a string representation of the SolveResult object.
+     *
+     * @return the string representation of the SolveResult object
+     */
+    @Override
+    public String toString() {
+        return "SolveResult{" + "status=" + status + ", passes=" + passes + ", elapsedMillis=" + elapsedNanos / 1_000_000.0 + '}';
+    }
+}
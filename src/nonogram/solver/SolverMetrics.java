@@ -0,0 +1,340 @@
+package nonogram.solver;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and timers filled in by the solvers while they work, to find out where the time goes and which rules
+ * deduce the squares. A single instance can be shared by any number of solvers and threads,
+ * every counter is a {@link LongAdder}.
+ * <p>
+ * {@link BoardCompleter} and {@link ParallelBoardCompleter} record the line solves, their progress,
+ * and the time spent per pass and per line length. {@link LineSolver} records which of its rules
+ * deduced each square. Nothing is recorded by a solver until its metrics are set.
+ * <p>
+ * The counters are read through {@link #snapshot()}, or over JMX once {@link #register(String)} is called.
+ *
+ * @author agueguen-LR
+ */
+public class SolverMetrics implements SolverMetricsMXBean {
+
+    /**
+     * Enum representing the rules of {@link LineSolver}.
+     * CROSS_PLACER is {@link LineSolver#CrossPlacer} and its reversed form,
+     * SPACE_FILLER is {@link LineSolver#SpaceFiller},
+     * EDGE_EXTENDER is {@link LineSolver#edgeExtender} and its reversed form.
+     */
+    public enum Rule {
+        CROSS_PLACER, SPACE_FILLER, EDGE_EXTENDER
+    }
+
+    /**
+     * The number of line length buckets: up to 8 squares, up to 16, and so on up to 1024, then longer.
+     */
+    public static final int LENGTH_BUCKETS = 9;
+
+    private final LongAdder lineSolves = new LongAdder();
+    private final LongAdder productiveLineSolves = new LongAdder();
+    private final LongAdder squaresDeduced = new LongAdder();
+    private final LongAdder passes = new LongAdder();
+    private final LongAdder passNanos = new LongAdder();
+    private final LongAdder[] ruleSquares = adders(Rule.values().length);
+    private final LongAdder[] bucketSolves = adders(LENGTH_BUCKETS);
+    private final LongAdder[] bucketNanos = adders(LENGTH_BUCKETS);
+
+    public SolverMetrics() {}
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Returns the bucket of a line length.
+     *
+     * @param length the number of squares in the line
+     * @return the index of the bucket, from 0 for lines up to 8 squares to {@code LENGTH_BUCKETS - 1} for lines over 1024
+     */
+    public static int lengthBucket(int length) {
+        int log = 32 - Integer.numberOfLeadingZeros(Math.max(length, 1) - 1); // ceil(log2(length))
+        return Math.clamp(log - 3, 0, LENGTH_BUCKETS - 1);
+    }
+
+    /**
+     * Returns the longest line length of a bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return the largest length counted in the bucket, {@link Integer#MAX_VALUE} for the last one
+     */
+    public static int bucketUpperBound(int bucket) {
+        return bucket == LENGTH_BUCKETS - 1 ? Integer.MAX_VALUE : 8 << bucket;
+    }
+
+    /**
+     * Records a line given to an engine.
+     *
+     * @param length the number of squares in the line
+     * @param changed the number of squares the engine changed
+     * @param nanos the time taken by the engine
+     */
+    void recordLineSolve(int length, int changed, long nanos) {
+        lineSolves.increment();
+        if (changed > 0) {
+            productiveLineSolves.increment();
+            squaresDeduced.add(changed);
+        }
+        int bucket = lengthBucket(length);
+        bucketSolves[bucket].increment();
+        bucketNanos[bucket].add(nanos);
+    }
+
+    /**
+     * Records squares deduced by a rule.
+     *
+     * @param rule the rule
+     * @param squares the number of squares
+     */
+    void recordRule(Rule rule, int squares) {
+        if (squares > 0) {
+            ruleSquares[rule.ordinal()].add(squares);
+        }
+    }
+
+    /**
+     * Records a pass over the dirty lines.
+     *
+     * @param nanos the time taken by the pass
+     */
+    void recordPass(long nanos) {
+        passes.increment();
+        passNanos.add(nanos);
+    }
+
+    /**
+     * Returns a copy of the counters. Counters updated while the snapshot is taken may or may not be included.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] rules = new long[ruleSquares.length];
+        for (int i = 0; i < rules.length; i++) {
+            rules[i] = ruleSquares[i].sum();
+        }
+        long[] solves = new long[LENGTH_BUCKETS];
+        long[] nanos = new long[LENGTH_BUCKETS];
+        for (int i = 0; i < LENGTH_BUCKETS; i++) {
+            solves[i] = bucketSolves[i].sum();
+            nanos[i] = bucketNanos[i].sum();
+        }
+        return new Snapshot(lineSolves.sum(), productiveLineSolves.sum(), squaresDeduced.sum(),
+                passes.sum(), passNanos.sum(), rules, solves, nanos);
+    }
+
+    /**
+     * Sets every counter back to zero.
+     */
+    @Override
+    public void reset() {
+        lineSolves.reset();
+        productiveLineSolves.reset();
+        squaresDeduced.reset();
+        passes.reset();
+        passNanos.reset();
+        for (LongAdder adder : ruleSquares) {
+            adder.reset();
+        }
+        for (int i = 0; i < LENGTH_BUCKETS; i++) {
+            bucketSolves[i].reset();
+            bucketNanos[i].reset();
+        }
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, as {@code nonogram:type=SolverMetrics,name=<name>}.
+     *
+     * @param name the name of the metrics in JMX
+     * @return the name the metrics were registered under
+     * @throws IllegalStateException if the name is invalid or already registered
+     */
+    public ObjectName register(String name) {
+        try {
+            ObjectName objectName = new ObjectName("nonogram:type=SolverMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (MalformedObjectNameException | InstanceAlreadyExistsException
+                 | MBeanRegistrationException | NotCompliantMBeanException e) {
+            throw new IllegalStateException("Couldn't register the solver metrics " + name, e);
+        }
+    }
+
+    @Override
+    public long getLineSolves() {
+        return lineSolves.sum();
+    }
+
+    @Override
+    public long getProductiveLineSolves() {
+        return productiveLineSolves.sum();
+    }
+
+    @Override
+    public long getSquaresDeduced() {
+        return squaresDeduced.sum();
+    }
+
+    @Override
+    public long getCrossPlacerSquares() {
+        return ruleSquares[Rule.CROSS_PLACER.ordinal()].sum();
+    }
+
+    @Override
+    public long getSpaceFillerSquares() {
+        return ruleSquares[Rule.SPACE_FILLER.ordinal()].sum();
+    }
+
+    @Override
+    public long getEdgeExtenderSquares() {
+        return ruleSquares[Rule.EDGE_EXTENDER.ordinal()].sum();
+    }
+
+    @Override
+    public long getPasses() {
+        return passes.sum();
+    }
+
+    @Override
+    public long getPassNanos() {
+        return passNanos.sum();
+    }
+
+    /**
+     * An immutable copy of the counters of a {@link SolverMetrics}.
+     */
+    public static class Snapshot {
+
+        private final long lineSolves;
+        private final long productiveLineSolves;
+        private final long squaresDeduced;
+        private final long passes;
+        private final long passNanos;
+        private final long[] ruleSquares;
+        private final long[] bucketSolves;
+        private final long[] bucketNanos;
+
+        private Snapshot(long lineSolves, long productiveLineSolves, long squaresDeduced, long passes, long passNanos,
+                         long[] ruleSquares, long[] bucketSolves, long[] bucketNanos) {
+            this.lineSolves = lineSolves;
+            this.productiveLineSolves = productiveLineSolves;
+            this.squaresDeduced = squaresDeduced;
+            this.passes = passes;
+            this.passNanos = passNanos;
+            this.ruleSquares = ruleSquares;
+            this.bucketSolves = bucketSolves;
+            this.bucketNanos = bucketNanos;
+        }
+
+        /**
+         * Returns the number of lines given to an engine.
+         * @return the number of line solves
+         */
+        public long getLineSolves() {
+            return lineSolves;
+        }
+
+        /**
+         * Returns the number of lines in which the engine changed at least one square.
+         * @return the number of line solves that made progress
+         */
+        public long getProductiveLineSolves() {
+            return productiveLineSolves;
+        }
+
+        /**
+         * Returns the number of squares changed by the engines.
+         * @return the number of squares deduced
+         */
+        public long getSquaresDeduced() {
+            return squaresDeduced;
+        }
+
+        /**
+         * Returns the number of squares deduced by a rule of {@link LineSolver}.
+         * A square deduced by several rules is counted once, for the first rule to deduce its final state.
+         * @param rule the rule
+         * @return the number of squares
+         */
+        public long getRuleSquares(Rule rule) {
+            return ruleSquares[rule.ordinal()];
+        }
+
+        /**
+         * Returns the number of passes over the dirty lines.
+         * @return the number of passes
+         */
+        public long getPasses() {
+            return passes;
+        }
+
+        /**
+         * Returns the time spent in passes over the dirty lines.
+         * @return the time in nanoseconds
+         */
+        public long getPassNanos() {
+            return passNanos;
+        }
+
+        /**
+         * Returns the number of lines of a length bucket given to an engine.
+         * @param bucket the index of the bucket, see {@link #lengthBucket(int)}
+         * @return the number of line solves
+         */
+        public long getBucketSolves(int bucket) {
+            return bucketSolves[bucket];
+        }
+
+        /**
+         * Returns the time spent by the engines on lines of a length bucket.
+         * @param bucket the index of the bucket, see {@link #lengthBucket(int)}
+         * @return the time in nanoseconds
+         */
+        public long getBucketNanos(int bucket) {
+            return bucketNanos[bucket];
+        }
+
+        /**
+         * Returns a string representation of the snapshot, with one line per non-empty length bucket.
+         *
+         * @return the string representation of the snapshot
+         */
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append("lineSolves=").append(lineSolves)
+                    .append(", productive=").append(productiveLineSolves)
+                    .append(", squaresDeduced=").append(squaresDeduced)
+                    .append(", passes=").append(passes)
+                    .append(", passMillis=").append(passNanos / 1_000_000.0);
+            for (Rule rule : Rule.values()) {
+                builder.append(", ").append(rule).append('=').append(ruleSquares[rule.ordinal()]);
+            }
+            for (int bucket = 0; bucket < LENGTH_BUCKETS; bucket++) {
+                if (bucketSolves[bucket] == 0) {
+                    continue;
+                }
+                int upperBound = bucketUpperBound(bucket);
+                builder.append('\n').append(upperBound == Integer.MAX_VALUE ? "longer" : "<=" + upperBound)
+                        .append(": solves=").append(bucketSolves[bucket])
+                        .append(", millis=").append(bucketNanos[bucket] / 1_000_000.0);
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package nonogram.solver;
+
+/**
+ * The JMX view of {@link SolverMetrics}, see {@link SolverMetrics#register(String)}.
+ *
+ * @author agueguen-LR
+ */
+public interface SolverMetricsMXBean {
+
+    /**
+     * @return the number of lines given to an engine
+     */
+    long getLineSolves();
+
+    /**
+     * @return the number of lines in which the engine changed at least one square
+     */
+    long getProductiveLineSolves();
+
+    /**
+     * @return the number of squares changed by the engines
+     */
+    long getSquaresDeduced();
+
+    /**
+     * @return the number of squares deduced by the CrossPlacer rule of {@link LineSolver}
+     */
+    long getCrossPlacerSquares();
+
+    /**
+     * @return the number of squares deduced by the SpaceFiller rule of {@link LineSolver}
+     */
+    long getSpaceFillerSquares();
+
+    /**
+     * @return the number of squares deduced by the edgeExtender rule of {@link LineSolver}
+     */
+    long getEdgeExtenderSquares();
+
+    /**
+     * @return the number of passes over the dirty lines
+     */
+    long getPasses();
+
+    /**
+     * @return the time spent in passes over the dirty lines, in nanoseconds
+     */
+    long getPassNanos();
+
+    /**
+     * Sets every counter back to zero.
+     */
+    void reset();
+}
@@ -0,0 +1,181 @@
+package nonogram.solver;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded stream of square changes, from the thread solving a board to the thread displaying it.
+ * <p>
+ * The changes are kept in a ring buffer written by a single producer and read by a single consumer, neither ever
+ * waits for the other. When the buffer is full the producer drops the change and marks the stream as overflowed:
+ * the consumer then skips every change still queued and copies the whole board instead, see {@link #takeOverflow()}.
+ * A slow consumer therefore never slows the solver down, it only sees the board in fewer, larger steps.
+ * <p>
+ * Each change is packed in an int, the square as y * dimensionX + x in the upper bits and its new state in the lowest two.
+ *
+ * @author agueguen-LR
+ */
+public final class SquareEvents {
+
+    /**
+     * Receives the changes drained from the stream.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Called for each change, in the order they were published.
+         *
+         * @param cell the square, as y * dimensionX + x
+         * @param state the new state of the square, see {@link nonogram.generator.Square}
+         */
+        void squareChanged(int cell, byte state);
+    }
+
+    /**
+     * The ring buffer of packed changes, its length a power of two.
+     */
+    private final int[] events;
+
+    /**
+     * The mask turning a position into an index of the ring buffer.
+     */
+    private final int mask;
+
+    /**
+     * The position of the next change to read, only written by the consumer.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * The position of the next change to write, only written by the producer.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Whether a change was dropped since the consumer last took the overflow.
+     */
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+
+    /**
+     * The number of changes dropped since the stream was created.
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Whether the producer published its last change.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Constructs an empty stream holding up to the given number of changes, rounded up to a power of two.
+     *
+     * @param capacity the number of changes the stream can hold before dropping them
+     */
+    public SquareEvents(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30, got " + capacity);
+        }
+        int length = Integer.highestOneBit(capacity);
+        if (length < capacity) {
+            length <<= 1;
+        }
+        this.events = new int[length];
+        this.mask = length - 1;
+    }
+
+    /**
+     * Publishes the change of a square. Only called by the producer.
+     *
+     * @param cell the square, as y * dimensionX + x
+     * @param state the new state of the square
+     * @return true if the change was queued, false if the stream was full and the change was dropped
+     */
+    public boolean publish(int cell, byte state) {
+        long position = tail.get();
+        if (position - head.get() == events.length) {
+            dropped.incrementAndGet();
+            overflowed.set(true);
+            return false;
+        }
+        events[(int) position & mask] = cell << 2 | state;
+        tail.set(position + 1);
+        return true;
+    }
+
+    /**
+     * Marks that the producer will publish no more change. Only called by the producer.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Passes the oldest queued changes to a listener and removes them from the stream. Only called by the consumer.
+     *
+     * @param max the largest number of changes to drain
+     * @param listener the listener receiving each change
+     * @return the number of changes drained
+     */
+    public int drain(int max, Listener listener) {
+        long position = head.get();
+        int count = (int) Math.min(max, tail.get() - position);
+        for (int i = 0; i < count; i++) {
+            int event = events[(int) (position + i) & mask];
+            listener.squareChanged(event >>> 2, (byte) (event & 3));
+        }
+        head.set(position + count);
+        return count;
+    }
+
+    /**
+     * Checks whether a change was dropped since the last call, and if so skips every change still queued.
+     * Only called by the consumer, which must then read the whole board it follows: every square changed before
+     * the drop is visible to it, and every change made after the call is either queued or overflows again.
+     *
+     * @return true if the consumer must read the whole board again
+     */
+    public boolean takeOverflow() {
+        if (!overflowed.getAndSet(false)) {
+            return false;
+        }
+        head.set(tail.get());
+        return true;
+    }
+
+    /**
+     * Checks whether the producer is done and every change it published was drained or skipped.
+     *
+     * @return true if the consumer will receive no more change
+     */
+    public boolean isFinished() {
+        return closed && head.get() == tail.get() && !overflowed.get();
+    }
+
+    /**
+     * Returns the number of changes queued and not drained yet.
+     *
+     * @return the number of pending changes
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * Returns the number of changes the stream can hold.
+     *
+     * @return the capacity, a power of two
+     */
+    public int capacity() {
+        return events.length;
+    }
+
+    /**
+     * Returns the number of changes dropped because the stream was full.
+     *
+     * @return the number of dropped changes since the stream was created
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+}
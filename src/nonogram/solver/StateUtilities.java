@@ -4,10 +4,11 @@ import nonogram.generator.Square;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 interface StateUtilities {
 
-    ArrayList<Integer> getLineState(ArrayList<Square> line);
+    ArrayList<Integer> getLineState(List<Square> line);
     int stateIndexToSquareIndex(int stateIndex, ArrayList<Integer> lineState);
     ArrayList<Integer> stateSectionToSquareIndexes(int sectionIndex, ArrayList<Integer> lineState);
 
@@ -21,5 +22,5 @@ interface StateUtilities {
     int lengthOfSection(int startIndex, int endIndex, ArrayList<Integer> lineState);
     int lengthOfInterCrossSection(ArrayList<Integer> lineState);
 
-    ArrayList<Integer> updateLineState(ArrayList<Square> line, HashMap<Integer, Boolean> newSquareStates);
+    ArrayList<Integer> updateLineState(List<Square> line, HashMap<Integer, Boolean> newSquareStates);
 }
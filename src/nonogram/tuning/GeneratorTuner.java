@@ -0,0 +1,222 @@
+package nonogram.tuning;
+
+import nonogram.generator.Board;
+import nonogram.generator.BoardGenerator;
+import nonogram.generator.LuminanceMap;
+import nonogram.solver.BoardCompleter;
+import nonogram.solver.CompleteLineSolver;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * GeneratorTuner searches the generation settings of an image for a puzzle that line logic solves completely,
+ * which also means its solution is unique.
+ * <p>
+ * The image is read once, at the smallest pixel size, and every larger pixel size is reduced from that map
+ * with {@link LuminanceMap#downsample(int)}. For each pixel size, from the finest, every threshold is tried with
+ * and without dithering; the candidates of a pixel size are evaluated in parallel, each one generating its board
+ * and solving it headless with {@link CompleteLineSolver}. The search stops at the first pixel size giving a
+ * line-solvable board, and keeps the candidate whose solution is the closest to the brightness of the image.
+ * Candidates filling almost no square, or almost every square, are skipped.
+ *
+ * @author agueguen-LR
+ */
+public class GeneratorTuner implements AutoCloseable {
+
+    /**
+     * The thresholds tried by default, around the 0.5 used by {@link BoardGenerator}.
+     */
+    private static final float[] DEFAULT_THRESHOLDS = {0.3f, 0.35f, 0.4f, 0.45f, 0.5f, 0.55f, 0.6f, 0.65f, 0.7f};
+
+    /**
+     * The smallest share of filled squares of a candidate.
+     */
+    private static final double MIN_FILL = 0.05;
+
+    /**
+     * The largest share of filled squares of a candidate.
+     */
+    private static final double MAX_FILL = 0.95;
+
+    /**
+     * The pool evaluating the candidates.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Whether the pool was created by this tuner, and must be shut down by it.
+     */
+    private final boolean ownsPool;
+
+    /**
+     * The thresholds tried for each pixel size.
+     */
+    private float[] thresholds = DEFAULT_THRESHOLDS;
+
+    /**
+     * Whether each threshold is also tried with dithering.
+     */
+    private boolean dithering = true;
+
+    /**
+     * Constructs a tuner evaluating its candidates on a new pool with the given parallelism.
+     * The pool is shut down by {@link #close()}.
+     *
+     * @param parallelism the number of worker threads
+     */
+    public GeneratorTuner(int parallelism) {
+        this(new ForkJoinPool(parallelism), true);
+    }
+
+    /**
+     * Constructs a tuner evaluating its candidates on a shared pool, which is left running by {@link #close()}.
+     *
+     * @param pool the pool evaluating the candidates, such as {@link ForkJoinPool#commonPool()}
+     */
+    public GeneratorTuner(ForkJoinPool pool) {
+        this(pool, false);
+    }
+
+    private GeneratorTuner(ForkJoinPool pool, boolean ownsPool) {
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+    }
+
+    /**
+     * Sets the thresholds tried for each pixel size, from 0.3 to 0.7 by default.
+     *
+     * @param thresholds the brightness values under which a square is filled
+     */
+    public void setThresholds(float... thresholds) {
+        if (thresholds.length == 0) {
+            throw new IllegalArgumentException("At least one threshold is needed");
+        }
+        this.thresholds = thresholds.clone();
+    }
+
+    /**
+     * Sets whether each threshold is also tried with dithering, true by default.
+     *
+     * @param dithering true to try dithered candidates
+     */
+    public void setDithering(boolean dithering) {
+        this.dithering = dithering;
+    }
+
+    /**
+     * Reads an image and searches its pixel sizes, from minPixelSize up to maxPixelSize by steps of minPixelSize.
+     *
+     * @param image the image file
+     * @param minPixelSize the finest pixel size tried
+     * @param maxPixelSize the coarsest pixel size tried
+     * @return the best line-solvable board, or null if no candidate is line-solvable
+     * @throws IOException if the image cannot be read
+     */
+    public TunedBoard tune(File image, int minPixelSize, int maxPixelSize) throws IOException {
+        return tune(LuminanceMap.read(image, minPixelSize), minPixelSize, maxPixelSize);
+    }
+
+    /**
+     * Searches the pixel sizes of an image already read, from basePixelSize up to maxPixelSize
+     * by steps of basePixelSize.
+     *
+     * @param base the map of the image, read with basePixelSize
+     * @param basePixelSize the pixel size the map was read with
+     * @param maxPixelSize the coarsest pixel size tried
+     * @return the best line-solvable board, or null if no candidate is line-solvable
+     */
+    public TunedBoard tune(LuminanceMap base, int basePixelSize, int maxPixelSize) {
+        int evaluated = 0;
+        for (int factor = 1; basePixelSize * factor <= maxPixelSize; factor++) {
+            LuminanceMap map = base.downsample(factor);
+            if (map.getWidth() == 0 || map.getHeight() == 0) {
+                break;
+            }
+            ArrayList<Candidate> candidates = new ArrayList<>();
+            for (float threshold : thresholds) {
+                candidates.add(new Candidate(map, basePixelSize * factor, threshold, false));
+                if (dithering) {
+                    candidates.add(new Candidate(map, basePixelSize * factor, threshold, true));
+                }
+            }
+            List<Candidate> solvable = pool.submit(() -> candidates.parallelStream().filter(Candidate::evaluate).toList())
+                    .join();
+            evaluated += candidates.size();
+
+            Candidate best = null;
+            for (Candidate candidate : solvable) {
+                if (best == null || candidate.error < best.error) {
+                    best = candidate;
+                }
+            }
+            if (best != null) {
+                return new TunedBoard(new BoardGenerator(best.binary).getBoard(), best.pixelSize, best.threshold,
+                        best.dithered, best.error, evaluated);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Shuts down the pool if it was created by this tuner.
+     */
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A setting of the generator, evaluated on the shared map of its pixel size.
+     */
+    private static final class Candidate {
+
+        private final LuminanceMap map;
+        private final int pixelSize;
+        private final float threshold;
+        private final boolean dithered;
+        private LuminanceMap binary;
+        private double error;
+
+        private Candidate(LuminanceMap map, int pixelSize, float threshold, boolean dithered) {
+            this.map = map;
+            this.pixelSize = pixelSize;
+            this.threshold = threshold;
+            this.dithered = dithered;
+        }
+
+        /**
+         * Generates the board of the candidate and solves it with line logic.
+         *
+         * @return true if the board is line-solvable and neither almost empty nor almost full
+         */
+        private boolean evaluate() {
+            binary = map.binarize(threshold, dithered);
+            int width = map.getWidth();
+            int height = map.getHeight();
+            long filled = 0;
+            double difference = 0;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    float value = binary.get(x, y);
+                    if (value == 0f) {
+                        filled++;
+                    }
+                    difference += Math.abs(value - map.get(x, y));
+                }
+            }
+            double squares = (double) width * height;
+            error = difference / squares;
+            if (filled < MIN_FILL * squares || filled > MAX_FILL * squares) {
+                return false;
+            }
+            Board board = new BoardGenerator(binary).getBoard();
+            return new BoardCompleter(board, new CompleteLineSolver()).solve().isSolved();
+        }
+    }
+}
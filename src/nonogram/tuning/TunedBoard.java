@@ -0,0 +1,127 @@
+package nonogram.tuning;
+
+import nonogram.generator.Board;
+
+/**
+ * A board chosen by the {@link GeneratorTuner}, with the generation settings it was made with.
+ *
+ * @author agueguen-LR
+ */
+public class TunedBoard {
+
+    /**
+     * The board, with every square empty.
+     */
+    private final Board board;
+
+    /**
+     * The size of the pixel blocks the image was reduced to.
+     */
+    private final int pixelSize;
+
+    /**
+     * The brightness under which a square is filled.
+     */
+    private final float threshold;
+
+    /**
+     * Whether the image was dithered.
+     */
+    private final boolean dithered;
+
+    /**
+     * The mean difference between the solution and the brightness of the reduced image.
+     */
+    private final double error;
+
+    /**
+     * The number of candidates evaluated to find the board.
+     */
+    private final int candidates;
+
+    /**
+     * Constructs a new TunedBoard.
+     *
+     * @param board the board, with every square empty
+     * @param pixelSize the size of the pixel blocks the image was reduced to
+     * @param threshold the brightness under which a square is filled
+     * @param dithered whether the image was dithered
+     * @param error the mean difference between the solution and the brightness of the reduced image
+     * @param candidates the number of candidates evaluated to find the board
+     */
+    public TunedBoard(Board board, int pixelSize, float threshold, boolean dithered, double error, int candidates) {
+        this.board = board;
+        this.pixelSize = pixelSize;
+        this.threshold = threshold;
+        this.dithered = dithered;
+        this.error = error;
+        this.candidates = candidates;
+    }
+
+    /**
+     * Returns the board.
+     *
+     * @return the board, with every square empty
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Returns the size of the pixel blocks the image was reduced to.
+     *
+     * @return the pixel size
+     */
+    public int getPixelSize() {
+        return pixelSize;
+    }
+
+    /**
+     * Returns the brightness under which a square is filled.
+     *
+     * @return the threshold, from 0.0 to 1.0
+     */
+    public float getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Checks if the image was dithered.
+     *
+     * @return true if the error of each square was spread to its neighbours
+     */
+    public boolean isDithered() {
+        return dithered;
+    }
+
+    /**
+     * Returns the mean difference between the solution and the brightness of the reduced image.
+     *
+     * @return the error, from 0.0 for a solution matching the image exactly to 1.0
+     */
+    public double getError() {
+        return error;
+    }
+
+    /**
+     * Returns the number of candidates evaluated to find the board.
+     *
+     * @return the number of candidates
+     */
+    public int getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Returns a string representation of the TunedBoard object.
+     *
+     * @return the string representation of the TunedBoard object
+     */
+    @Override
+    public String toString() {
+        int[] dimensions = board.getDimensions();
+        return "TunedBoard{" + "size=" + dimensions[0] + "x" + dimensions[1] + ", pixelSize=" + pixelSize
+                + ", threshold=" + threshold + ", dithered=" + dithered + ", error=" + error
+                + ", candidates=" + candidates + '}';
+    }
+}
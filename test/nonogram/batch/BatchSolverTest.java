@@ -0,0 +1,100 @@
+package nonogram.batch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class BatchSolverTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void directoryListsEveryImage() throws IOException {
+        List<BatchPuzzle> puzzles = BatchPuzzle.list(Path.of("resources"), 3);
+        assertEquals(4, puzzles.size());
+        assertEquals("Camera.bmp", puzzles.getFirst().getPath().getFileName().toString());
+        assertEquals(3, puzzles.getFirst().getPixelSize());
+    }
+
+    @Test
+    void manifestResolvesPathsAndPixelSizes() throws IOException {
+        Path manifest = tempDir.resolve("puzzles.txt");
+        Files.writeString(manifest, "# puzzles\n\na.bmp\nsub/b.png 12\n");
+        List<BatchPuzzle> puzzles = BatchPuzzle.list(manifest, 2);
+        assertEquals(2, puzzles.size());
+        assertEquals(tempDir.resolve("a.bmp").toAbsolutePath(), puzzles.get(0).getPath());
+        assertEquals(2, puzzles.get(0).getPixelSize());
+        assertEquals(tempDir.resolve("sub/b.png").toAbsolutePath(), puzzles.get(1).getPath());
+        assertEquals(12, puzzles.get(1).getPixelSize());
+    }
+
+    @Test
+    void malformedManifestIsRejected() throws IOException {
+        Path manifest = tempDir.resolve("puzzles.txt");
+        Files.writeString(manifest, "a.bmp twelve\n");
+        assertThrows(IOException.class, () -> BatchPuzzle.list(manifest, 1));
+    }
+
+    @Test
+    void writesOneCsvLinePerPuzzle() throws Exception {
+        List<BatchPuzzle> puzzles = List.of(
+                new BatchPuzzle(Path.of("resources/Test.bmp"), 1),
+                new BatchPuzzle(Path.of("resources/Test2.bmp"), 1),
+                new BatchPuzzle(tempDir.resolve("missing.bmp"), 1));
+        StringWriter out = new StringWriter();
+        try (BatchResultWriter writer = new BatchResultWriter(out, BatchResultWriter.Format.CSV)) {
+            new BatchSolver(2, 60_000, false).run(puzzles, writer);
+        }
+        List<String> lines = out.toString().lines().toList();
+        assertEquals(4, lines.size());
+        assertEquals(BatchResult.CSV_HEADER, lines.getFirst());
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("resources/Test.bmp,1,") && line.contains(",SOLVED,")));
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("resources/Test2.bmp,1,") && line.contains(",SOLVED,")));
+        assertTrue(lines.stream().anyMatch(line -> line.contains("missing.bmp") && line.contains(",ERROR,")));
+    }
+
+    @Test
+    void writesJsonLines() throws Exception {
+        Path output = tempDir.resolve("results.jsonl");
+        try (BatchResultWriter writer = BatchResultWriter.open(output)) {
+            new BatchSolver(1, 60_000, true).run(List.of(new BatchPuzzle(Path.of("resources/Test.bmp"), 1)), writer);
+        }
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(1, lines.size());
+        assertTrue(lines.getFirst().startsWith("{\"puzzle\":\"resources/Test.bmp\",\"pixelSize\":1,"));
+        assertTrue(lines.getFirst().contains("\"status\":\"SOLVED\""));
+    }
+
+    @Test
+    void slowPuzzlesTimeOut() throws Exception {
+        StringWriter out = new StringWriter();
+        try (BatchResultWriter writer = new BatchResultWriter(out, BatchResultWriter.Format.JSONL)) {
+            new BatchSolver(1, 1, true).run(List.of(new BatchPuzzle(Path.of("resources/CatPot_Large.png"), 4)), writer);
+        }
+        assertTrue(out.toString().contains("\"status\":\"TIMEOUT\""), out.toString());
+    }
+
+    @Test
+    void puzzleFilesAreSolvedWithoutImages() throws Exception {
+        Path file = tempDir.resolve("example.non");
+        Files.writeString(file, "width 3\nheight 2\nrows\n1,1\n2\ncolumns\n1\n1\n2\ngoal \"101011\"\n");
+        Files.writeString(tempDir.resolve("notes.txt"), "not a puzzle");
+        List<BatchPuzzle> puzzles = BatchPuzzle.list(tempDir, 1);
+        assertEquals(1, puzzles.size());
+        // the goal of the file is not given to the solver
+        assertTrue(puzzles.getFirst().load().getRow(0).isEmpty(0));
+        StringWriter out = new StringWriter();
+        try (BatchResultWriter writer = new BatchResultWriter(out, BatchResultWriter.Format.CSV)) {
+            new BatchSolver(1, 60_000, false).run(puzzles, writer);
+        }
+        assertTrue(out.toString().contains(",3,2,SOLVED,"));
+    }
+}
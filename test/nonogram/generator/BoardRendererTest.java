@@ -0,0 +1,120 @@
+package nonogram.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+
+public class BoardRendererTest {
+
+    private Board board;
+    private BoardRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        ArrayList<Clue> rows = new ArrayList<>();
+        for (int y = 0; y < 4; y++) {
+            rows.add(Clue.of(1, 1));
+        }
+        ArrayList<Clue> columns = new ArrayList<>();
+        for (int x = 0; x < 6; x++) {
+            columns.add(Clue.of(2));
+        }
+        board = new Board(6, 4, rows, columns);
+        renderer = board.renderer();
+    }
+
+    private Rectangle paint(BufferedImage screen, Rectangle clip) {
+        Graphics2D g = screen.createGraphics();
+        try {
+            if (clip != null) {
+                g.setClip(clip);
+            }
+            return renderer.paint(g, screen.getWidth(), screen.getHeight(), Color.BLUE);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private static int centerColor(BufferedImage screen, Rectangle square) {
+        return screen.getRGB((int) square.getCenterX(), (int) square.getCenterY()) & 0xFFFFFF;
+    }
+
+    @Test
+    void nothingChangesBeforeTheFirstPaint() {
+        board.fillSquare(0, 0);
+        assertNull(renderer.changedBounds());
+    }
+
+    @Test
+    void onlyChangedSquaresAreReported() {
+        BufferedImage screen = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+        paint(screen, null);
+        assertNull(renderer.changedBounds());
+
+        board.fillSquare(2, 1);
+        Rectangle square = renderer.changedBounds();
+        assertNotNull(square);
+        assertEquals(square.width, square.height);
+
+        board.crossSquare(3, 1);
+        Rectangle both = renderer.changedBounds();
+        assertEquals(square.x, both.x);
+        assertEquals(square.width * 2, both.width);
+        assertEquals(square.height, both.height);
+    }
+
+    @Test
+    void changedSquaresAreDrawn() {
+        BufferedImage screen = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+        paint(screen, null);
+        board.fillSquare(5, 3);
+        Rectangle filled = renderer.changedBounds();
+        assertEquals(0xFFFFFF, centerColor(screen, filled));
+
+        assertNull(paint(screen, filled));
+        assertEquals(0x000000, centerColor(screen, filled));
+        assertNull(renderer.changedBounds());
+
+        board.crossSquare(0, 0);
+        Rectangle crossed = renderer.changedBounds();
+        paint(screen, crossed);
+        assertEquals(Color.GRAY.brighter().getRGB() & 0xFFFFFF, centerColor(screen, crossed));
+    }
+
+    @Test
+    void squaresDrawnOutsideTheClipAreReturned() {
+        BufferedImage screen = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+        paint(screen, null);
+        board.fillSquare(0, 0);
+        board.fillSquare(5, 3);
+        Rectangle changed = renderer.changedBounds();
+        Rectangle outside = paint(screen, new Rectangle(0, 0, 1, 1));
+        assertEquals(changed, outside);
+        // the squares are on the backing image, painting the area returned shows them
+        assertNull(paint(screen, outside));
+        assertEquals(0x000000, centerColor(screen, new Rectangle(changed.x + changed.width - 10, changed.y + changed.height - 10, 10, 10)));
+    }
+
+    @Test
+    void resizingLaysTheBoardOutAgain() {
+        paint(new BufferedImage(120, 80, BufferedImage.TYPE_INT_RGB), null);
+        board.fillSquare(1, 1);
+        Rectangle small = renderer.changedBounds();
+
+        BufferedImage large = new BufferedImage(600, 400, BufferedImage.TYPE_INT_RGB);
+        assertNull(paint(large, null));
+        // the whole board was drawn again, including the changed square
+        assertNull(renderer.changedBounds());
+        board.clearSquare(1, 1);
+        Rectangle resized = renderer.changedBounds();
+        assertTrue(resized.width > small.width);
+        assertEquals(0x000000, centerColor(large, resized));
+    }
+}
@@ -3,6 +3,10 @@ package nonogram.generator;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -44,6 +48,22 @@ public class BoardTest {
         assertTrue(board.getSquare(1, 1).isCrossed());
     }
 
+    @Test
+    void rowAndColumnViewsShareSquares() {
+        board.getRow(1).fill(0);
+        assertTrue(board.getColumn(0).isFilled(1));
+        assertTrue(board.getSquare(0, 1).isFilled());
+
+        board.getColumn(1).get(0).cross();
+        assertTrue(board.getRow(0).isCrossed(1));
+    }
+
+    @Test
+    void lineViewsAreReused() {
+        assertSame(board.getRow(0), board.getRow(0));
+        assertSame(board.getColumn(1), board.getColumn(1));
+    }
+
     @Test
     void getDimensionsReturnsCorrectDimensions() {
         assertArrayEquals(new int[]{2, 2}, board.getDimensions());
@@ -64,4 +84,22 @@ public class BoardTest {
         String expected = "clue=[2, 3][ ,  ]\nclue=[2, 3][ ,  ]\n";
         assertEquals(expected, board.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void deserializedBoardHasItsLines() throws Exception {
+        board.fillSquare(1, 0);
+        board.crossSquare(0, 1);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(board);
+        }
+        Board copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (Board) in.readObject();
+        }
+        assertTrue(copy.getRow(0).isFilled(1));
+        assertTrue(copy.getColumn(0).isCrossed(1));
+        assertEquals(board.toString(), copy.toString());
+        assertSame(horizontalClues.get(0).intern(), copy.getHorizontalClues().get(0));
+    }
+}
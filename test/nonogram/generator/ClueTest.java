@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 public class ClueTest {
 
@@ -48,4 +49,57 @@ public class ClueTest {
         Clue originalClue = new Clue(brightnessLine);
         assertEquals("clue=[2, 3]", originalClue.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void ofRejectsEmptyBlocks() {
+        assertThrows(IllegalArgumentException.class, () -> Clue.of(2, 0));
+    }
+
+    @Test
+    void cluesWithTheSameLengthsAreEqual() {
+        Clue fromBrightness = new Clue(new float[]{0.1f, 0.1f, 0.6f, 0.1f, 0.1f, 0.1f});
+        assertEquals(Clue.of(2, 3), fromBrightness);
+        assertEquals(Clue.of(2, 3).hashCode(), fromBrightness.hashCode());
+        assertNotEquals(Clue.of(3, 2), fromBrightness);
+        assertEquals(new Clue(), Clue.of());
+    }
+
+    @Test
+    void internedCluesAreShared() {
+        Clue fromBrightness = new Clue(new float[]{0.1f, 0.6f, 0.1f, 0.1f, 0.1f, 0.1f, 0.6f, 0.1f, 0.1f});
+        assertSame(Clue.of(1, 4, 2), fromBrightness.intern());
+        assertSame(Clue.of(1, 4, 2), Clue.of(1, 4, 2));
+        assertNotSame(Clue.of(1, 4, 2), Clue.of(2, 4, 1));
+    }
+
+    @Test
+    void reverseIsPrecomputed() {
+        Clue clue = Clue.of(1, 4, 2);
+        assertSame(clue.reverse(), clue.reverse());
+        assertEquals(List.of(2, 4, 1), clue.reverse().getClue());
+        assertSame(clue, clue.reverse().reverse());
+        Clue palindrome = Clue.of(3, 1, 3);
+        assertSame(palindrome, palindrome.reverse());
+        assertEquals("2 4 1", clue.reverse().getClueString());
+    }
+
+    @Test
+    void lengthsAreReadWithoutBoxing() {
+        Clue clue = Clue.of(1, 4, 2);
+        assertEquals(3, clue.size());
+        assertEquals(4, clue.get(1));
+        assertEquals(7, clue.getSum());
+        assertEquals(9, clue.getMinLength());
+        assertEquals(0, new Clue().getMinLength());
+        assertArrayEquals(new int[]{1, 4, 2}, clue.toArray());
+    }
+
+    @Test
+    void clueCannotBeModified() {
+        Clue clue = Clue.of(1, 4, 2);
+        assertThrows(UnsupportedOperationException.class, () -> clue.getClue().set(0, 5));
+        clue.toArray()[0] = 5;
+        assertEquals(1, clue.get(0));
+        assertSame(clue, clue.copy());
+    }
+}
@@ -0,0 +1,61 @@
+package nonogram.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+public class LuminanceKernelTest {
+
+    private static final int[] TYPES = {
+            BufferedImage.TYPE_INT_RGB,
+            BufferedImage.TYPE_INT_ARGB,
+            BufferedImage.TYPE_INT_BGR,
+            BufferedImage.TYPE_3BYTE_BGR,
+            BufferedImage.TYPE_4BYTE_ABGR,
+            BufferedImage.TYPE_BYTE_INDEXED,
+            BufferedImage.TYPE_BYTE_GRAY,
+            BufferedImage.TYPE_USHORT_565_RGB
+    };
+
+    private static BufferedImage randomImage(int type, Random random) {
+        BufferedImage image = new BufferedImage(13, 7, type);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, 0xFF000000 | random.nextInt(1 << 24));
+            }
+        }
+        return image;
+    }
+
+    private static void assertMatchesGetRGB(BufferedImage image) {
+        LuminanceKernel kernel = LuminanceKernel.of(image);
+        float[] row = new float[image.getWidth()];
+        for (int y = 0; y < image.getHeight(); y++) {
+            kernel.readRow(y, image.getWidth(), row);
+            for (int x = 0; x < image.getWidth(); x++) {
+                int color = image.getRGB(x, y);
+                float expected = (((color >>> 16) & 0xFF) * 0.2126f + ((color >>> 8) & 0xFF) * 0.7152f + (color & 0xFF) * 0.0722f) / 255;
+                assertEquals(expected, row[x], "type " + image.getType() + " at " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    void everyImageTypeMatchesGetRGB() {
+        Random random = new Random(5);
+        for (int type : TYPES) {
+            assertMatchesGetRGB(randomImage(type, random));
+        }
+    }
+
+    @Test
+    void subimagesAreReadFromTheirOwnOrigin() {
+        Random random = new Random(6);
+        for (int type : TYPES) {
+            assertMatchesGetRGB(randomImage(type, random).getSubimage(2, 3, 8, 4));
+        }
+    }
+}
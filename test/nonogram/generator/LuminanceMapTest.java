@@ -0,0 +1,143 @@
+package nonogram.generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+public class LuminanceMapTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File writeImage(BufferedImage image, String name) throws IOException {
+        File file = tempDir.resolve(name).toFile();
+        ImageIO.write(image, "png", file);
+        return file;
+    }
+
+    @Test
+    void blocksAreAveraged() throws IOException {
+        // 4x2 image: the left block is half black, the right block is white
+        BufferedImage image = new BufferedImage(4, 2, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 2; y++) {
+            for (int x = 0; x < 4; x++) {
+                image.setRGB(x, y, x == 0 ? 0x000000 : 0xFFFFFF);
+            }
+        }
+        LuminanceMap map = LuminanceMap.read(writeImage(image, "blocks.png"), 2);
+        assertEquals(2, map.getWidth());
+        assertEquals(1, map.getHeight());
+        assertEquals(0.5f, map.get(0, 0), 1e-6);
+        assertEquals(1f, map.get(1, 0), 1e-6);
+    }
+
+    @Test
+    void edgeBlocksAreAveragedOverTheirPixels() throws IOException {
+        // 7x5 image, black except for a white last column and a white last row
+        BufferedImage image = new BufferedImage(7, 5, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 5; y++) {
+            image.setRGB(6, y, 0xFFFFFF);
+        }
+        for (int x = 0; x < 7; x++) {
+            image.setRGB(x, 4, 0xFFFFFF);
+        }
+        LuminanceMap map = LuminanceMap.read(writeImage(image, "odd.png"), 2);
+        assertEquals(4, map.getWidth());
+        assertEquals(3, map.getHeight());
+        assertEquals(0f, map.get(2, 1));
+        // the edge blocks hold the white pixels only
+        assertEquals(1f, map.get(3, 0), 1e-6);
+        assertEquals(1f, map.get(0, 2), 1e-6);
+        assertEquals(1f, map.get(3, 2), 1e-6);
+    }
+
+    @Test
+    void rectangularImagesGiveRectangularBoards() throws IOException {
+        // 9x4 image with a black 6x2 rectangle at the top left
+        BufferedImage image = new BufferedImage(9, 4, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 9; x++) {
+                image.setRGB(x, y, x < 6 && y < 2 ? 0 : 0xFFFFFF);
+            }
+        }
+        File file = writeImage(image, "wide.png");
+        Board board = new BoardGenerator(file.getPath(), 2).getBoard();
+        assertArrayEquals(new int[]{5, 2}, board.getDimensions());
+        assertEquals("[clue=[3], clue=[]]", board.getHorizontalClues().toString());
+        assertEquals("[clue=[1], clue=[1], clue=[1], clue=[], clue=[]]", board.getVerticalClues().toString());
+    }
+
+    @Test
+    void readingInBandsGivesTheSameMap() throws IOException {
+        File file = new File("resources/CatPot_Large.png");
+        LuminanceMap whole = LuminanceMap.read(file, 12);
+        LuminanceMap banded = LuminanceMap.read(file, 12, 1);
+        assertEquals(whole.getWidth(), banded.getWidth());
+        assertEquals(whole.getHeight(), banded.getHeight());
+        for (int y = 0; y < whole.getHeight(); y++) {
+            assertArrayEquals(whole.getRow(y), banded.getRow(y));
+        }
+    }
+
+    @Test
+    void rowsAndColumnsAreCopies() {
+        LuminanceMap map = new LuminanceMap(2, 2, new float[]{0f, 1f, 0.25f, 0.75f});
+        assertArrayEquals(new float[]{0f, 1f}, map.getRow(0));
+        assertArrayEquals(new float[]{1f, 0.75f}, map.getColumn(1));
+        map.getRow(0)[0] = 1f;
+        assertEquals(0f, map.get(0, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> map.get(2, 0));
+    }
+
+    @Test
+    void downsamplingMatchesReadingCoarser() throws IOException {
+        LuminanceMap fine = LuminanceMap.read(new File("resources/Camera.bmp"), 2);
+        LuminanceMap coarse = LuminanceMap.read(new File("resources/Camera.bmp"), 6);
+        LuminanceMap reduced = fine.downsample(3);
+        assertEquals(coarse.getWidth(), reduced.getWidth());
+        assertEquals(coarse.getHeight(), reduced.getHeight());
+        for (int y = 0; y < coarse.getHeight(); y++) {
+            for (int x = 0; x < coarse.getWidth(); x++) {
+                assertEquals(coarse.get(x, y), reduced.get(x, y), 1e-4);
+            }
+        }
+        assertSame(fine, fine.downsample(1));
+    }
+
+    @Test
+    void binarizingUsesTheThreshold() {
+        LuminanceMap map = new LuminanceMap(3, 1, new float[]{0.2f, 0.5f, 0.8f});
+        assertArrayEquals(new float[]{0f, 1f, 1f}, map.binarize(0.5f, false).getRow(0));
+        assertArrayEquals(new float[]{0f, 0f, 1f}, map.binarize(0.6f, false).getRow(0));
+    }
+
+    @Test
+    void ditheringFollowsTheBrightness() {
+        float[] grey = new float[40 * 40];
+        java.util.Arrays.fill(grey, 0.25f);
+        LuminanceMap dithered = new LuminanceMap(40, 40, grey).binarize(0.5f, true);
+        int filled = 0;
+        for (int y = 0; y < 40; y++) {
+            for (float value : dithered.getRow(y)) {
+                assertTrue(value == 0f || value == 1f);
+                filled += value == 0f ? 1 : 0;
+            }
+        }
+        // a quarter of white spread over the area
+        assertEquals(1200, filled, 40);
+        assertEquals(0, new LuminanceMap(40, 40, grey).binarize(0.5f, false).getRow(0)[0]);
+    }
+
+    @Test
+    void generatorRejectsMissingImage() {
+        assertThrows(UncheckedIOException.class, () -> new BoardGenerator(tempDir.resolve("missing.png").toString(), 1));
+    }
+}
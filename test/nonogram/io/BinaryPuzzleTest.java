@@ -0,0 +1,169 @@
+package nonogram.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import nonogram.generator.Board;
+import nonogram.generator.BoardGenerator;
+import nonogram.generator.Clue;
+import nonogram.solver.BoardCompleter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class BinaryPuzzleTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static void assertSameBoard(Board expected, Board actual) {
+        assertArrayEquals(expected.getDimensions(), actual.getDimensions());
+        assertEquals(expected.getHorizontalClues().toString(), actual.getHorizontalClues().toString());
+        assertEquals(expected.getVerticalClues().toString(), actual.getVerticalClues().toString());
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void puzzlesAndSolutionsRoundTrip() throws IOException {
+        Board solved = new BoardGenerator("resources/Test.bmp", 1).getBoard();
+        new BoardCompleter(solved).solve();
+        Board puzzle = new BoardGenerator("resources/CatPot_Large.png", 12).getBoard();
+        Board partial = new BoardGenerator("resources/Camera.bmp", 1).getBoard();
+        partial.fillSquare(3, 4);
+        partial.crossSquare(19, 19);
+
+        Path file = tempDir.resolve("corpus.nbin");
+        try (BinaryPuzzleWriter writer = new BinaryPuzzleWriter(file)) {
+            writer.write(solved, true);
+            writer.write(puzzle, false);
+            writer.write(partial, true);
+            assertEquals(3, writer.getCount());
+        }
+
+        try (BinaryPuzzleReader reader = new BinaryPuzzleReader(file)) {
+            assertSameBoard(solved, reader.next());
+            assertSameBoard(puzzle, reader.next());
+            assertSameBoard(partial, reader.next());
+            assertFalse(reader.hasNext());
+            assertThrows(NoSuchElementException.class, reader::next);
+        }
+    }
+
+    @Test
+    void formatIsCompact() throws IOException {
+        Board solved = new BoardGenerator("resources/Test.bmp", 1).getBoard();
+        new BoardCompleter(solved).solve();
+        Path file = tempDir.resolve("one.nbin");
+        try (BinaryPuzzleWriter writer = new BinaryPuzzleWriter(file)) {
+            writer.write(solved, true);
+        }
+        // header, dimensions and flags, at most 1 + 10 bytes per clue of a 20 square line, then 400 squares in 100 bytes
+        assertTrue(Files.size(file) <= 5 + 3 + 40 * 11 + 100);
+    }
+
+    @Test
+    void largeValuesUseSeveralVarintBytes() throws IOException {
+        int length = 20_000;
+        ArrayList<Clue> rows = new ArrayList<>(List.of(Clue.of(127, 128, 16_384)));
+        ArrayList<Clue> columns = new ArrayList<>();
+        for (int x = 0; x < length; x++) {
+            columns.add(x < 127 || (x > 127 && x < 256) || (x > 256 && x < 256 + 16_384) ? Clue.of(1) : new Clue());
+        }
+        Board board = new Board(length, 1, rows, columns);
+        Path file = tempDir.resolve("wide.nbin");
+        try (BinaryPuzzleWriter writer = new BinaryPuzzleWriter(file)) {
+            writer.write(board, false);
+        }
+        try (BinaryPuzzleReader reader = new BinaryPuzzleReader(file)) {
+            assertSameBoard(board, reader.next());
+        }
+    }
+
+    @Test
+    void puzzlesAcrossWindowsAreRemapped() throws IOException {
+        Path file = tempDir.resolve("windows.nbin");
+        ArrayList<Board> boards = new ArrayList<>();
+        try (BinaryPuzzleWriter writer = new BinaryPuzzleWriter(file)) {
+            for (int pixelSize : new int[]{36, 12, 20, 30, 15}) {
+                Board board = new BoardGenerator("resources/CatPot_Large.png", pixelSize).getBoard();
+                board.crossSquare(0, 0);
+                boards.add(board);
+                writer.write(board, true);
+            }
+        }
+        // windows far smaller than most puzzles
+        try (BinaryPuzzleReader reader = new BinaryPuzzleReader(file, 64)) {
+            for (Board board : boards) {
+                assertSameBoard(board, reader.next());
+            }
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    void otherFilesAreRejected() throws IOException {
+        Path file = tempDir.resolve("image.nbin");
+        Files.copy(Path.of("resources/Test.bmp"), file);
+        assertThrows(IOException.class, () -> new BinaryPuzzleReader(file));
+    }
+
+    @Test
+    void oversizedPuzzlesAreRejected() throws IOException {
+        Path file = tempDir.resolve("oversized.nbin");
+        // 65536 x 65536, 30000 x 30000 then 4000 x 4000, as 3 byte varints, each line with an empty clue
+        int[] sizes = {65536, 30000, 4000};
+        byte[][] varints = {{(byte) 0x80, (byte) 0x80, 4}, {(byte) 0xB0, (byte) 0xEA, 1}, {(byte) 0xA0, (byte) 0x9F, 0}};
+        String[] reasons = {"too large", "too large", "longer than the file"};
+        for (int i = 0; i < sizes.length; i++) {
+            byte[] forged = new byte[BinaryPuzzleFormat.HEADER_SIZE + 7 + 2 * sizes[i]];
+            System.arraycopy(BinaryPuzzleFormat.MAGIC, 0, forged, 0, BinaryPuzzleFormat.MAGIC.length);
+            forged[BinaryPuzzleFormat.MAGIC.length] = BinaryPuzzleFormat.VERSION;
+            System.arraycopy(varints[i], 0, forged, BinaryPuzzleFormat.HEADER_SIZE, 3);
+            System.arraycopy(varints[i], 0, forged, BinaryPuzzleFormat.HEADER_SIZE + 3, 3);
+            forged[BinaryPuzzleFormat.HEADER_SIZE + 6] = BinaryPuzzleFormat.HAS_SQUARES;
+            Files.write(file, forged);
+            try (BinaryPuzzleReader reader = new BinaryPuzzleReader(file)) {
+                UncheckedIOException e = assertThrows(UncheckedIOException.class, reader::next);
+                assertTrue(e.getCause().getMessage().contains(reasons[i]), e.getCause().getMessage());
+            }
+        }
+    }
+
+    @Test
+    void overlongVarintsAreRejected() throws IOException {
+        Path file = tempDir.resolve("varint.nbin");
+        // a fifth byte with bits past the 32 of an int, then one with its continuation bit set
+        byte[] fifthBytes = {0x10, (byte) 0x81};
+        for (byte fifth : fifthBytes) {
+            byte[] forged = new byte[BinaryPuzzleFormat.HEADER_SIZE + 16];
+            System.arraycopy(BinaryPuzzleFormat.MAGIC, 0, forged, 0, BinaryPuzzleFormat.MAGIC.length);
+            forged[BinaryPuzzleFormat.MAGIC.length] = BinaryPuzzleFormat.VERSION;
+            byte[] varint = {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, fifth};
+            System.arraycopy(varint, 0, forged, BinaryPuzzleFormat.HEADER_SIZE, varint.length);
+            Files.write(file, forged);
+            try (BinaryPuzzleReader reader = new BinaryPuzzleReader(file)) {
+                UncheckedIOException e = assertThrows(UncheckedIOException.class, reader::next);
+                assertEquals("Malformed varint", e.getCause().getMessage());
+            }
+        }
+    }
+
+    @Test
+    void truncatedPuzzlesAreReported() throws IOException {
+        Path file = tempDir.resolve("truncated.nbin");
+        try (BinaryPuzzleWriter writer = new BinaryPuzzleWriter(file)) {
+            writer.write(new BoardGenerator("resources/Test.bmp", 1).getBoard(), true);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 10));
+        try (BinaryPuzzleReader reader = new BinaryPuzzleReader(file)) {
+            assertThrows(UncheckedIOException.class, reader::next);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package nonogram.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import nonogram.generator.Board;
+import nonogram.generator.BoardGenerator;
+import nonogram.solver.BoardCompleter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+public class PuzzleFormatTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final String NON = """
+            catalogue "test #1"
+            title "Example"
+            width 3
+            height 2
+
+            rows
+            1,1
+            2
+
+            columns
+            1
+            1
+            2
+
+            goal "101011"
+            """;
+
+    private static void assertSameClues(Board expected, Board actual) {
+        assertArrayEquals(expected.getDimensions(), actual.getDimensions());
+        assertEquals(expected.getHorizontalClues().toString(), actual.getHorizontalClues().toString());
+        assertEquals(expected.getVerticalClues().toString(), actual.getVerticalClues().toString());
+    }
+
+    @Test
+    void readsNonWithGoal() throws IOException {
+        Board board = PuzzleFormat.NON.read(new StringReader(NON));
+        assertArrayEquals(new int[]{3, 2}, board.getDimensions());
+        assertEquals("[clue=[1, 1], clue=[2]]", board.getHorizontalClues().toString());
+        assertEquals("[clue=[1], clue=[1], clue=[2]]", board.getVerticalClues().toString());
+        assertTrue(board.getRow(0).isFilled(0));
+        assertTrue(board.getRow(0).isCrossed(1));
+        assertTrue(board.getRow(1).isFilled(2));
+    }
+
+    @Test
+    void readsCwd() throws IOException {
+        Board board = PuzzleFormat.CWD.read(new StringReader("2\n3\n1 1\n2\n\n1\n1\n2\n"));
+        assertEquals("[clue=[1, 1], clue=[2]]", board.getHorizontalClues().toString());
+        assertEquals("[clue=[1], clue=[1], clue=[2]]", board.getVerticalClues().toString());
+    }
+
+    @Test
+    void readsXmlWithGoal() throws IOException {
+        String xml = """
+                <?xml version="1.0"?>
+                <!DOCTYPE pbn SYSTEM "https://webpbn.com/pbn-0.3.dtd">
+                <puzzleset>
+                <puzzle type="grid" defaultcolor="black">
+                <title>Example</title>
+                <color name="white" char="-">fff</color>
+                <color name="black" char="#">000</color>
+                <clues type="columns">
+                <line><count>1</count></line>
+                <line><count> 1 </count></line>
+                <line><count>2</count></line>
+                </clues>
+                <clues type="rows">
+                <line><count>1</count><count>1</count></line>
+                <line><count>2</count></line>
+                </clues>
+                <solution type="goal"><image>
+                |#-#|
+                |-##|
+                </image></solution>
+                </puzzle>
+                </puzzleset>
+                """;
+        Board board = PuzzleFormat.XML.read(new StringReader(xml));
+        assertSameClues(PuzzleFormat.NON.read(new StringReader(NON)), board);
+        assertEquals(PuzzleFormat.NON.read(new StringReader(NON)).toString(), board.toString());
+    }
+
+    @Test
+    void everyFormatRoundTripsGeneratedPuzzles() throws IOException {
+        Board board = new BoardGenerator("resources/Camera.bmp", 1).getBoard();
+        for (PuzzleFormat format : PuzzleFormat.values()) {
+            Path file = tempDir.resolve("camera" + format.getExtension());
+            format.write(board, file, false);
+            assertEquals(format, PuzzleFormat.forFile(file));
+            assertSameClues(board, PuzzleFormat.readFile(file));
+        }
+    }
+
+    @Test
+    void solutionsRoundTrip() throws IOException {
+        Board board = new BoardGenerator("resources/Test.bmp", 1).getBoard();
+        new BoardCompleter(board).solve();
+        for (PuzzleFormat format : new PuzzleFormat[]{PuzzleFormat.NON, PuzzleFormat.XML}) {
+            StringWriter out = new StringWriter();
+            format.write(board, out, true);
+            Board read = format.read(new StringReader(out.toString()));
+            assertSameClues(board, read);
+            assertEquals(board.toString(), read.toString());
+        }
+    }
+
+    @Test
+    void inconsistentPuzzlesAreRejected() {
+        // a clue longer than its line
+        assertThrows(IOException.class, () -> PuzzleFormat.CWD.read(new StringReader("1\n2\n1 1\n1\n1\n")));
+        // rows and columns filling a different number of squares
+        assertThrows(IOException.class, () -> PuzzleFormat.CWD.read(new StringReader("1\n2\n1\n1\n1\n")));
+        // a missing clue
+        assertThrows(IOException.class, () -> PuzzleFormat.NON.read(new StringReader("width 2\nheight 1\nrows\n2\ncolumns\n1\n")));
+        // not a number
+        assertThrows(IOException.class, () -> PuzzleFormat.CWD.read(new StringReader("1\n1\nx\n1\n")));
+        // malformed XML
+        assertThrows(IOException.class, () -> PuzzleFormat.XML.read(new StringReader("<puzzleset><puzzle>")));
+    }
+
+    @Test
+    void forgedHeadersAreRejected() {
+        assertThrows(IOException.class, () -> PuzzleFormat.CWD.read(new StringReader("2000000000\n1\n1\n")));
+        assertThrows(IOException.class, () -> PuzzleFormat.NON.read(new StringReader("width 1\nheight 2000000000\nrows\n1\n")));
+        IOException e = assertThrows(IOException.class,
+                () -> PuzzleFormat.newBoard(100000, 100000, new ArrayList<>(), new ArrayList<>()));
+        assertTrue(e.getMessage().contains("too large"));
+        e = assertThrows(IOException.class, () -> PuzzleFormat.newBoard(-1, 0, new ArrayList<>(), new ArrayList<>()));
+        assertTrue(e.getMessage().contains("negative"));
+    }
+
+    @Test
+    void unknownExtensionsHaveNoFormat() {
+        assertNull(PuzzleFormat.forFile(Path.of("puzzle.bmp")));
+        assertThrows(IOException.class, () -> PuzzleFormat.readFile(Path.of("puzzle.bmp")));
+        assertEquals(PuzzleFormat.NON, PuzzleFormat.forFile(Path.of("PUZZLE.NON")));
+    }
+}
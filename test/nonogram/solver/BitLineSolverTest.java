@@ -0,0 +1,140 @@
+package nonogram.solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import nonogram.generator.Board;
+import nonogram.generator.BoardGenerator;
+import nonogram.generator.Clue;
+import nonogram.generator.Square;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class BitLineSolverTest {
+
+    private final BitLineSolver lineSolver = new BitLineSolver();
+
+    /**
+     * Parses a line, O for filled, X for crossed, anything else for empty.
+     */
+    private static byte[] line(String line) {
+        byte[] states = new byte[line.length()];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = line.charAt(i) == 'O' ? Square.FILLED : line.charAt(i) == 'X' ? Square.CROSS : Square.EMPTY;
+        }
+        return states;
+    }
+
+    /**
+     * Returns a random line agreeing with a random solution, and fills in the clue of that solution.
+     */
+    private static byte[] randomLine(Random random, int length, int[][] clue) {
+        byte[] line = new byte[length];
+        int[] runs = new int[length];
+        int count = 0;
+        int run = 0;
+        double density = 0.3 + random.nextDouble() * 0.5;
+        for (int i = 0; i <= length; i++) {
+            boolean filled = i < length && random.nextDouble() < density;
+            if (filled) {
+                run++;
+            } else if (run > 0) {
+                runs[count++] = run;
+                run = 0;
+            }
+            if (i < length && random.nextInt(3) == 0) {
+                line[i] = filled ? Square.FILLED : Square.CROSS;
+            }
+        }
+        clue[0] = Arrays.copyOf(runs, count);
+        return line;
+    }
+
+    @Test
+    void testOverlapFillsTheMiddle() {
+        byte[] line = line("          ");
+        assertEquals(4, lineSolver.solve(line, line.length, Clue.of(7)));
+        assertArrayEquals(line("   OOOO   "), line);
+    }
+
+    @Test
+    void testFilledSquaresPinTheirBlock() {
+        byte[] line = line("    O      ");
+        lineSolver.solve(line, line.length, Clue.of(3));
+        assertArrayEquals(line("XX  O  XXXX"), line);
+    }
+
+    @Test
+    void testEmptyClueCrossesTheLine() {
+        byte[] line = line("   ");
+        assertEquals(3, lineSolver.solve(line, line.length, Clue.of()));
+        assertArrayEquals(line("XXX"), line);
+        assertEquals(0, lineSolver.solve(new byte[0], 0, Clue.of()));
+    }
+
+    @Test
+    void testImpossibleLineIsLeftUntouched() {
+        byte[] line = line("OOO  ");
+        assertEquals(LineSolverEngine.CONTRADICTION, lineSolver.solve(line, line.length, Clue.of(2)));
+        assertArrayEquals(line("OOO  "), line);
+        line = line("   X   ");
+        assertEquals(LineSolverEngine.CONTRADICTION, lineSolver.solve(line, line.length, Clue.of(4)));
+    }
+
+    @Test
+    void testMatchesCompleteLineSolverOnEveryLength() {
+        Random random = new Random(17);
+        CompleteLineSolver complete = new CompleteLineSolver();
+        int[][] clue = new int[1][];
+        // word lines, the longest word line, then lines over one, two and three words
+        for (int n = 0; n < 20000; n++) {
+            int length = switch (n % 4) {
+                case 0 -> 1 + random.nextInt(BitLineSolver.WORD_LENGTH);
+                case 1 -> BitLineSolver.WORD_LENGTH - 1 + random.nextInt(4);
+                case 2 -> 60 + random.nextInt(80);
+                default -> 120 + random.nextInt(150);
+            };
+            byte[] line = randomLine(random, length, clue);
+            Clue lineClue = Clue.of(clue[0]);
+            if (random.nextInt(10) == 0) {
+                // a clue the line may not agree with
+                lineClue = Clue.of(Arrays.stream(clue[0]).map(value -> value + 1).toArray());
+            }
+            byte[] expected = line.clone();
+            int expectedChanged = complete.solve(expected, length, lineClue);
+            assertEquals(expectedChanged, lineSolver.solve(line, length, lineClue), "length " + length + " " + lineClue);
+            assertArrayEquals(expected, line, "length " + length + " " + lineClue);
+        }
+    }
+
+    @Test
+    void testOverlapAcrossWords() {
+        for (int length : new int[] {BitLineSolver.WORD_LENGTH, BitLineSolver.WORD_LENGTH + 1, 200}) {
+            byte[] line = new byte[length];
+            int blockLength = length / 2 + 10;
+            int overlap = 2 * blockLength - length;
+            assertEquals(overlap, lineSolver.solve(line, length, Clue.of(blockLength)));
+            for (int i = 0; i < length; i++) {
+                byte expected = i >= length - blockLength && i < blockLength ? Square.FILLED : Square.EMPTY;
+                assertEquals(expected, line[i], "square " + i + " of " + length);
+            }
+            line[length - 1] = Square.CROSS;
+            line[0] = Square.FILLED;
+            assertEquals(length - 2 - overlap, lineSolver.solve(line, length, Clue.of(blockLength)));
+            assertEquals(Square.FILLED, line[blockLength - 1]);
+            assertEquals(Square.CROSS, line[blockLength]);
+        }
+    }
+
+    @Test
+    void testSolvesBoardsLikeCompleteLineSolver() {
+        Board expected = new BoardGenerator("resources/Test2.bmp", 1).getBoard();
+        SolveResult complete = new BoardCompleter(expected, new CompleteLineSolver()).solve();
+        Board board = new BoardGenerator("resources/Test2.bmp", 1).getBoard();
+        SolveResult result = new BoardCompleter(board, new BitLineSolver()).solve();
+        assertEquals(SolveResult.Status.SOLVED, result.getStatus());
+        assertEquals(complete.getPasses(), result.getPasses());
+        assertEquals(expected.toString(), board.toString());
+    }
+}
@@ -0,0 +1,160 @@
+package nonogram.solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import nonogram.generator.Board;
+import nonogram.generator.BoardGenerator;
+import nonogram.generator.Clue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BoardCompleterTest {
+
+    private Board board;
+    private BoardCompleter completer;
+
+    @BeforeEach
+    void setUp() {
+        board = new BoardGenerator("resources/Test.bmp", 1).getBoard();
+        completer = new BoardCompleter(board);
+    }
+
+    @Test
+    void solveCompletesLineSolvableBoard() {
+        SolveResult result = completer.solve();
+        assertEquals(SolveResult.Status.SOLVED, result.getStatus());
+        assertTrue(result.isSolved());
+        assertTrue(result.getPasses() > 0);
+        assertTrue(result.getElapsedNanos() > 0);
+    }
+
+    @Test
+    void solveLeavesNoEmptySquares() {
+        completer.solve();
+        int[] dimensions = board.getDimensions();
+        for (int y = 0; y < dimensions[1]; y++) {
+            for (int x = 0; x < dimensions[0]; x++) {
+                assertFalse(board.getRow(y).get(x).isEmpty());
+            }
+        }
+    }
+
+    @Test
+    void solvingTwiceIsStable() {
+        completer.solve();
+        String solved = board.toString();
+        SolveResult result = completer.solve();
+        assertEquals(SolveResult.Status.SOLVED, result.getStatus());
+        assertEquals(1, result.getPasses());
+        assertEquals(solved, board.toString());
+    }
+
+    @Test
+    void publishedChangesReplayTheSolve() {
+        Board display = BoardCompleter.copyOf(board);
+        SquareEvents events = new SquareEvents(1 << 12);
+        completer.setEvents(events);
+        completer.solve();
+        events.close();
+
+        BoardAnimator animator = new BoardAnimator(display, board, events, Integer.MAX_VALUE);
+        assertTrue(animator.frame());
+        assertEquals(0, events.getDropped());
+        assertEquals(board.toString(), display.toString());
+    }
+
+    @Test
+    void droppedChangesAreCaughtUpByCopyingTheBoard() {
+        Board display = BoardCompleter.copyOf(board);
+        SquareEvents events = new SquareEvents(4);
+        completer.setEvents(events);
+        completer.solve();
+        events.close();
+        assertTrue(events.getDropped() > 0);
+
+        BoardAnimator animator = new BoardAnimator(display, board, events, 1);
+        assertTrue(animator.frame());
+        assertEquals(board.toString(), display.toString());
+    }
+
+    @Test
+    void changesAreShownAFewPerFrame() {
+        Board display = BoardCompleter.copyOf(board);
+        SquareEvents events = new SquareEvents(1 << 12);
+        completer.setEvents(events);
+        completer.solve();
+        events.close();
+
+        int pending = events.size();
+        BoardAnimator animator = new BoardAnimator(display, board, events, 3);
+        int frames = 0;
+        while (!animator.frame()) {
+            frames++;
+        }
+        assertEquals((pending + 2) / 3 - 1, frames);
+        assertEquals(board.toString(), display.toString());
+    }
+
+    /**
+     * Returns a board whose first row must be full while its second column must be empty.
+     */
+    private static Board contradictoryBoard() {
+        return new Board(2, 2, new ArrayList<>(List.of(Clue.of(2), Clue.of())),
+                new ArrayList<>(List.of(Clue.of(2), Clue.of())));
+    }
+
+    @Test
+    void contradictionStopsTheSolve() {
+        BoardCompleter contradicted = new BoardCompleter(contradictoryBoard(), new CompleteLineSolver());
+        SolveResult result = contradicted.solve();
+        assertEquals(SolveResult.Status.CONTRADICTION, result.getStatus());
+        assertEquals(1, result.getPasses());
+        assertFalse(contradicted.fillBoard());
+        assertTrue(completer.fillBoard());
+    }
+
+    @Test
+    void undoForgetsTheContradiction() {
+        Board board = new Board(2, 1, new ArrayList<>(List.of(Clue.of(1))),
+                new ArrayList<>(List.of(Clue.of(1), Clue.of())));
+        BoardCompleter completer = new BoardCompleter(board, new CompleteLineSolver());
+        int mark = completer.getTrailSize();
+        completer.setSquare(1, 0, true);
+        completer.propagate();
+        assertEquals(SolveResult.Status.CONTRADICTION, completer.getStatus());
+        completer.undo(mark);
+        assertEquals(SolveResult.Status.STUCK, completer.getStatus());
+    }
+
+    @Test
+    void defaultEngineReportsNoContradictionOnSolvableBoards() {
+        // the heuristics of LineSolver cross (0,2), which has to be filled
+        Board board = new Board(5, 5,
+                new ArrayList<>(List.of(Clue.of(2), Clue.of(1, 1), Clue.of(2), Clue.of(1, 1), Clue.of(1))),
+                new ArrayList<>(List.of(Clue.of(), Clue.of(1), Clue.of(2, 1), Clue.of(1, 1), Clue.of(3))));
+        assertNotEquals(SolveResult.Status.CONTRADICTION, new BoardCompleter(board).solve().getStatus());
+    }
+
+    @Test
+    void completeEnginesDoNotSolveTheirLinesTwice() {
+        Board twice = new BoardGenerator("resources/Camera.bmp", 4).getBoard();
+        SolverMetrics twiceMetrics = new SolverMetrics();
+        CompleteLineSolver lineSolver = new CompleteLineSolver();
+        // the same engine, without telling it is complete
+        BoardCompleter twiceCompleter = new BoardCompleter(twice, lineSolver::solve);
+        twiceCompleter.setMetrics(twiceMetrics);
+        twiceCompleter.solve();
+
+        Board once = new BoardGenerator("resources/Camera.bmp", 4).getBoard();
+        SolverMetrics onceMetrics = new SolverMetrics();
+        BoardCompleter onceCompleter = new BoardCompleter(once, new CompleteLineSolver());
+        onceCompleter.setMetrics(onceMetrics);
+        onceCompleter.solve();
+
+        assertEquals(twice.toString(), once.toString());
+        assertTrue(onceMetrics.snapshot().getLineSolves() < twiceMetrics.snapshot().getLineSolves());
+    }
+}
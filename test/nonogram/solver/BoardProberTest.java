@@ -0,0 +1,184 @@
+package nonogram.solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import nonogram.generator.Board;
+import nonogram.generator.Clue;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class BoardProberTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Returns a random image, true for a filled square.
+     */
+    private static boolean[][] image(long seed, int size) {
+        Random random = new Random(seed);
+        boolean[][] image = new boolean[size][size];
+        for (boolean[] row : image) {
+            for (int x = 0; x < size; x++) {
+                row[x] = random.nextBoolean();
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Returns an empty board with the clues of an image.
+     */
+    private static Board board(boolean[][] image) {
+        int size = image.length;
+        ArrayList<Clue> horizontalClues = new ArrayList<>();
+        ArrayList<Clue> verticalClues = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            ArrayList<Float> row = new ArrayList<>();
+            ArrayList<Float> column = new ArrayList<>();
+            for (int j = 0; j < size; j++) {
+                row.add(image[i][j] ? 0f : 1f);
+                column.add(image[j][i] ? 0f : 1f);
+            }
+            horizontalClues.add(new Clue(row));
+            verticalClues.add(new Clue(column));
+        }
+        return new Board(size, size, horizontalClues, verticalClues);
+    }
+
+    private static int emptySquares(Board board) {
+        int[] dimensions = board.getDimensions();
+        int empty = 0;
+        for (int y = 0; y < dimensions[1]; y++) {
+            for (int x = 0; x < dimensions[0]; x++) {
+                if (board.getRow(y).isEmpty(x)) {
+                    empty++;
+                }
+            }
+        }
+        return empty;
+    }
+
+    @Test
+    void testProbedSquaresAgreeWithTheImage() {
+        int lineLogicEmpty = 0;
+        int probedEmpty = 0;
+        for (long seed = 0; seed < 20; seed++) {
+            boolean[][] image = image(seed, 15);
+            Board lineLogic = board(image);
+            new BoardCompleter(lineLogic, new CompleteLineSolver()).solve();
+            Board board = board(image);
+            BoardProber prober = new BoardProber(board, pool);
+            assertNotEquals(SolveResult.Status.CONTRADICTION, prober.probe().getStatus());
+
+            // every deduction is sound, so it holds for the image the clues were made from
+            for (int y = 0; y < 15; y++) {
+                for (int x = 0; x < 15; x++) {
+                    if (!board.getRow(y).isEmpty(x)) {
+                        assertEquals(image[y][x], board.getRow(y).isFilled(x), "square " + x + "," + y + " of " + seed);
+                    }
+                    if (!lineLogic.getRow(y).isEmpty(x)) {
+                        assertFalse(board.getRow(y).isEmpty(x));
+                    }
+                }
+            }
+            lineLogicEmpty += emptySquares(lineLogic);
+            probedEmpty += emptySquares(board);
+        }
+        assertTrue(probedEmpty < lineLogicEmpty / 2, probedEmpty + " empty squares left of " + lineLogicEmpty);
+    }
+
+    @Test
+    void testShortProbesOnOneWorkerAreSound() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            for (long seed = 20; seed < 25; seed++) {
+                boolean[][] image = image(seed, 20);
+                Board board = board(image);
+                BoardProber prober = new BoardProber(board, CompleteLineSolver::new, single, 1);
+                assertNotEquals(SolveResult.Status.CONTRADICTION, prober.probe().getStatus());
+                assertTrue(prober.getDecidedSquares() <= prober.getProbes() * 20 * 20);
+                for (int y = 0; y < 20; y++) {
+                    for (int x = 0; x < 20; x++) {
+                        if (!board.getRow(y).isEmpty(x)) {
+                            assertEquals(image[y][x], board.getRow(y).isFilled(x));
+                        }
+                    }
+                }
+            }
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    void testContradictionIsReported() {
+        boolean[][] image = image(3, 10);
+        Board board = board(image);
+        // the rows of an image with one square switched in the first row, the columns of the original
+        image[0][0] = !image[0][0];
+        Board wrong = new Board(10, 10, board(image).getHorizontalClues(), board.getVerticalClues());
+        assertEquals(SolveResult.Status.CONTRADICTION, new BoardProber(wrong, pool).probe().getStatus());
+        assertEquals(SolveResult.Status.CONTRADICTION, new BoardSearcher(wrong).solve().getStatus());
+    }
+
+    @Test
+    void testOrderSquaresListsEveryEmptySquareOnce() {
+        Board board = board(image(5, 12));
+        new BoardCompleter(board, new CompleteLineSolver()).solve();
+        int[] squares = new BoardProber(board, pool).orderSquares();
+        assertEquals(emptySquares(board), squares.length);
+        boolean[] seen = new boolean[12 * 12];
+        for (int square : squares) {
+            assertTrue(board.getRow(square / 12).isEmpty(square % 12));
+            assertFalse(seen[square]);
+            seen[square] = true;
+        }
+    }
+
+    @Test
+    void testSearchWithProbingGuessesLess() {
+        int plainBranches = 0;
+        int probingBranches = 0;
+        for (long seed = 0; seed < 5; seed++) {
+            BoardSearcher plain = new BoardSearcher(board(image(seed, 20)));
+            assertEquals(SolveResult.Status.SOLVED, plain.solve().getStatus());
+            BoardSearcher probing = new BoardSearcher(board(image(seed, 20)));
+            probing.setProbing(pool);
+            assertEquals(SolveResult.Status.SOLVED, probing.solve().getStatus());
+            plainBranches += plain.getBranches();
+            probingBranches += probing.getBranches();
+        }
+        assertTrue(probingBranches < plainBranches, probingBranches + " branches with probing, " + plainBranches + " without");
+    }
+
+    @Test
+    void testProbingStopsAtTheDeadline() {
+        boolean[][] image = image(0, 25);
+        Board board = board(image);
+        BoardProber prober = new BoardProber(board, pool);
+        assertEquals(SolveResult.Status.STUCK, prober.probe(System.nanoTime() - 1).getStatus());
+        assertEquals(0, prober.getProbes());
+        assertEquals(0, prober.getDecidedSquares());
+    }
+
+    @Test
+    void testProbesMustPropagate() {
+        Board board = board(image(0, 5));
+        assertThrows(IllegalArgumentException.class, () -> new BoardProber(board, CompleteLineSolver::new, pool, 0));
+    }
+}
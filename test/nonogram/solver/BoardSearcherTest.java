@@ -0,0 +1,82 @@
+package nonogram.solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import nonogram.generator.Board;
+import nonogram.generator.Clue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+public class BoardSearcherTest {
+
+    private Constructor<Clue> clueConstructor;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        clueConstructor = Clue.class.getDeclaredConstructor(ArrayList.class, int.class);
+        clueConstructor.setAccessible(true);
+    }
+
+    private ArrayList<Clue> clues(Integer[]... values) throws Exception {
+        ArrayList<Clue> clues = new ArrayList<>();
+        for (Integer[] value : values) {
+            clues.add(clueConstructor.newInstance(new ArrayList<>(Arrays.asList(value)), 1234));
+        }
+        return clues;
+    }
+
+    @Test
+    void searchSolvesBoardWithoutLineLogicProgress() throws Exception {
+        // two diagonals are possible, line logic alone can't start
+        Board board = new Board(2, 2, clues(new Integer[]{1}, new Integer[]{1}), clues(new Integer[]{1}, new Integer[]{1}));
+        assertEquals(SolveResult.Status.STUCK, new BoardCompleter(board, new CompleteLineSolver()).solve().getStatus());
+
+        BoardSearcher searcher = new BoardSearcher(board);
+        SolveResult result = searcher.solve();
+        assertEquals(SolveResult.Status.SOLVED, result.getStatus());
+        assertTrue(searcher.getBranches() >= 1);
+        assertTrue(board.getSquare(0, 0).isFilled() != board.getSquare(1, 0).isFilled());
+        assertTrue(board.getSquare(0, 0).isFilled() == board.getSquare(1, 1).isFilled());
+    }
+
+    @Test
+    void searchReportsBoardWithoutSolution() throws Exception {
+        Board board = new Board(2, 2, clues(new Integer[]{2}, new Integer[]{2}), clues(new Integer[]{1}, new Integer[]{1}));
+        SolveResult result = new BoardSearcher(board).solve();
+        assertEquals(SolveResult.Status.CONTRADICTION, result.getStatus());
+    }
+
+    @Test
+    void searchSolvesRandomBoards() {
+        Random random = new Random(3);
+        for (int n = 0; n < 10; n++) {
+            float[][] brightness = new float[10][10];
+            for (float[] row : brightness) {
+                for (int x = 0; x < row.length; x++) {
+                    row[x] = random.nextFloat();
+                }
+            }
+            ArrayList<Clue> horizontalClues = new ArrayList<>();
+            ArrayList<Clue> verticalClues = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                ArrayList<Float> row = new ArrayList<>();
+                ArrayList<Float> column = new ArrayList<>();
+                for (int j = 0; j < 10; j++) {
+                    row.add(brightness[i][j]);
+                    column.add(brightness[j][i]);
+                }
+                horizontalClues.add(new Clue(row));
+                verticalClues.add(new Clue(column));
+            }
+
+            BoardSearcher searcher = new BoardSearcher(new Board(10, 10, horizontalClues, verticalClues));
+            assertEquals(SolveResult.Status.SOLVED, searcher.solve().getStatus());
+            assertTrue(searcher.getMaxDepth() <= searcher.getBranches());
+        }
+    }
+}
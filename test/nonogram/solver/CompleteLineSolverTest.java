@@ -0,0 +1,154 @@
+package nonogram.solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import nonogram.generator.Board;
+import nonogram.generator.BoardGenerator;
+import nonogram.generator.Clue;
+import nonogram.generator.Square;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class CompleteLineSolverTest {
+
+    private CompleteLineSolver lineSolver;
+    private Constructor<Clue> clueConstructor;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        clueConstructor = Clue.class.getDeclaredConstructor(ArrayList.class, int.class);
+        clueConstructor.setAccessible(true);
+        lineSolver = new CompleteLineSolver();
+    }
+
+    private Clue clue(Integer... values) throws InvocationTargetException, InstantiationException, IllegalAccessException {
+        return clueConstructor.newInstance(new ArrayList<>(Arrays.asList(values)), 1234);
+    }
+
+    private static byte[] line(String squares) {
+        byte[] line = new byte[squares.length()];
+        for (int i = 0; i < squares.length(); i++) {
+            char c = squares.charAt(i);
+            line[i] = c == 'O' ? Square.FILLED : c == 'X' ? Square.CROSS : Square.EMPTY;
+        }
+        return line;
+    }
+
+    @Test
+    void testOverlap() throws Exception {
+        byte[] line = line("                    ");
+        assertEquals(10, lineSolver.solve(line, line.length, clue(5, 7, 4)));
+        assertArrayEquals(line("  OOO   OOOOO   OO  "), line);
+    }
+
+    @Test
+    void testEmptyClueCrossesEverything() throws Exception {
+        byte[] line = line("    ");
+        assertEquals(4, lineSolver.solve(line, line.length, clue()));
+        assertArrayEquals(line("XXXX"), line);
+    }
+
+    @Test
+    void testCompletedBlocksAreSurroundedByCrosses() throws Exception {
+        byte[] line = line(" OOOO      ");
+        lineSolver.solve(line, line.length, clue(4, 4));
+        assertArrayEquals(line("XOOOOX OOO "), line);
+    }
+
+    @Test
+    void testFilledSquaresPinTheirBlock() throws Exception {
+        byte[] line = line("    O      ");
+        lineSolver.solve(line, line.length, clue(3));
+        assertArrayEquals(line("XX  O  XXXX"), line);
+    }
+
+    @Test
+    void testImpossibleLineIsLeftUntouched() throws Exception {
+        byte[] line = line("OOO  ");
+        assertEquals(LineSolverEngine.CONTRADICTION, lineSolver.solve(line, line.length, clue(2)));
+        assertArrayEquals(line("OOO  "), line);
+    }
+
+    @Test
+    void testMatchesEveryPlacement() throws Exception {
+        Random random = new Random(7);
+        for (int n = 0; n < 3000; n++) {
+            int length = 1 + random.nextInt(12);
+            byte[] solution = new byte[length];
+            ArrayList<Integer> values = new ArrayList<>();
+            int run = 0;
+            for (int i = 0; i <= length; i++) {
+                if (i < length && random.nextBoolean()) {
+                    solution[i] = Square.FILLED;
+                    run++;
+                } else {
+                    if (i < length) {solution[i] = Square.CROSS;}
+                    if (run > 0) {values.add(run);}
+                    run = 0;
+                }
+            }
+            byte[] line = new byte[length];
+            for (int i = 0; i < length; i++) {
+                if (random.nextInt(3) == 0) {line[i] = solution[i];}
+            }
+            Clue clue = clueConstructor.newInstance(values, 1234);
+
+            byte[] expected = bruteForce(line, values);
+            lineSolver.solve(line, length, clue);
+            assertArrayEquals(expected, line, "clue " + values);
+        }
+    }
+
+    @Test
+    void testSolvesGeneratedBoardThatHeuristicsLeaveStuck() {
+        Board board = new BoardGenerator("resources/Test2.bmp", 1).getBoard();
+        SolveResult result = new BoardCompleter(board, lineSolver).solve();
+        assertEquals(SolveResult.Status.SOLVED, result.getStatus());
+    }
+
+    /**
+     * Intersects every assignment of the line that agrees with its squares and clue.
+     */
+    private static byte[] bruteForce(byte[] line, List<Integer> clue) {
+        int length = line.length;
+        byte[] result = line.clone();
+        boolean[] canFill = new boolean[length];
+        boolean[] canCross = new boolean[length];
+        for (int mask = 0; mask < 1 << length; mask++) {
+            ArrayList<Integer> runs = new ArrayList<>();
+            int run = 0;
+            boolean agrees = true;
+            for (int i = 0; i <= length; i++) {
+                boolean filled = i < length && (mask >> i & 1) == 1;
+                if (i < length && (filled ? line[i] == Square.CROSS : line[i] == Square.FILLED)) {
+                    agrees = false;
+                    break;
+                }
+                if (filled) {
+                    run++;
+                } else if (run > 0) {
+                    runs.add(run);
+                    run = 0;
+                }
+            }
+            if (agrees && runs.equals(clue)) {
+                for (int i = 0; i < length; i++) {
+                    if ((mask >> i & 1) == 1) {canFill[i] = true;} else {canCross[i] = true;}
+                }
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            if (line[i] == Square.EMPTY && canFill[i] != canCross[i]) {
+                result[i] = canFill[i] ? Square.FILLED : Square.CROSS;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,113 @@
+package nonogram.solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import nonogram.generator.Board;
+import nonogram.generator.BoardGenerator;
+import nonogram.generator.Clue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class DifficultyRaterTest {
+
+    private static ArrayList<Clue> clues(int count, int... values) {
+        ArrayList<Clue> clues = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            clues.add(Clue.of(values));
+        }
+        return clues;
+    }
+
+    @Test
+    void lineSolvableBoardIsRatedFromItsRules() {
+        Board board = new BoardGenerator("resources/Test.bmp", 1).getBoard();
+        String before = board.toString();
+        Difficulty difficulty = new DifficultyRater().rate(board);
+
+        assertEquals(SolveResult.Status.SOLVED, difficulty.getStatus());
+        assertTrue(difficulty.isLineSolvable());
+        assertEquals(0, difficulty.getMaxDepth());
+        assertTrue(difficulty.getPasses() > 0);
+        long ruleSquares = 0;
+        for (SolverMetrics.Rule rule : SolverMetrics.Rule.values()) {
+            ruleSquares += difficulty.getRuleSquares(rule);
+        }
+        int[] dimensions = board.getDimensions();
+        assertEquals(dimensions[0] * dimensions[1],
+                ruleSquares + difficulty.getLineLogicSquares() + difficulty.getSearchSquares());
+        assertTrue(difficulty.getScore() >= 1);
+        assertEquals(before, board.toString());
+    }
+
+    @Test
+    void guessingRatesHigherThanLineLogic() {
+        DifficultyRater rater = new DifficultyRater();
+        Difficulty easy = rater.rate(new Board(2, 2, clues(2, 2), clues(2, 2)));
+        Difficulty hard = rater.rate(new Board(2, 2, clues(2, 1), clues(2, 1)));
+
+        assertTrue(easy.isLineSolvable());
+        assertEquals(SolveResult.Status.SOLVED, hard.getStatus());
+        assertFalse(hard.isLineSolvable());
+        assertTrue(hard.getBranches() >= 1);
+        assertEquals(4, hard.getSearchSquares());
+        assertTrue(hard.getScore() > easy.getScore());
+    }
+
+    @Test
+    void boardWithoutSolutionIsReported() {
+        Difficulty difficulty = new DifficultyRater().rate(new Board(2, 2, clues(2, 2), clues(2, 1)));
+        assertEquals(SolveResult.Status.CONTRADICTION, difficulty.getStatus());
+    }
+
+    @Test
+    void ratesTheSameBoardRepeatedly() {
+        DifficultyRater rater = new DifficultyRater();
+        Board board = new BoardGenerator("resources/Camera.bmp", 4).getBoard();
+        Difficulty first = rater.rate(board);
+        assertEquals(SolveResult.Status.SOLVED, first.getStatus());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(first.getScore(), rater.rate(board).getScore(), 1e-9);
+        }
+    }
+
+    @Test
+    void wrongRuleSquaresAreNotTrusted() {
+        // the rules cross (0,2), which complete line logic fills
+        ArrayList<Clue> rows = new ArrayList<>(List.of(Clue.of(2), Clue.of(1, 1), Clue.of(2), Clue.of(1, 1), Clue.of(1)));
+        ArrayList<Clue> columns = new ArrayList<>(List.of(Clue.of(), Clue.of(1), Clue.of(2, 1), Clue.of(1, 1), Clue.of(3)));
+        Difficulty difficulty = new DifficultyRater().rate(new Board(5, 5, rows, columns));
+        assertNotEquals(SolveResult.Status.CONTRADICTION, difficulty.getStatus());
+    }
+
+    @Test
+    void boardsWithASolutionAreNeverContradictions() {
+        Random random = new Random(11);
+        DifficultyRater rater = new DifficultyRater();
+        for (int n = 0; n < 300; n++) {
+            int size = 5 + 5 * (n % 3);
+            ArrayList<Clue> rows = new ArrayList<>();
+            ArrayList<Clue> columns = new ArrayList<>();
+            float[][] image = new float[size][size];
+            for (float[] row : image) {
+                for (int x = 0; x < size; x++) {
+                    row[x] = random.nextFloat();
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                float[] row = new float[size];
+                float[] column = new float[size];
+                for (int j = 0; j < size; j++) {
+                    row[j] = image[i][j];
+                    column[j] = image[j][i];
+                }
+                rows.add(new Clue(row));
+                columns.add(new Clue(column));
+            }
+            Difficulty difficulty = rater.rate(new Board(size, size, rows, columns));
+            assertNotEquals(SolveResult.Status.CONTRADICTION, difficulty.getStatus(), "board " + n);
+        }
+    }
+}
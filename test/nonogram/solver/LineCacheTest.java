@@ -0,0 +1,141 @@
+package nonogram.solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import nonogram.generator.Board;
+import nonogram.generator.BoardGenerator;
+import nonogram.generator.Clue;
+import nonogram.generator.Square;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class LineCacheTest {
+
+    /**
+     * Returns an engine solving with complete line logic and counting its solves.
+     */
+    private static LineSolverEngine counting(int[] solves) {
+        CompleteLineSolver engine = new CompleteLineSolver();
+        return (line, length, clue) -> {
+            solves[0]++;
+            return engine.solve(line, length, clue);
+        };
+    }
+
+    @Test
+    void cacheSolvesLinesLikeItsEngine() {
+        Random random = new Random(5);
+        CompleteLineSolver engine = new CompleteLineSolver();
+        LineCache cache = new LineCache(100);
+        LineSolverEngine cached = cache.engine(new CompleteLineSolver());
+        Clue[] clues = {Clue.of(3, 1), Clue.of(2, 2, 5), Clue.of(1), Clue.of(20, 20, 1)};
+        for (int n = 0; n < 3000; n++) {
+            Clue clue = clues[random.nextInt(clues.length)];
+            // lines longer than a packed word
+            byte[] line = new byte[50];
+            for (int i = 0; i < line.length; i++) {
+                int r = random.nextInt(8);
+                line[i] = r == 0 ? Square.FILLED : r == 1 ? Square.CROSS : Square.EMPTY;
+            }
+            byte[] expected = line.clone();
+            int expectedChanged = engine.solve(expected, expected.length, clue);
+            assertEquals(expectedChanged, cached.solve(line, line.length, clue));
+            assertArrayEquals(expected, line);
+        }
+        assertTrue(cache.size() <= 112);
+        assertEquals(3000, cache.getHits() + cache.getMisses());
+    }
+
+    @Test
+    void equalCluesShareTheirLines() {
+        int[] solves = {0};
+        LineCache cache = new LineCache(16);
+        LineSolverEngine first = cache.engine(counting(solves));
+        LineSolverEngine second = cache.engine(counting(solves));
+
+        byte[] line = new byte[5];
+        assertEquals(3, first.solve(line, line.length, Clue.of(4)));
+        line = new byte[5];
+        assertEquals(3, second.solve(line, line.length, Clue.of(4)));
+        assertArrayEquals(new byte[]{0, Square.FILLED, Square.FILLED, Square.FILLED, 0}, line);
+
+        assertEquals(1, solves[0]);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    void differentLinesAreSolvedApart() {
+        int[] solves = {0};
+        LineCache cache = new LineCache(16);
+        LineSolverEngine engine = cache.engine(counting(solves));
+        engine.solve(new byte[5], 5, Clue.of(4));
+        engine.solve(new byte[6], 6, Clue.of(4));
+        engine.solve(new byte[5], 5, Clue.of(1, 2));
+        engine.solve(new byte[]{Square.FILLED, 0, 0, 0, 0}, 5, Clue.of(4));
+        assertEquals(4, solves[0]);
+        assertEquals(4, cache.size());
+    }
+
+    @Test
+    void leastRecentlyUsedLineIsEvicted() {
+        int[] solves = {0};
+        LineCache cache = new LineCache(2);
+        LineSolverEngine engine = cache.engine(counting(solves));
+        Clue a = Clue.of(1);
+        Clue b = Clue.of(2);
+        Clue c = Clue.of(3);
+        engine.solve(new byte[4], 4, a);
+        engine.solve(new byte[4], 4, b);
+        engine.solve(new byte[4], 4, a);
+        engine.solve(new byte[4], 4, c);
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.size());
+
+        engine.solve(new byte[4], 4, a);
+        assertEquals(3, solves[0]);
+        engine.solve(new byte[4], 4, b);
+        assertEquals(4, solves[0]);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    void parallelSolvingSharesOneCache() {
+        Board sequential = new BoardGenerator("resources/Camera.bmp", 2).getBoard();
+        SolveResult expected = new BoardCompleter(sequential, new CompleteLineSolver()).solve();
+
+        LineCache cache = new LineCache(1 << 12);
+        Board parallel = new BoardGenerator("resources/Camera.bmp", 2).getBoard();
+        try (ParallelBoardCompleter completer = new ParallelBoardCompleter(parallel,
+                () -> cache.engine(new CompleteLineSolver()), 4)) {
+            assertEquals(expected.getStatus(), completer.solve().getStatus());
+        }
+        assertEquals(sequential.toString(), parallel.toString());
+
+        // solving the same puzzle again only hits
+        long misses = cache.getMisses();
+        Board again = new BoardGenerator("resources/Camera.bmp", 2).getBoard();
+        new BoardCompleter(again, cache.engine(new CompleteLineSolver())).solve();
+        assertEquals(sequential.toString(), again.toString());
+        assertEquals(misses, cache.getMisses());
+    }
+
+    @Test
+    void contradictionsAreCached() {
+        int[] solves = {0};
+        LineCache cache = new LineCache(16);
+        LineSolverEngine engine = cache.engine(counting(solves));
+        for (int n = 0; n < 3; n++) {
+            byte[] line = {Square.FILLED, Square.FILLED, Square.FILLED, 0};
+            assertEquals(LineSolverEngine.CONTRADICTION, engine.solve(line, line.length, Clue.of(2)));
+            assertEquals(Square.EMPTY, line[3]);
+        }
+        assertEquals(1, solves[0]);
+        assertEquals(2, cache.getHits());
+    }
+}
@@ -0,0 +1,65 @@
+package nonogram.solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import nonogram.generator.Clue;
+import nonogram.generator.Square;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class LineMemoTest {
+
+    @Test
+    void memoSolvesLinesLikeItsEngine() {
+        Random random = new Random(11);
+        CompleteLineSolver engine = new CompleteLineSolver();
+        LineMemo memo = new LineMemo(new CompleteLineSolver(), 64);
+        Clue[] clues = {Clue.of(3, 1), Clue.of(2, 2), Clue.of(1)};
+        for (int n = 0; n < 2000; n++) {
+            Clue clue = clues[random.nextInt(clues.length)];
+            byte[] line = new byte[8];
+            for (int i = 0; i < line.length; i++) {
+                int r = random.nextInt(6);
+                line[i] = r == 0 ? Square.FILLED : r == 1 ? Square.CROSS : Square.EMPTY;
+            }
+            byte[] expected = line.clone();
+            int expectedChanged = engine.solve(expected, expected.length, clue);
+            assertEquals(expectedChanged, memo.solve(line, line.length, clue));
+            assertArrayEquals(expected, line);
+            assertTrue(memo.size() <= 64);
+        }
+    }
+
+    @Test
+    void hitsDoNotSolveAgain() {
+        int[] solves = {0};
+        LineMemo memo = new LineMemo((line, length, clue) -> {
+            solves[0]++;
+            return new CompleteLineSolver().solve(line, length, clue);
+        }, 16);
+        Clue clue = Clue.of(4);
+        for (int n = 0; n < 3; n++) {
+            byte[] line = new byte[5];
+            assertEquals(3, memo.solve(line, line.length, clue));
+            assertTrue(Arrays.equals(new byte[]{0, Square.FILLED, Square.FILLED, Square.FILLED, 0}, line));
+        }
+        assertEquals(1, solves[0]);
+    }
+
+    @Test
+    void contradictionsAreRemembered() {
+        int[] solves = {0};
+        LineMemo memo = new LineMemo((line, length, clue) -> {
+            solves[0]++;
+            return new CompleteLineSolver().solve(line, length, clue);
+        }, 16);
+        for (int n = 0; n < 3; n++) {
+            byte[] line = {Square.FILLED, Square.FILLED, Square.FILLED, 0};
+            assertEquals(LineSolverEngine.CONTRADICTION, memo.solve(line, line.length, Clue.of(2)));
+            assertEquals(Square.EMPTY, line[3]);
+        }
+        assertEquals(1, solves[0]);
+    }
+}
@@ -0,0 +1,55 @@
+package nonogram.solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LineQueueTest {
+
+    private LineQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new LineQueue(3, 2);
+    }
+
+    @Test
+    void initialQueueIsEmpty() {
+        assertTrue(queue.isEmpty());
+        assertEquals(-1, queue.pollRow());
+        assertEquals(-1, queue.pollColumn());
+    }
+
+    @Test
+    void markAllQueuesEveryLine() {
+        queue.markAll();
+        assertEquals(2, queue.rowCount());
+        assertEquals(3, queue.columnCount());
+    }
+
+    @Test
+    void lineIsQueuedOnlyOnce() {
+        queue.markRow(1);
+        queue.markRow(1);
+        assertEquals(1, queue.rowCount());
+        assertEquals(1, queue.pollRow());
+        assertTrue(queue.isEmpty());
+
+        queue.markRow(1);
+        assertEquals(1, queue.rowCount());
+    }
+
+    @Test
+    void linesArePolledInOrder() {
+        queue.markColumn(2);
+        queue.markColumn(0);
+        queue.markColumn(1);
+        assertEquals(2, queue.pollColumn());
+        queue.markColumn(2);
+        assertEquals(0, queue.pollColumn());
+        assertEquals(1, queue.pollColumn());
+        assertEquals(2, queue.pollColumn());
+        assertTrue(queue.isEmpty());
+    }
+}
@@ -179,5 +179,106 @@ public class LineSolverTest {
         expectedCrossedSquares = new ArrayList<>(Arrays.asList(0, 5));
         assertEquals(expectedCrossedSquares, crossedSquares);
     }
-    
-}
\ No newline at end of file
+
+    @Test
+    void testSolveMatchesGetNewSquareStates() throws NoSuchMethodException, InvocationTargetException, InstantiationException, IllegalAccessException {
+        Constructor<Clue> clueConstructor = Clue.class.getDeclaredConstructor(ArrayList.class, int.class);
+        clueConstructor.setAccessible(true);
+        Random random = new Random(42);
+        byte[] states = new byte[20];
+
+        for (int n = 0; n < 5000; n++) {
+            int length = 1 + random.nextInt(states.length);
+
+            // clue of a random solution, with some of its squares revealed
+            ArrayList<Integer> clueValues = new ArrayList<>();
+            ArrayList<Square> line = new ArrayList<>();
+            int run = 0;
+            for (int i = 0; i <= length; i++) {
+                boolean filled = i < length && random.nextBoolean();
+                if (filled) {
+                    run++;
+                } else if (run > 0) {
+                    clueValues.add(run);
+                    run = 0;
+                }
+                if (i < length) {
+                    Square square = new Square();
+                    int reveal = random.nextInt(4);
+                    if (reveal == 0) {
+                        if (filled) {square.fill();} else {square.cross();}
+                    }
+                    line.add(square);
+                }
+            }
+            Clue clue = clueConstructor.newInstance(clueValues, 1234);
+
+            HashMap<Integer, Boolean> expected;
+            try {
+                expected = lineSolver.getNewSquareStates(line, clue);
+            } catch (IndexOutOfBoundsException e) {
+                continue; // the list heuristics don't guard every index, nothing to compare against
+            }
+
+            for (int i = 0; i < length; i++) {
+                states[i] = line.get(i).getState();
+            }
+            int changed = lineSolver.solve(states, length, clue);
+
+            assertEquals(expected.size(), changed, "line " + line + " " + clue);
+            for (int i = 0; i < length; i++) {
+                if (expected.containsKey(i)) {
+                    assertEquals(expected.get(i) ? Square.FILLED : Square.CROSS, states[i], "line " + line + " " + clue);
+                } else {
+                    assertEquals(line.get(i).getState(), states[i], "line " + line + " " + clue);
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses a line, O for filled, X for crossed, anything else for empty.
+     */
+    private static byte[] states(String line) {
+        byte[] states = new byte[line.length()];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = line.charAt(i) == 'O' ? Square.FILLED : line.charAt(i) == 'X' ? Square.CROSS : Square.EMPTY;
+        }
+        return states;
+    }
+
+    @Test
+    void testSolveReportsContradictions() {
+        String[] lines = {"OOO  ", "O O O", "   ", "XXX  ", "OXOXX"};
+        Clue[] clues = {Clue.of(2), Clue.of(1, 1), Clue.of(2, 2), Clue.of(3), Clue.of(2)};
+        for (int n = 0; n < lines.length; n++) {
+            byte[] line = states(lines[n]);
+            assertEquals(LineSolverEngine.CONTRADICTION, lineSolver.solve(line, line.length, clues[n]), lines[n]);
+            assertArrayEquals(states(lines[n]), line);
+        }
+        byte[] line = states("O    ");
+        assertNotEquals(LineSolverEngine.CONTRADICTION, lineSolver.solve(line, line.length, Clue.of(2, 1)));
+    }
+
+    @Test
+    void testContradictionsAreNeverReportedForSolvableLines() {
+        Random random = new Random(3);
+        CompleteLineSolver complete = new CompleteLineSolver();
+        for (int n = 0; n < 5000; n++) {
+            int length = 1 + random.nextInt(10);
+            byte[] line = new byte[length];
+            for (int i = 0; i < length; i++) {
+                line[i] = (byte) random.nextInt(3);
+            }
+            int[] values = new int[random.nextInt(4)];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = 1 + random.nextInt(3);
+            }
+            Clue clue = Clue.of(values);
+            byte[] copy = line.clone();
+            if (lineSolver.solve(line, length, clue) == LineSolverEngine.CONTRADICTION) {
+                assertEquals(LineSolverEngine.CONTRADICTION, complete.solve(copy, length, clue), clue + " " + Arrays.toString(copy));
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package nonogram.solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import nonogram.generator.Board;
+import nonogram.generator.BoardGenerator;
+import nonogram.generator.Clue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelBoardCompleterTest {
+
+    @Test
+    void solveCompletesLineSolvableBoard() {
+        Board board = new BoardGenerator("resources/Test.bmp", 1).getBoard();
+        try (ParallelBoardCompleter completer = new ParallelBoardCompleter(board, CompleteLineSolver::new, 4)) {
+            SolveResult result = completer.solve();
+            assertEquals(SolveResult.Status.SOLVED, result.getStatus());
+            assertTrue(result.getPasses() > 0);
+        }
+    }
+
+    @Test
+    void reachesTheSameFixpointAsSequentialSolving() {
+        Board sequential = new BoardGenerator("resources/Camera.bmp", 4).getBoard();
+        SolveResult expected = new BoardCompleter(sequential, new CompleteLineSolver()).solve();
+
+        Board parallel = new BoardGenerator("resources/Camera.bmp", 4).getBoard();
+        try (ParallelBoardCompleter completer = new ParallelBoardCompleter(parallel, CompleteLineSolver::new, 4)) {
+            assertEquals(expected.getStatus(), completer.solve().getStatus());
+        }
+        assertEquals(sequential.toString(), parallel.toString());
+    }
+
+    @Test
+    void sharedPoolIsLeftRunning() {
+        Board board = new BoardGenerator("resources/Test2.bmp", 1).getBoard();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try (ParallelBoardCompleter completer = new ParallelBoardCompleter(board, CompleteLineSolver::new, pool)) {
+            assertEquals(SolveResult.Status.SOLVED, completer.solve().getStatus());
+        }
+        assertFalse(pool.isShutdown());
+        pool.shutdown();
+    }
+
+    @Test
+    void contradictionIsReported() {
+        Board board = new Board(2, 2, new ArrayList<>(List.of(Clue.of(2), Clue.of())),
+                new ArrayList<>(List.of(Clue.of(2), Clue.of())));
+        try (ParallelBoardCompleter completer = new ParallelBoardCompleter(board, CompleteLineSolver::new, 2)) {
+            SolveResult result = completer.solve();
+            assertEquals(SolveResult.Status.CONTRADICTION, result.getStatus());
+            assertEquals(1, result.getPasses());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package nonogram.solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import nonogram.generator.Board;
+import nonogram.generator.BoardGenerator;
+import nonogram.generator.Clue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+public class SolutionCounterTest {
+
+    private static ArrayList<Clue> clues(int count, int... values) {
+        ArrayList<Clue> clues = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            clues.add(Clue.of(values));
+        }
+        return clues;
+    }
+
+    /**
+     * A board of n x n squares with a single filled square per row and per column, which has n! solutions.
+     */
+    private static Board permutations(int n) {
+        return new Board(n, n, clues(n, 1), clues(n, 1));
+    }
+
+    private static SolutionCount count(Board board, int limit, long timeoutMillis) {
+        try (SolutionCounter counter = new SolutionCounter(board, 4)) {
+            return counter.count(limit, timeoutMillis);
+        }
+    }
+
+    @Test
+    void uniqueBoardHasOneSolution() {
+        Board board = new BoardGenerator("resources/Test.bmp", 1).getBoard();
+        SolutionCount count = count(board, 2, 60_000);
+        assertEquals(SolutionCount.Status.EXACT, count.getStatus());
+        assertEquals(1, count.getSolutions());
+        assertTrue(count.isUnique());
+    }
+
+    @Test
+    void countsEverySolution() {
+        SolutionCount count = count(permutations(2), 10, 60_000);
+        assertEquals(SolutionCount.Status.EXACT, count.getStatus());
+        assertEquals(2, count.getSolutions());
+        assertFalse(count.isUnique());
+
+        count = count(permutations(5), 1000, 60_000);
+        assertEquals(SolutionCount.Status.EXACT, count.getStatus());
+        assertEquals(120, count.getSolutions());
+    }
+
+    @Test
+    void stopsAtTheLimit() {
+        SolutionCount count = count(permutations(8), 2, 60_000);
+        assertEquals(SolutionCount.Status.LIMIT_REACHED, count.getStatus());
+        assertEquals(2, count.getSolutions());
+        assertFalse(count.isUnique());
+    }
+
+    @Test
+    void boardWithoutSolutionHasNone() {
+        Board board = new Board(2, 2, clues(2, 2), clues(2, 1));
+        SolutionCount count = count(board, 2, 60_000);
+        assertEquals(SolutionCount.Status.EXACT, count.getStatus());
+        assertEquals(0, count.getSolutions());
+    }
+
+    @Test
+    void stopsWhenTheBudgetRunsOut() {
+        SolutionCount count = count(permutations(12), Integer.MAX_VALUE, 50);
+        assertEquals(SolutionCount.Status.TIMEOUT, count.getStatus());
+        assertTrue(count.getSolutions() > 0);
+    }
+
+    @Test
+    void splittingStopsWhenTheBudgetRunsOut() {
+        SolutionCount count = count(permutations(12), Integer.MAX_VALUE, 0);
+        assertEquals(SolutionCount.Status.TIMEOUT, count.getStatus());
+        assertEquals(0, count.getBranches());
+    }
+
+    @Test
+    void boardIsLeftUnchanged() {
+        Board board = new BoardGenerator("resources/Camera.bmp", 4).getBoard();
+        String before = board.toString();
+        try (SolutionCounter counter = new SolutionCounter(board, ForkJoinPool.commonPool())) {
+            counter.count(2, 60_000);
+        }
+        assertEquals(before, board.toString());
+    }
+}
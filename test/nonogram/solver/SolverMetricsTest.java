@@ -0,0 +1,85 @@
+package nonogram.solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import nonogram.generator.Board;
+import nonogram.generator.BoardGenerator;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+public class SolverMetricsTest {
+
+    @Test
+    void lengthBucketsDoubleInSize() {
+        assertEquals(0, SolverMetrics.lengthBucket(1));
+        assertEquals(0, SolverMetrics.lengthBucket(8));
+        assertEquals(1, SolverMetrics.lengthBucket(9));
+        assertEquals(1, SolverMetrics.lengthBucket(16));
+        assertEquals(7, SolverMetrics.lengthBucket(1024));
+        assertEquals(8, SolverMetrics.lengthBucket(1025));
+        assertEquals(16, SolverMetrics.bucketUpperBound(1));
+        assertEquals(Integer.MAX_VALUE, SolverMetrics.bucketUpperBound(SolverMetrics.LENGTH_BUCKETS - 1));
+    }
+
+    @Test
+    void solveRecordsLinesPassesAndRules() {
+        Board board = new BoardGenerator("resources/Test.bmp", 1).getBoard();
+        SolverMetrics metrics = new SolverMetrics();
+        LineSolver lineSolver = new LineSolver();
+        lineSolver.setMetrics(metrics);
+        BoardCompleter completer = new BoardCompleter(board, lineSolver);
+        completer.setMetrics(metrics);
+
+        SolveResult result = completer.solve();
+        SolverMetrics.Snapshot snapshot = metrics.snapshot();
+
+        int[] dimensions = board.getDimensions();
+        assertEquals(SolveResult.Status.SOLVED, result.getStatus());
+        assertEquals(result.getPasses(), snapshot.getPasses());
+        assertEquals(dimensions[0] * dimensions[1], snapshot.getSquaresDeduced());
+        assertTrue(snapshot.getProductiveLineSolves() > 0);
+        assertTrue(snapshot.getProductiveLineSolves() <= snapshot.getLineSolves());
+
+        long ruleTotal = 0;
+        for (SolverMetrics.Rule rule : SolverMetrics.Rule.values()) {
+            ruleTotal += snapshot.getRuleSquares(rule);
+        }
+        assertEquals(snapshot.getSquaresDeduced(), ruleTotal);
+
+        long bucketTotal = 0;
+        for (int bucket = 0; bucket < SolverMetrics.LENGTH_BUCKETS; bucket++) {
+            bucketTotal += snapshot.getBucketSolves(bucket);
+        }
+        assertEquals(snapshot.getLineSolves(), bucketTotal);
+    }
+
+    @Test
+    void resetClearsEveryCounter() {
+        Board board = new BoardGenerator("resources/Test.bmp", 1).getBoard();
+        SolverMetrics metrics = new SolverMetrics();
+        BoardCompleter completer = new BoardCompleter(board);
+        completer.setMetrics(metrics);
+        completer.solve();
+
+        metrics.reset();
+        SolverMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(0, snapshot.getLineSolves());
+        assertEquals(0, snapshot.getPasses());
+        assertEquals(0, snapshot.getBucketNanos(SolverMetrics.lengthBucket(board.getDimensions()[0])));
+    }
+
+    @Test
+    void metricsAreReadableOverJmx() throws Exception {
+        SolverMetrics metrics = new SolverMetrics();
+        metrics.recordPass(10);
+        ObjectName name = metrics.register("SolverMetricsTest");
+        try {
+            assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Passes"));
+            assertThrows(IllegalStateException.class, () -> metrics.register("SolverMetricsTest"));
+        } finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+    }
+}
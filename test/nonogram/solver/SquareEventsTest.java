@@ -0,0 +1,85 @@
+package nonogram.solver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import nonogram.generator.Square;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SquareEventsTest {
+
+    private static List<int[]> drainAll(SquareEvents events, int max) {
+        ArrayList<int[]> drained = new ArrayList<>();
+        events.drain(max, (cell, state) -> drained.add(new int[]{cell, state}));
+        return drained;
+    }
+
+    @Test
+    void capacityIsRoundedToAPowerOfTwo() {
+        assertEquals(8, new SquareEvents(5).capacity());
+        assertEquals(8, new SquareEvents(8).capacity());
+        assertEquals(1, new SquareEvents(1).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new SquareEvents(0));
+    }
+
+    @Test
+    void changesAreDrainedInOrder() {
+        SquareEvents events = new SquareEvents(4);
+        assertTrue(events.publish(7, Square.FILLED));
+        assertTrue(events.publish(123456, Square.CROSS));
+        assertTrue(events.publish(0, Square.EMPTY));
+        assertEquals(3, events.size());
+
+        List<int[]> first = drainAll(events, 2);
+        assertEquals(2, first.size());
+        assertArrayEquals(new int[]{7, Square.FILLED}, first.get(0));
+        assertArrayEquals(new int[]{123456, Square.CROSS}, first.get(1));
+        List<int[]> rest = drainAll(events, 10);
+        assertEquals(1, rest.size());
+        assertArrayEquals(new int[]{0, Square.EMPTY}, rest.get(0));
+        assertEquals(0, events.size());
+    }
+
+    @Test
+    void theRingWrapsAround() {
+        SquareEvents events = new SquareEvents(2);
+        for (int cell = 0; cell < 10; cell++) {
+            assertTrue(events.publish(cell, Square.FILLED));
+            assertEquals(cell, drainAll(events, 1).get(0)[0]);
+        }
+        assertFalse(events.takeOverflow());
+    }
+
+    @Test
+    void changesAreDroppedWhenFull() {
+        SquareEvents events = new SquareEvents(2);
+        assertTrue(events.publish(1, Square.FILLED));
+        assertTrue(events.publish(2, Square.FILLED));
+        assertFalse(events.publish(3, Square.FILLED));
+        assertEquals(1, events.getDropped());
+        assertEquals(2, events.size());
+
+        assertTrue(events.takeOverflow());
+        assertEquals(0, events.size());
+        assertFalse(events.takeOverflow());
+        assertTrue(events.publish(4, Square.CROSS));
+        assertEquals(4, drainAll(events, 10).get(0)[0]);
+    }
+
+    @Test
+    void finishedOnceClosedAndDrained() {
+        SquareEvents events = new SquareEvents(2);
+        events.publish(1, Square.FILLED);
+        events.publish(2, Square.FILLED);
+        events.publish(3, Square.FILLED);
+        events.close();
+        assertFalse(events.isFinished());
+        drainAll(events, 10);
+        // the dropped change must still be caught up on
+        assertFalse(events.isFinished());
+        assertTrue(events.takeOverflow());
+        assertTrue(events.isFinished());
+    }
+}
@@ -0,0 +1,60 @@
+package nonogram.tuning;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import nonogram.generator.Board;
+import nonogram.generator.LuminanceMap;
+import nonogram.solver.BoardCompleter;
+import nonogram.solver.CompleteLineSolver;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+public class GeneratorTunerTest {
+
+    @Test
+    void tunedBoardIsLineSolvable() throws IOException {
+        try (GeneratorTuner tuner = new GeneratorTuner(4)) {
+            TunedBoard tuned = tuner.tune(new File("resources/CatPot_Large.png"), 12, 48);
+            assertNotNull(tuned);
+            assertEquals(0, tuned.getPixelSize() % 12);
+            assertTrue(tuned.getCandidates() > 0);
+            assertTrue(tuned.getError() >= 0 && tuned.getError() <= 1);
+
+            Board board = tuned.getBoard();
+            assertTrue(board.getRow(0).isEmpty(0));
+            assertTrue(new BoardCompleter(board, new CompleteLineSolver()).solve().isSolved());
+        }
+    }
+
+    @Test
+    void finestSolvableSizeIsKept() {
+        // a black square in the corner of a white image, line-solvable at every size
+        float[] values = new float[16 * 16];
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 16; x++) {
+                values[y * 16 + x] = x < 10 && y < 10 ? 0f : 1f;
+            }
+        }
+        try (GeneratorTuner tuner = new GeneratorTuner(ForkJoinPool.commonPool())) {
+            tuner.setDithering(false);
+            tuner.setThresholds(0.5f);
+            TunedBoard tuned = tuner.tune(new LuminanceMap(16, 16, values), 1, 4);
+            assertNotNull(tuned);
+            assertEquals(1, tuned.getPixelSize());
+            assertEquals(0.0, tuned.getError());
+            assertEquals(1, tuned.getCandidates());
+        }
+    }
+
+    @Test
+    void blankImageHasNoPuzzle() {
+        float[] white = new float[8 * 8];
+        java.util.Arrays.fill(white, 1f);
+        try (GeneratorTuner tuner = new GeneratorTuner(2)) {
+            assertNull(tuner.tune(new LuminanceMap(8, 8, white), 1, 2));
+        }
+    }
+}